@@ -6,11 +6,9 @@ package cipher.model;
 
 import java.util.Scanner;
 
-import commons.generators.IRandomLatinSquareGenerator;
 import commons.model.latinsquares.ILatinSquare;
 import commons.utils.Base64Utils;
 import commons.utils.FileUtils;
-import seqgen.model.generators.SeqGenWithReplGraph;
 
 /**
  *  This is another LS-based cipher, created by IGS for Blue Montag Software.
@@ -33,8 +31,7 @@ public class AlexCipher implements ILatinSquareCipher {
 	private int n = 0;
 	
 	public static void main(String[] args) throws Exception {
-		IRandomLatinSquareGenerator generator = new SeqGenWithReplGraph(256);
-		ILatinSquare ls = generator.generateLS();
+		ILatinSquare ls = CipherKeyGenerator.generateKey();
 		
 		AlexCipher cipher = new AlexCipher(ls);
 		
@@ -84,16 +81,16 @@ public class AlexCipher implements ILatinSquareCipher {
 		String cipheredText = "";
 		
 		while ((int)currChar<256 && this.textPosition<plaintext.length()) {
-			this.searchForCharInSameRowOrColumn(new Character(currChar).toString());
+			this.searchForCharInSameRowOrColumn(currChar);
 			
 			this.nextRowOrColumn();
 			
 			String cipherChar;
 			
 			if (this.mode==this.MODE_USE_SAME_ROW)
-				cipherChar = Character.toString((char)(ls.getValueAt(this.current_row_col, this.col).intValue()));
+				cipherChar = Character.toString((char)ls.get(this.current_row_col, this.col));
 			else
-				cipherChar = Character.toString((char)(ls.getValueAt(this.row, this.current_row_col).intValue()));
+				cipherChar = Character.toString((char)ls.get(this.row, this.current_row_col));
 			
 			cipheredText += cipherChar;
 			
@@ -121,14 +118,14 @@ public class AlexCipher implements ILatinSquareCipher {
 		String plainText = "";
 		
 		while (this.textPosition>=0) {
-			this.searchForCharInSameRowOrColumn(new Character(curCipherChar).toString());
+			this.searchForCharInSameRowOrColumn(curCipherChar);
 			this.previousRowOrColumn();
 			
 			String plainChar;
 			if (this.mode==this.MODE_USE_SAME_ROW)
-				plainChar = Character.toString((char)(ls.getValueAt(this.current_row_col, this.col).intValue()));
+				plainChar = Character.toString((char)ls.get(this.current_row_col, this.col));
 			else
-				plainChar = Character.toString((char)(ls.getValueAt(this.row, this.current_row_col).intValue()));
+				plainChar = Character.toString((char)ls.get(this.row, this.current_row_col));
 			 
 			plainText = plainChar + plainText;
 			this.textPosition--;
@@ -147,18 +144,14 @@ public class AlexCipher implements ILatinSquareCipher {
 	 *  Searchs for the next character in the same row / column
 	 *  
 	 **/
-	private void searchForCharInSameRowOrColumn(String car) throws Exception {
+	private void searchForCharInSameRowOrColumn(char car) throws Exception {
 		if (this.mode==this.MODE_USE_SAME_COL) {
-			String lsCar = Character.toString((char)(ls.getValueAt(this.row, this.current_row_col).intValue()));
-			while (!car.equals(lsCar)) {
+			while (ls.get(this.row, this.current_row_col)!=car) {
 				this.move();
-				lsCar = Character.toString((char)(ls.getValueAt(this.row, this.current_row_col).intValue()));
 			}
 		} else {
-			String lsCar = Character.toString((char)(ls.getValueAt(this.current_row_col, this.col).intValue()));
-			while (!car.equals(lsCar)) {
+			while (ls.get(this.current_row_col, this.col)!=car) {
 				this.move();
-				lsCar = Character.toString((char)(ls.getValueAt(this.current_row_col, this.col).intValue()));
 			}
 		}
 
@@ -215,7 +208,7 @@ public class AlexCipher implements ILatinSquareCipher {
 	public void showPrivateKey() throws Exception {
 		for (int i=0; i<ls.size(); i++) {
 			for(int j=0; j<ls.size(); j++) {
-				System.out.print(Character.toString((char)(ls.getValueAt(i, j).intValue()))+" ");
+				System.out.print(Character.toString((char)ls.get(i, j))+" ");
 			}
 			System.out.println("");
 		}
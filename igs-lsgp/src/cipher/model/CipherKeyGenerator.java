@@ -0,0 +1,48 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package cipher.model;
+
+import commons.model.latinsquares.ILatinSquare;
+import commons.utils.PrefetchingSecureRandomSource;
+import seqgen.model.generators.SeqGenWithReplGraph;
+
+/**
+ *  Generates the private keys (random LSs) of the ciphers. The random choices come from a SecureRandom that runs ahead
+ *  in a background thread ({@link PrefetchingSecureRandomSource}), so keys stay cryptographically sourced without
+ *  waiting for the provider on every symbol.
+ *
+ * @author igallego
+ *
+ */
+public class CipherKeyGenerator {
+
+	public static final int DEFAULT_ORDER = 256;
+
+	/**
+	 * A new random key of the default order (one symbol per byte value).
+	 *
+	 * @return
+	 */
+	public static ILatinSquare generateKey() {
+		return generateKey(DEFAULT_ORDER);
+	}
+
+	/**
+	 * A new random key of order n.
+	 *
+	 * @param n
+	 * @return
+	 */
+	public static ILatinSquare generateKey(int n) {
+		PrefetchingSecureRandomSource random = new PrefetchingSecureRandomSource();
+		try {
+			SeqGenWithReplGraph generator = new SeqGenWithReplGraph(n);
+			generator.setRandomSource(random);
+			return generator.generateLS();
+		} finally {
+			random.close();
+		}
+	}
+}
@@ -24,10 +24,8 @@ package cipher.model;
 
 import java.util.Scanner;
 
-import commons.model.OrderedPair;
 import commons.model.latinsquares.ILatinSquare;
 import commons.utils.Base64Utils;
-import seqgen.model.generators.SeqGenWithReplGraph;
 
 /**
  * This simple Cipher shows how a LS can be used to crypt and decrypt information.
@@ -45,15 +43,15 @@ public class GibsonCipher implements ILatinSquareCipher {
 	private final int LEFT  = 2;
 	private final int UP    = 3;
 	
-	private OrderedPair lsPosition = new OrderedPair(0, 0);
+	private int posX = 0;//current row in the LS
+	private int posY = 0;//current column in the LS
 	private int textPosition = 0;
 	private int direction = RIGHT;//left to right
 	private ILatinSquare ls = null;
 	private int n = 0;
 	
 	public static void main(String[] args) throws Exception {
-		SeqGenWithReplGraph generator = new SeqGenWithReplGraph(256);
-		ILatinSquare ls = generator.generateLS();
+		ILatinSquare ls = CipherKeyGenerator.generateKey();
 		
 		GibsonCipher cipher = new GibsonCipher(ls);
 //		cipher.add(64);
@@ -102,11 +100,11 @@ public class GibsonCipher implements ILatinSquareCipher {
 		String cipheredText = "";
 		
 		while ((int)currChar<256 && this.textPosition<plaintext.length()) {
-			this.searchForChar(new Character(currChar).toString());
+			this.searchForChar(currChar);
 			
 			this.move();//take the next character
 			
-			String cipherChar = Character.toString((char)(ls.getValueAt(lsPosition.x, lsPosition.y).intValue()));
+			String cipherChar = Character.toString((char)ls.get(posX, posY));
 			
 			//change direction to the next 
 			this.nextDirection();
@@ -146,13 +144,13 @@ public class GibsonCipher implements ILatinSquareCipher {
 			   girar
 			 */
 			this.move();
-			String plainChar = Character.toString((char)(ls.getValueAt(lsPosition.x, lsPosition.y).intValue()));
+			String plainChar = Character.toString((char)ls.get(posX, posY));
 			plainText = plainChar + plainText;
 			this.textPosition--;
 			if (this.textPosition>=0)
 				currChar = cipheredText.charAt(textPosition);
 
-			this.searchForChar(new Character(currChar).toString());
+			this.searchForChar(currChar);
 			
 			this.prevDirection();
 			
@@ -166,11 +164,9 @@ public class GibsonCipher implements ILatinSquareCipher {
 	 *  Searchs for the next character in the same direction
 	 *  
 	 **/
-	private void searchForChar(String car) throws Exception {
-		String lsCar = Character.toString((char)(ls.getValueAt(lsPosition.x, lsPosition.y).intValue()));
-		while (!car.equals(lsCar)) {
+	private void searchForChar(char car) throws Exception {
+		while (ls.get(posX, posY)!=car) {
 			this.move();
-			lsCar = Character.toString((char)(ls.getValueAt(lsPosition.x, lsPosition.y).intValue()));
 		}
 		
 		return;
@@ -220,24 +216,24 @@ public class GibsonCipher implements ILatinSquareCipher {
 	private void move() {
 		switch (direction) {
 		case RIGHT:
-			lsPosition.y++;
-			if (lsPosition.y==n)
-				lsPosition.y = 0;
+			posY++;
+			if (posY==n)
+				posY = 0;
 			break;
 		case DOWN:
-			lsPosition.x++;
-			if (lsPosition.x==n)
-				lsPosition.x = 0;
+			posX++;
+			if (posX==n)
+				posX = 0;
 			break;
 		case LEFT:
-			lsPosition.y--;
-			if (lsPosition.y==-1)
-				lsPosition.y = n-1;
+			posY--;
+			if (posY==-1)
+				posY = n-1;
 			break;
 		case UP:
-			lsPosition.x--;
-			if (lsPosition.x==-1)
-				lsPosition.x = n-1;
+			posX--;
+			if (posX==-1)
+				posX = n-1;
 			break;
 		default:
 			break;
@@ -248,7 +244,7 @@ public class GibsonCipher implements ILatinSquareCipher {
 	public void showPrivateKey() throws Exception {
 		for (int i=0; i<ls.size(); i++) {
 			for(int j=0; j<ls.size(); j++) {
-				System.out.print(Character.toString((char)(ls.getValueAt(i, j).intValue()))+" ");
+				System.out.print(Character.toString((char)ls.get(i, j))+" ");
 			}
 			System.out.println("");
 		}
@@ -4,6 +4,8 @@
  */
 package commons.generators;
 
+import commons.utils.RandomSource;
+
 /**
  *  This interface lists the methods that all random structure generators must implement.
  * @author igallego
@@ -23,4 +25,10 @@ public interface IRandomStructureGenerator {
 	 *  
 	 */
 	public void setVerbose(boolean show);
+	
+	/**
+	 *  The source of the random numbers used by the generator (a {@link commons.utils.SecureRandomSource} by default).
+	 *  
+	 */
+	public void setRandomSource(RandomSource random);
 }
@@ -25,10 +25,21 @@
  */
 package commons.mainexecutable;
 
+import java.io.IOException;
 import commons.generators.IRandomLatinSquareGenerator;
 import commons.model.latinsquares.ILatinSquare;
+import commons.utils.BitBufferedRandomSource;
+import commons.utils.CountingRandomSource;
 import commons.utils.FileUtils;
+import commons.utils.LSContainerWriter;
+import commons.utils.RandomSource;
+import commons.utils.RandomUtils;
+import jacomatt.model.ChainMetrics;
+import jacomatt.model.MixingSchedule;
+import jacomatt.model.generators.HybridJacobsonMatthewsGenerator;
+import jacomatt.model.generators.JacobsonMatthewsChainGenerator;
 import jacomatt.model.generators.JacobsonMatthewsLSGenerator;
+import jacomatt.model.generators.ParallelJacobsonMatthewsGenerator;
 import koscielny.model.generators.KoscielnyProductGenerator;
 import mckaywormald.model.generators.McKayLRGenerationMethod;
 import selvi_et_al.model.generators.OCarrollWithRestartLSGenerator;
@@ -49,6 +60,7 @@ import seqgen.model.generators.SeqGenWithRestartRow;
  */
 public class GeneratorJar {
 
+	private static final String[] OPTIONS = {"write", "repeat", "verbose", "buffered", "thinning", "threads", "warm", "mixing", "random"};
 	/**
 	 * 
 	 *  Construct a graph with the method passed as parameter, of any order, and writes to file if requested.
@@ -64,13 +76,29 @@ public class GeneratorJar {
 			System.out.println(" 2014-2016 by Mg. Ignacio Gallego Sagastume.");
 			System.out.println("________________________________________________________________________________");
 			System.out.println("");
-			System.out.println("Usage: <method> <order> [WRITE <path> | REPEAT <times> [VERBOSE <TRUE|FALSE> ] ]");
+			System.out.println("Usage: <method> <order> [WRITE <path> [TEXT|BINARY]] [REPEAT <times> [VERBOSE <TRUE|FALSE> ] ]");
+			System.out.println("       (with REPEAT, WRITE stores all the generated LSs in one container file)");
+			System.out.println("                        [RANDOM <SECURE|SPLITMIX|XOSHIRO|PREFETCH> [SEED <seed>] ]");
+			System.out.println("       (RANDOM chooses the random number generator; with SEED, runs are reproducible)");
+			System.out.println("                        [BUFFERED <TRUE|FALSE>]");
+			System.out.println("       (BUFFERED hands out single bits and small ranges from cached random words)");
+			System.out.println("                        [MIXING <STEPS <moves>|CUBES <multiplier>|TIME <millis>> [TIME <millis>] ]");
+			System.out.println("       (MIXING sets the moves of the jm methods, or the burn-in with THINNING: a number, a multiplier of n^3 or a time limit)");
+			System.out.println("                        [THINNING <moves>]");
+			System.out.println("       (THINNING sets the moves of jm-chain or jm-parallel between two LSs of a chain, n^2 by default in jm-chain)");
+			System.out.println("                        [THREADS <threads>]");
+			System.out.println("       (THREADS sets the chains of jm-parallel, one per core by default)");
+			System.out.println("                        [WARM <GRAPH|PRODUCT>]");
+			System.out.println("       (WARM chooses the generator of the starting LS of jm-hybrid, GRAPH by default; MIXING sets its chain, n^3/8 by default)");
 			System.out.println("Where <method> ::= back       | ");
 			System.out.println("                   product    | ");
 			System.out.println("                   swapping   | ");
 			System.out.println("                   restart    | ");
 			System.out.println("                   graph      | ");
 			System.out.println("                   jm         | ");
+			System.out.println("                   jm-chain   | ");
+			System.out.println("                   jm-parallel| ");
+			System.out.println("                   jm-hybrid  | ");
 			System.out.println("                   mckay      | ");
 			System.out.println("                   ocarrollr  | ");
 			System.out.println("                   selvi");
@@ -81,103 +109,244 @@ public class GeneratorJar {
 		int n = new Integer(args[1]);
 		int times = 1;
 		String path = null;
+		String format = FileUtils.TEXT;
 		boolean verbose = false;
+		String randomName = RandomUtils.SECURE;
+		Long seed = null;
+		boolean buffered = false;
+		MixingSchedule schedule = null;
+		Long thinning = null;
+		Integer threads = null;
+		String warm = null;
 		
-		if (args.length>2) {
-			if (args[2]!=null && args[2].equalsIgnoreCase("write")) {
-				if (args.length==4)
-					path = args[3];
-				else {
+		for (int a=2; a<args.length; a++) {//options, in any order
+			String option = args[a];
+			if (option.equalsIgnoreCase("write")) {
+				if (a+1>=args.length) {
 					System.out.println("Bad usage. The WRITE option needs a path.");
 					return;
 				}
-			} else { 
-				if (args[2]!=null && args[2].equalsIgnoreCase("repeat")) {
-					
-					if (args.length>=4) {//repeat present
-						times = new Integer(args[3]);
-						
-						if (args.length>4 && args[4].equalsIgnoreCase("verbose")) {//verbose present
-							if (args[5]!=null && args[5].equalsIgnoreCase("true"))
-								verbose = true;
-							else
-								verbose = false;
-						}
-						
-					} else {
-						System.out.println("Bad usage. The REPEAT option needs a number of repetitions.");
+				path = args[++a];
+				if (a+1<args.length && !isOption(args[a+1])) {//the format is optional
+					format = args[++a];
+					if (!FileUtils.isFormat(format)) {
+						System.out.println("Bad usage. Unknown format for the WRITE option: "+format+". Valid formats: "+FileUtils.FORMATS);
 						return;
 					}
 				}
+			} else if (option.equalsIgnoreCase("repeat")) {
+				if (a+1>=args.length) {
+					System.out.println("Bad usage. The REPEAT option needs a number of repetitions.");
+					return;
+				}
+				times = new Integer(args[++a]);
+			} else if (option.equalsIgnoreCase("verbose")) {
+				if (a+1>=args.length) {
+					System.out.println("Bad usage. The VERBOSE option needs TRUE or FALSE.");
+					return;
+				}
+				verbose = args[++a].equalsIgnoreCase("true");
+			} else if (option.equalsIgnoreCase("buffered")) {
+				if (a+1>=args.length) {
+					System.out.println("Bad usage. The BUFFERED option needs TRUE or FALSE.");
+					return;
+				}
+				buffered = args[++a].equalsIgnoreCase("true");
+			} else if (option.equalsIgnoreCase("thinning")) {
+				if (a+1>=args.length) {
+					System.out.println("Bad usage. The THINNING option needs a number of moves.");
+					return;
+				}
+				thinning = new Long(args[++a]);
+				if (thinning<1) {
+					System.out.println("Bad usage. The THINNING option needs at least one move.");
+					return;
+				}
+			} else if (option.equalsIgnoreCase("threads")) {
+				if (a+1>=args.length) {
+					System.out.println("Bad usage. The THREADS option needs a number of threads.");
+					return;
+				}
+				threads = new Integer(args[++a]);
+				if (threads<1) {
+					System.out.println("Bad usage. The THREADS option needs a positive number of threads.");
+					return;
+				}
+			} else if (option.equalsIgnoreCase("warm")) {
+				if (a+1>=args.length || (!args[a+1].equalsIgnoreCase("graph") && !args[a+1].equalsIgnoreCase("product"))) {
+					System.out.println("Bad usage. The WARM option needs GRAPH or PRODUCT.");
+					return;
+				}
+				warm = args[++a];
+			} else if (option.equalsIgnoreCase("mixing")) {
+				if (a+2>=args.length) {
+					System.out.println("Bad usage. The MIXING option needs STEPS <moves>, CUBES <multiplier> or TIME <millis>.");
+					return;
+				}
+				try {
+					schedule = MixingSchedule.of(args[a+1], args[a+2]);
+					a += 2;
+					if (a+2<args.length && args[a+1].equalsIgnoreCase(MixingSchedule.TIME)) {
+						schedule = schedule.withTimeLimit(new Long(args[a+2]));
+						a += 2;
+					}
+				} catch (IllegalArgumentException e) {
+					System.out.println("Bad usage. "+e.getMessage());
+					return;
+				}
+			} else if (option.equalsIgnoreCase("random")) {
+				if (a+1>=args.length) {
+					System.out.println("Bad usage. The RANDOM option needs SECURE, SPLITMIX, XOSHIRO or PREFETCH.");
+					return;
+				}
+				randomName = args[++a];
+				if (a+2<args.length && args[a+1].equalsIgnoreCase("seed"))
+					seed = new Long(args[a+=2]);
+			} else {
+				System.out.println("Bad usage. Unknown option: "+option);
+				return;
 			}
 		}
-		IRandomLatinSquareGenerator generator;
+		CountingRandomSource counter;
+		try {
+			counter = new CountingRandomSource(RandomUtils.createSource(randomName, seed));
+		} catch (IllegalArgumentException e) {
+			System.out.println("Bad usage. "+e.getMessage());
+			return;
+		}
+		//the counter goes under the buffer, to count the words it really draws
+		RandomSource random = buffered ? new BitBufferedRandomSource(counter) : counter;
+		try {
+			IRandomLatinSquareGenerator generator;
 		
-		String method = args[0];
+			String method = args[0];
 		
-		if (!method.equalsIgnoreCase("back") &&
-			!method.equalsIgnoreCase("product") &&
-			!method.equalsIgnoreCase("swapping") &&
-			!method.equalsIgnoreCase("restart") &&
-			!method.equalsIgnoreCase("graph") &&
-			!method.equalsIgnoreCase("jm") &&
-			!method.equalsIgnoreCase("mckay") &&
-			!method.equalsIgnoreCase("ocarrollr") &&
-			!method.equalsIgnoreCase("selvi") 
-			) {
-				System.out.println("Method not supported: "+method);
-				return;
-		}
+			if (!method.equalsIgnoreCase("back") &&
+				!method.equalsIgnoreCase("product") &&
+				!method.equalsIgnoreCase("swapping") &&
+				!method.equalsIgnoreCase("restart") &&
+				!method.equalsIgnoreCase("graph") &&
+				!method.equalsIgnoreCase("jm") &&
+				!method.equalsIgnoreCase("jm-chain") &&
+				!method.equalsIgnoreCase("jm-parallel") &&
+				!method.equalsIgnoreCase("jm-hybrid") &&
+				!method.equalsIgnoreCase("mckay") &&
+				!method.equalsIgnoreCase("ocarrollr") &&
+				!method.equalsIgnoreCase("selvi") 
+				) {
+					System.out.println("Method not supported: "+method);
+					return;
+			}
 		
-		if (method.equalsIgnoreCase("back")) {
-			generator = new SeqGenWithBacktracking(n);
-			repeatGeneration(generator, n, path, times, verbose);
-		}
+			if (schedule!=null && !method.toLowerCase().startsWith("jm")) {
+				System.out.println("The MIXING option only applies to the jm methods. It is ignored.");
+			}
+			if (thinning!=null && !method.equalsIgnoreCase("jm-chain") && !method.equalsIgnoreCase("jm-parallel")) {
+				System.out.println("The THINNING option only applies to the jm-chain and jm-parallel methods. It is ignored.");
+			}
+			if (threads!=null && !method.equalsIgnoreCase("jm-parallel")) {
+				System.out.println("The THREADS option only applies to the jm-parallel method. It is ignored.");
+			}
+			if (warm!=null && !method.equalsIgnoreCase("jm-hybrid")) {
+				System.out.println("The WARM option only applies to the jm-hybrid method. It is ignored.");
+			}
 		
-		if (method.equalsIgnoreCase("product")) {
-			generator = new KoscielnyProductGenerator(n);
-			repeatGeneration(generator, n, path, times, verbose);
-		}
+			if (method.equalsIgnoreCase("back")) {
+				generator = new SeqGenWithBacktracking(n);
+				repeatGeneration(generator, n, path, format, times, verbose, random, counter);
+			}
+		
+			if (method.equalsIgnoreCase("product")) {
+				generator = new KoscielnyProductGenerator(n);
+				repeatGeneration(generator, n, path, format, times, verbose, random, counter);
+			}
 
-		if (method.equalsIgnoreCase("swapping")) {
-			generator = new SeqGenWithRandomSwapping(n);
-			repeatGeneration(generator, n, path, times, verbose);
-		}
+			if (method.equalsIgnoreCase("swapping")) {
+				generator = new SeqGenWithRandomSwapping(n);
+				repeatGeneration(generator, n, path, format, times, verbose, random, counter);
+			}
 		
-		if (method.equalsIgnoreCase("restart")) {
-			generator = new SeqGenWithRestartRow(n);
-			repeatGeneration(generator, n, path, times, verbose);
-		}
+			if (method.equalsIgnoreCase("restart")) {
+				generator = new SeqGenWithRestartRow(n);
+				repeatGeneration(generator, n, path, format, times, verbose, random, counter);
+			}
 		
-		if (method.equalsIgnoreCase("graph")) {
-			generator = new SeqGenWithReplGraph(n);
-			repeatGeneration(generator, n, path, times, verbose);
-		}
+			if (method.equalsIgnoreCase("graph")) {
+				generator = new SeqGenWithReplGraph(n);
+				repeatGeneration(generator, n, path, format, times, verbose, random, counter);
+			}
 		
-		if (method.equalsIgnoreCase("jm")) {
-			generator = new JacobsonMatthewsLSGenerator(n);
-			repeatGeneration(generator, n, path, times, verbose);
-		}
+			if (method.equalsIgnoreCase("jm")) {
+				JacobsonMatthewsLSGenerator jm = new JacobsonMatthewsLSGenerator(n);
+				if (schedule!=null)
+					jm.setMixingSchedule(schedule);
+				System.out.println("Mixing: "+jm.getMixingSchedule()+".");
+				generator = jm;
+				repeatGeneration(generator, n, path, format, times, verbose, random, counter);
+				printChainMetrics(jm.getMetrics());
+			}
 		
-		if (method.equalsIgnoreCase("mckay")) {
-			if (n<=2) {
-				System.out.println("Could not generate structure");
-				return;
+			if (method.equalsIgnoreCase("jm-chain")) {//one J&M chain, with burn-in and thinning
+				JacobsonMatthewsChainGenerator chain = new JacobsonMatthewsChainGenerator(n);
+				if (schedule!=null)
+					chain.setBurnIn(schedule);
+				if (thinning!=null)
+					chain.setThinning(thinning);
+				System.out.println("Burn-in: "+chain.getBurnIn()+". Thinning: "+chain.getThinning()+" moves.");
+				generator = chain;
+				repeatGeneration(generator, n, path, format, times, verbose, random, counter);
+				printChainMetrics(chain.getMetrics());
 			}
-			double cubicRoot = Math.pow(n, 1.0/3.0);
-			int k = (int)cubicRoot+1;
-			generator = new McKayLRGenerationMethod(k,n);
-			repeatGeneration(generator, n, path, times, verbose);
-		}
 		
-		if (method.equalsIgnoreCase("ocarrollr")) {//o'carroll with restart
-			generator = new OCarrollWithRestartLSGenerator(n);
-			repeatGeneration(generator, n, path, times, verbose);
-		}
+			if (method.equalsIgnoreCase("jm-parallel")) {//one J&M chain per thread
+				ParallelJacobsonMatthewsGenerator parallel = (threads==null) ? new ParallelJacobsonMatthewsGenerator(n) : new ParallelJacobsonMatthewsGenerator(n, threads);
+				if (schedule!=null)
+					parallel.setMixingSchedule(schedule);
+				if (thinning!=null)
+					parallel.setThinning(thinning);
+				System.out.println("Threads: "+parallel.getThreads()+". Mixing: "+parallel.getMixingSchedule()+"."+((thinning!=null) ? " Thinning: "+thinning+" moves." : ""));
+				generator = parallel;
+				try {
+					repeatGeneration(generator, n, path, format, times, verbose, random, counter);
+				} finally {
+					parallel.close();//stops the threads and adds up the metrics of their chains
+				}
+				printChainMetrics(parallel.getMetrics());
+			}
+		
+			if (method.equalsIgnoreCase("jm-hybrid")) {//a short J&M chain from a LS of a faster method
+				IRandomLatinSquareGenerator start = (warm!=null && warm.equalsIgnoreCase("product")) ? new KoscielnyProductGenerator(n) : new SeqGenWithReplGraph(n);
+				HybridJacobsonMatthewsGenerator hybrid = new HybridJacobsonMatthewsGenerator(start);
+				if (schedule!=null)
+					hybrid.setMixingSchedule(schedule);
+				System.out.println("Warm start: "+start.getMethodName()+". Mixing: "+hybrid.getMixingSchedule()+".");
+				generator = hybrid;
+				repeatGeneration(generator, n, path, format, times, verbose, random, counter);
+				printChainMetrics(hybrid.getMetrics());
+			}
 		
-		if (method.equalsIgnoreCase("selvi")) {//selvi et.al. algorithm (variation of ocarroll with backtracking)
-			generator = new SelviEtAlLSGenerator(n);
-			repeatGeneration(generator, n, path, times, verbose);
+			if (method.equalsIgnoreCase("mckay")) {
+				if (n<=2) {
+					System.out.println("Could not generate structure");
+					return;
+				}
+				double cubicRoot = Math.pow(n, 1.0/3.0);
+				int k = (int)cubicRoot+1;
+				generator = new McKayLRGenerationMethod(k,n);
+				repeatGeneration(generator, n, path, format, times, verbose, random, counter);
+			}
+		
+			if (method.equalsIgnoreCase("ocarrollr")) {//o'carroll with restart
+				generator = new OCarrollWithRestartLSGenerator(n);
+				repeatGeneration(generator, n, path, format, times, verbose, random, counter);
+			}
+		
+			if (method.equalsIgnoreCase("selvi")) {//selvi et.al. algorithm (variation of ocarroll with backtracking)
+				generator = new SelviEtAlLSGenerator(n);
+				repeatGeneration(generator, n, path, format, times, verbose, random, counter);
+			}
+		} finally {
+			random.close();//stops the background thread of the prefetch source
 		}
 		
 	}
@@ -188,7 +357,7 @@ public class GeneratorJar {
 	 * @param generator
 	 * @param path
 	 */
-	public static double computeTimeFor(IRandomLatinSquareGenerator generator, String path, int progress, boolean showProgress, boolean showFinalMessage, boolean verbose) {
+	public static double computeTimeFor(IRandomLatinSquareGenerator generator, String path, String format, LSContainerWriter container, int progress, boolean showProgress, boolean showFinalMessage, boolean verbose) {
 		long startTime = System.nanoTime();
 		ILatinSquare ls = generator.generateLS();
 		long endTime = System.nanoTime();
@@ -203,7 +372,15 @@ public class GeneratorJar {
 				System.out.println("Progress: "+progress+"%");
 			}
 		
-		FileUtils.writeLS(ls, path);
+		if (container!=null) {
+			try {
+				container.append(ls);
+			} catch (IOException e) {
+				System.out.println("Could not append LS to container. Exception: "+e.getMessage());
+			}
+		} else {
+			FileUtils.writeLS(ls, path, format);
+		}
 		
 		if (showFinalMessage)
 			System.out.println("Random structure generated in "+secs+" seconds. Generation method: "+generator.getMethodName());
@@ -220,25 +397,50 @@ public class GeneratorJar {
 
 	
 	
-	private static void repeatGeneration(IRandomLatinSquareGenerator generator, int order, String path, int times, boolean verbose) {
+	/**
+	 * Tells if arg is the name of one of the options.
+	 * 
+	 * @param arg
+	 * @return
+	 */
+	private static boolean isOption(String arg) {
+		for (String option : OPTIONS)
+			if (option.equalsIgnoreCase(arg))
+				return true;
+		return false;
+	}
+	
+	private static void repeatGeneration(IRandomLatinSquareGenerator generator, int order, String path, String format, int times, boolean verbose, RandomSource random, CountingRandomSource counter) {
 		generator.setVerbose(verbose);
+		generator.setRandomSource(random);
+		counter.reset();
 		long startTime = System.nanoTime();
 
 		boolean showProgress = false;
 		boolean showFinalMessage = true; 
 		if (times==1) {
 			verbose = true;
-			computeTimeFor(generator, path, 100, showProgress, showFinalMessage, verbose);
+			computeTimeFor(generator, path, format, null, 100, showProgress, showFinalMessage, verbose);
+			printEntropyCost(random, counter, order, 1);
 			return;
 		}
+		LSContainerWriter container = null;
+		if (path!=null) {
+			try {
+				container = new LSContainerWriter(path);
+			} catch (IOException e) {
+				System.out.println("Could not create container file. Exception: "+e.getMessage());
+				return;
+			}
+		}
 		//List<Double> generationTimes = new ArrayList<Double>();
 		Double sum = 0.0;
 		int progress = 0;
-		int percetage = times/10;
+		int percetage = Math.max(1, times/10);
 		showFinalMessage = false;
 		showProgress = true;
 		for (int i=1; i<=times; i++) {
-			double secsForAGen = computeTimeFor(generator, path, progress, showProgress, showFinalMessage, verbose);
+			double secsForAGen = computeTimeFor(generator, path, format, container, progress, showProgress, showFinalMessage, verbose);
 
 			if (i%percetage==0) {
 				progress += 10;
@@ -254,6 +456,15 @@ public class GeneratorJar {
 				System.out.println("");
 			
 		}
+		if (container!=null) {
+			try {
+				container.close();
+				System.out.println("");
+				System.out.println(container.size()+" LSs written to container: "+path);
+			} catch (IOException e) {
+				System.out.println("Could not close container file. Exception: "+e.getMessage());
+			}
+		}
 		long endTime = System.nanoTime();
 
 		long duration = endTime - startTime;
@@ -272,6 +483,35 @@ public class GeneratorJar {
 				System.out.println("Finished "+times+" generations of LSs of order "+order+" after "+secs+" seconds.");
 		System.out.println("Generation method: "+generator.getMethodName()+" in igs-lsgp.");
 		System.out.println("Average time of method is "+averageTime+" seconds.");
+		printEntropyCost(random, counter, order, times);
+	}
+	
+	/**
+	 * Prints the random words and bits drawn per LS, counted since the start of the generations.
+	 * 
+	 * @param random
+	 * @param counter
+	 * @param order
+	 * @param times
+	 */
+	private static void printEntropyCost(RandomSource random, CountingRandomSource counter, int order, int times) {
+		double draws = counter.getDraws() / (double)times;
+		double bits = counter.getBits() / (double)times;
+		System.out.println("Random source: "+random.getName()+".");
+		if (counter.getDraws()==0)
+			System.out.println("Random draws per LS: not counted (the generator draws from its own streams).");
+		else
+			System.out.println("Random draws per LS: "+draws+" ("+bits+" bits, "+(bits/((double)order*order))+" bits per cell).");
+	}
+	
+	/**
+	 * Prints the counters of the J&M chains of all the generations.
+	 * 
+	 * @param metrics
+	 */
+	private static void printChainMetrics(ChainMetrics metrics) {
+		System.out.println("Chain metrics of the jm method:");
+		System.out.println(metrics);
 	}
 //	@SuppressWarnings("unchecked")
 //	public static void debugRandomSwapping() throws Exception {
@@ -7,9 +7,7 @@ package commons.model.latinsquares;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
 /**
  *  This class provides the default behaviour for ILatinSquare implementations.
@@ -20,7 +18,8 @@ import java.util.Set;
 public abstract class AbstractLatinSquare implements ILatinSquare {
 
 	protected int n = 0;
-	protected MessageDigest md = null;
+	protected StructuralHash cachedHash = null;//null when it must be recomputed
+	protected ZobristHash zobrist = null;//maintained on every change once enabled
 	
 	/**
 	 * Constructs the instance of an empty LS of order n.
@@ -29,15 +28,86 @@ public abstract class AbstractLatinSquare implements ILatinSquare {
 	 */
 	public AbstractLatinSquare(int n) {
 		this.n = n;
-		
-		//initialize the md
-		try {
-			md = MessageDigest.getInstance("MD5");
-		} catch (NoSuchAlgorithmException e) {
-			System.out.println("No such algorithm: md5");
+	}
+	
+	/**
+	 * Must be called by implementations every time a symbol changes.
+	 */
+	protected void invalidateHash() {
+		this.cachedHash = null;
+	}
+	
+	/**
+	 * Must be called by set() implementations before cell (row, col) takes the new value.
+	 * 
+	 * @param row
+	 * @param col
+	 * @param value
+	 */
+	protected void cellChanging(int row, int col, int value) {
+		this.cachedHash = null;
+		if (zobrist!=null)
+			zobrist.replace(row, col, this.get(row, col), value);
+	}
+	
+	/**
+	 * Must be called by setRow() implementations before row i takes the new values.
+	 * 
+	 * @param i
+	 * @param row
+	 */
+	protected void rowChanging(int i, int[] row) {
+		this.cachedHash = null;
+		if (zobrist!=null) {
+			for (int j=0; j<n; j++)
+				zobrist.replace(i, j, this.get(i, j), row[j]);
 		}
 	}
 	
+	/**
+	 * Starts maintaining a Zobrist hash with the default keys, from the current symbols.
+	 */
+	public void enableZobrist() {
+		this.enableZobrist(ZobristHash.DEFAULT_SEED);
+	}
+	
+	/**
+	 * Starts maintaining a Zobrist hash whose keys depend on the seed, from the current symbols.
+	 * 
+	 * @param seed
+	 */
+	public void enableZobrist(long seed) {
+		this.zobrist = new ZobristHash(seed);
+		this.recomputeZobrist();
+	}
+	
+	/**
+	 * Stops maintaining the Zobrist hash.
+	 */
+	public void disableZobrist() {
+		this.zobrist = null;
+	}
+	
+	/**
+	 * Computes the Zobrist hash again from the symbols.
+	 */
+	protected void recomputeZobrist() {
+		zobrist.compute(this);
+	}
+	
+	/**
+	 * The Zobrist hash of the current symbols: O(1) if it is maintained, O(n^2) (with the default keys) if not.
+	 * 
+	 * @return
+	 */
+	public long fingerprint() {
+		if (zobrist!=null)
+			return zobrist.value();
+		ZobristHash h = new ZobristHash();
+		h.compute(this);
+		return h.value();
+	}
+	
 	/**
 	 * Default behaviour of size().
 	 */
@@ -46,6 +116,40 @@ public abstract class AbstractLatinSquare implements ILatinSquare {
 		return n;
 	}
 	
+	/**
+	 * Boxed access, kept for compatibility. Implementations provide get().
+	 */
+	@Override
+	public Integer getValueAt(int row, int col) {
+		return this.get(row, col);
+	}
+	
+	/**
+	 * Kept for compatibility. Implementations provide set().
+	 */
+	@Override
+	public void setValueAt(int row, int col, int value) {
+		this.set(row, col, value);
+	}
+	
+	/**
+	 * Default behaviour of setRow(): copies the symbols one by one.
+	 */
+	@Override
+	public void setRow(int i, List<Integer> row) {
+		for (int j=0; j<n; j++)
+			this.set(i, j, row.get(j));
+	}
+	
+	/**
+	 * Default behaviour of setRow(): copies the symbols one by one.
+	 */
+	@Override
+	public void setRow(int i, int[] row) {
+		for (int j=0; j<n; j++)
+			this.set(i, j, row[j]);
+	}
+	
 	/**
 	 * Writes the instance to a string to print the results in a system console. This method provides the default behaviour for different LS implementations.
 	 * 
@@ -58,9 +162,9 @@ public abstract class AbstractLatinSquare implements ILatinSquare {
 			//sb.append("Row "+x+":");
 			for (int y=0; y<n ; y++) {
 				try {
-					Integer elem = this.getValueAt(x, y);
+					String elem = Integer.toString(this.get(x, y));
 					sb.append(elem); 
-					sb.append("    ".substring(elem.toString().length()));
+					sb.append("    ".substring(elem.length()));
 					
 				} catch (Exception e) {
 					sb.append("--  ");
@@ -82,9 +186,9 @@ public abstract class AbstractLatinSquare implements ILatinSquare {
 			
 			for (int i=0; i<n; i++) {
 				for (int j=0; j<n; j++) {
-					Integer elem = this.getValueAt(i, j);
-					bw.write(elem.toString());
-					bw.write("    ".substring(elem.toString().length()));
+					String elem = Integer.toString(this.get(i, j));
+					bw.write(elem);
+					bw.write("    ".substring(elem.length()));
 				}
 				bw.write("\n");
 			}
@@ -105,7 +209,7 @@ public abstract class AbstractLatinSquare implements ILatinSquare {
 		boolean eq = true;
 		for (int i=0; i<n2 && eq; i++) {
 			for (int j=0; j<n2 && eq; j++) {
-				if (this.getValueAt(i, j).intValue()!=ls2.getValueAt(i, j).intValue()) {
+				if (this.get(i, j)!=ls2.get(i, j)) {
 					eq = false;
 				}
 				
@@ -120,8 +224,49 @@ public abstract class AbstractLatinSquare implements ILatinSquare {
 	 */
 	@Override
 	public byte[] hashCodeOfStructure() {
-		String str1 = this.serializeStructure();
-		return md.digest(str1.getBytes());
+		return this.structuralHash().toBytes();
+	}
+	
+	/**
+	 * Returns the 128-bit hash of the symbols, computed once until the next modification.
+	 * 
+	 */
+	@Override
+	public StructuralHash structuralHash() {
+		StructuralHash h = this.cachedHash;
+		if (h==null) {
+			h = StructuralHash.of(this);
+			this.cachedHash = h;
+		}
+		return h;
+	}
+	
+	/**
+	 * Uses the structural hash, so LSs can be keys in hash maps and sets.
+	 * 
+	 */
+	@Override
+	public int hashCode() {
+		return this.structuralHash().hashCode();
+	}
+	
+	/**
+	 * Two LSs are equal if they have the same order and the same symbols.
+	 *  The hashes are compared first, so unequal LSs are usually told apart in O(1).
+	 * 
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (this==o)
+			return true;
+		if (!(o instanceof ILatinSquare))
+			return false;
+		if (o instanceof ILatinRectangle && !((ILatinRectangle)o).isASquare())
+			return false;
+		ILatinSquare ls2 = (ILatinSquare)o;
+		if (ls2.size()!=n || !this.structuralHash().equals(ls2.structuralHash()))
+			return false;
+		return this.equals(ls2);
 	}
 	
 	/**
@@ -133,8 +278,9 @@ public abstract class AbstractLatinSquare implements ILatinSquare {
 		StringBuffer sb = new StringBuffer();
 		for (int x=0; x<n ; x++) {
 			for (int y=0; y<n ; y++) {
-				Integer elem = this.getValueAt(x, y);
-				sb.append(elem); 
+				if (x>0 || y>0)
+					sb.append(',');
+				sb.append(this.get(x, y)); 
 			}
 		}
 		return sb.toString();
@@ -154,30 +300,7 @@ public abstract class AbstractLatinSquare implements ILatinSquare {
 	 */
 	@Override
 	public boolean preservesLatinProperty() {
-		boolean result = true;
-		
-		Set<Integer> symbols = new HashSet<Integer>();
-		
-		//row verification
-		for(int i=0; i<n; i++) {
-			symbols = new HashSet<Integer>();
-			for(int j=0; j<n; j++) {
-				symbols.add(this.getValueAt(i, j));	
-			}
-			if (symbols.size()!=n)
-				return false;
-		}
-		
-		//column verification
-		for(int j=0; j<n; j++) {
-			symbols = new HashSet<Integer>();
-			for(int i=0; i<n; i++) {
-				symbols.add(this.getValueAt(i, j));	
-			}
-			if (symbols.size()!=n)
-				return false;
-		}
-		return result;
+		return LatinPropertyValidator.isLatin(this);
 	}
 
 }
@@ -0,0 +1,106 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.model.latinsquares;
+
+import java.util.List;
+
+/**
+ *  A read-only LS that is computed from another one (the base) on every access, remapping indices and symbols,
+ *  so deriving it costs nothing but the few arrays of the mapping. Changes to the base are seen through the view
+ *  (unless the view says otherwise); set() is not supported. materialize() copies the view into its own store
+ *  when the base is about to change, or when the symbols are read many times.
+ *  The structural hash is not cached, as the view cannot know when the base changes.
+ *
+ * @author igallego
+ *
+ */
+public abstract class AbstractLatinSquareView extends AbstractLatinSquare {
+
+	protected ILatinSquare base;
+
+	/**
+	 * Constructs a view of order n on base.
+	 *
+	 * @param base
+	 */
+	public AbstractLatinSquareView(ILatinSquare base) {
+		super(base.size());
+		this.base = base;
+	}
+
+	/**
+	 * Views are read-only.
+	 */
+	@Override
+	public void set(int row, int col, int value) {
+		throw new UnsupportedOperationException("A LS view is read-only; materialize() it first.");
+	}
+
+	/**
+	 * Views are read-only.
+	 */
+	@Override
+	public void setRow(int i, int[] row) {
+		throw new UnsupportedOperationException("A LS view is read-only; materialize() it first.");
+	}
+
+	/**
+	 * Views are read-only.
+	 */
+	@Override
+	public void setRow(int i, List<Integer> row) {
+		throw new UnsupportedOperationException("A LS view is read-only; materialize() it first.");
+	}
+
+	/**
+	 * The base may change without notice, so the Zobrist hash cannot be maintained.
+	 */
+	@Override
+	public void enableZobrist(long seed) {
+		throw new UnsupportedOperationException("A LS view cannot maintain a Zobrist hash; materialize() it first.");
+	}
+
+	/**
+	 * Computed every time, in O(n^2).
+	 */
+	@Override
+	public StructuralHash structuralHash() {
+		return StructuralHash.of(this);
+	}
+
+	/**
+	 * The LS the view reads from.
+	 *
+	 * @return
+	 */
+	public ILatinSquare getBase() {
+		return base;
+	}
+
+	/**
+	 * Copies the view into a new packed LS (off-heap if the order is too large for the heap).
+	 *
+	 * @return
+	 */
+	public AbstractLatinSquare materialize() {
+		AbstractLatinSquare copy = (n > PackedLatinSquare.MAX_ORDER) ? new OffHeapLatinSquare(n) : new PackedLatinSquare(n);
+		this.materializeInto(copy);
+		return copy;
+	}
+
+	/**
+	 * Copies the view into target, which must have the same order, row by row.
+	 *
+	 * @param target
+	 */
+	public void materializeInto(ILatinSquare target) {
+		int[] row = new int[n];
+		for (int i=0; i<n; i++) {
+			for (int j=0; j<n; j++)
+				row[j] = this.get(i, j);
+			target.setRow(i, row);
+		}
+	}
+}
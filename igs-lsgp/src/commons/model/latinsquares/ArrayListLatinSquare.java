@@ -63,7 +63,7 @@ public class ArrayListLatinSquare extends AbstractLatinSquare {
 	 * Gets the value at specified row and column indexes.
 	 */
 	@Override
-	public Integer getValueAt(int row, int col) {
+	public int get(int row, int col) {
 		return ls[row].get(col);
 	}
 
@@ -71,7 +71,8 @@ public class ArrayListLatinSquare extends AbstractLatinSquare {
 	 * Sets the value at specified row and column indexes.
 	 */
 	@Override
-	public void setValueAt(int row, int col, int value) {
+	public void set(int row, int col, int value) {
+		this.cellChanging(row, col, value);
 		ls[row].set(col, value);
 	}
 
@@ -83,6 +84,11 @@ public class ArrayListLatinSquare extends AbstractLatinSquare {
 	 */
 	@Override
 	public void setRow(int i, List<Integer> row) {
+		this.invalidateHash();
+		if (zobrist!=null) {
+			for (int j=0; j<n; j++)
+				zobrist.replace(i, j, ls[i].get(j), row.get(j));
+		}
 		ls[i] = (ArrayList<Integer>)row;
 	}
 }
@@ -0,0 +1,121 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.model.latinsquares;
+
+/**
+ *  One of the six conjugates (parastrophes) of a LS: each triple (row, column, symbol) of the base is seen with its
+ *  three components reordered. The constants name the component of the base that plays the role of the row, the column
+ *  and the symbol of the view: RCS is the LS itself, CRS its transpose, RSC has the column of the base as its symbol, etc.
+ *  <p>
+ *  RCS and CRS only remap indices, and follow the changes of the base. In the other four the symbol of the view is a row or
+ *  a column index of the base, found in an inverse table that is built (in O(n^2)) on the first access; the base must not
+ *  change after that. The table is published through a volatile field, so a view can be shared between threads: two
+ *  threads racing on the first access both build the same table.
+ *
+ * @author igallego
+ *
+ */
+public class ConjugateView extends AbstractLatinSquareView {
+
+	public static final int RCS = 0;
+	public static final int CRS = 1;
+	public static final int RSC = 2;
+	public static final int SCR = 3;
+	public static final int CSR = 4;
+	public static final int SRC = 5;
+
+	/**
+	 * For each conjugate, the component of the base (0 row, 1 column, 2 symbol) seen as the row, column and symbol of the view.
+	 */
+	public static final int[][] COMPONENTS = {{0,1,2}, {1,0,2}, {0,2,1}, {2,1,0}, {1,2,0}, {2,0,1}};
+
+	private int conjugate;
+	private volatile int[] inverse = null;//n*n inverse table, for the conjugates that need one
+
+	/**
+	 * Constructs the given conjugate (RCS, CRS, RSC, SCR, CSR or SRC) of base.
+	 *
+	 * @param base
+	 * @param conjugate
+	 */
+	public ConjugateView(ILatinSquare base, int conjugate) {
+		super(base);
+		if (conjugate<0 || conjugate>=COMPONENTS.length)
+			throw new IllegalArgumentException("Unknown conjugate: "+conjugate);
+		this.conjugate = conjugate;
+	}
+
+	/**
+	 * The transpose of ls.
+	 *
+	 * @param ls
+	 * @return
+	 */
+	public static ConjugateView transpose(ILatinSquare ls) {
+		return new ConjugateView(ls, CRS);
+	}
+
+	/**
+	 * The six conjugates of ls, in the order of the constants.
+	 *
+	 * @param ls
+	 * @return
+	 */
+	public static ConjugateView[] allOf(ILatinSquare ls) {
+		ConjugateView[] all = new ConjugateView[COMPONENTS.length];
+		for (int k=0; k<all.length; k++)
+			all[k] = new ConjugateView(ls, k);
+		return all;
+	}
+
+	/**
+	 * Gets the value at specified row and column indexes.
+	 */
+	@Override
+	public int get(int row, int col) {
+		switch (conjugate) {
+		case RCS: return base.get(row, col);
+		case CRS: return base.get(col, row);
+		//the symbol of the view is the column of the base: find the column of symbol s in row r
+		case RSC: return this.inverse()[row*n+col];
+		case SRC: return this.inverse()[col*n+row];
+		//the symbol of the view is the row of the base: find the row of symbol s in column c
+		case SCR: return this.inverse()[col*n+row];
+		default: return this.inverse()[row*n+col];//CSR
+		}
+	}
+
+	/**
+	 * The conjugate seen by this view.
+	 *
+	 * @return
+	 */
+	public int getConjugate() {
+		return conjugate;
+	}
+
+	/**
+	 * For RSC and SRC, the column of each symbol in each row (indexed row*n+symbol);
+	 * for SCR and CSR, the row of each symbol in each column (indexed column*n+symbol).
+	 */
+	private int[] inverse() {
+		int[] inv = this.inverse;
+		if (inv==null) {
+			inv = new int[n*n];
+			boolean byRow = (conjugate==RSC || conjugate==SRC);
+			for (int r=0; r<n; r++) {
+				for (int c=0; c<n; c++) {
+					int s = base.get(r, c);
+					if (byRow)
+						inv[r*n+s] = c;
+					else
+						inv[c*n+s] = r;
+				}
+			}
+			this.inverse = inv;
+		}
+		return inv;
+	}
+}
@@ -54,6 +54,21 @@ public interface ILatinSquare {
 	 */
 	public void setRow(int i, List<Integer> row);
 	
+	/**
+	 * Gets the symbol at specified row and column indexes, without boxing.
+	 */
+	public int get(int row, int column);
+	
+	/**
+	 * Sets the symbol at specified row and column indexes, without boxing.
+	 */
+	public void set(int row, int column, int value);
+	
+	/**
+	 * Sets an entire row from a primitive array.
+	 */
+	public void setRow(int i, int[] row);
+	
 	/**
 	 * A LS implementation must know how to write to file.
 	 * 
@@ -87,13 +102,20 @@ public interface ILatinSquare {
 	public boolean equals(ILatinSquare ls); 
 	
 	/**
-	 *  Computes a hash of the LS.
+	 *  Computes a hash of the LS (the 16 bytes of its structural hash).
 	 * 
 	 */
 	public byte[] hashCodeOfStructure();
 	
 	/**
-	 *  Prints the LS into a String without new line or space characters.
+	 *  Returns the 128-bit hash of the symbols. Implementations may cache it while the LS is not modified.
+	 * 
+	 * @return
+	 */
+	public StructuralHash structuralHash();
+	
+	/**
+	 *  Prints the LS into a String without new line or space characters (symbols are separated by commas).
 	 * @return
 	 */
 	public String serializeStructure();
@@ -0,0 +1,80 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.model.latinsquares;
+
+/**
+ *  The isotope of a LS obtained by permuting its rows, columns and symbols: the symbol s in cell (r, c) of the base
+ *  is seen as symbol symbolPerm[s] in cell (rowPerm[r], colPerm[c]). Each permutation may be null (the identity).
+ *  Building the view takes O(n) (the inverses of the row and column permutations), and each access O(1).
+ *  Isotopy views of isotopy views compose their permutations, so they do not stack.
+ *
+ * @author igallego
+ *
+ */
+public class IsotopyView extends AbstractLatinSquareView {
+
+	private int[] rowOf;//row of the base seen in each row of the view
+	private int[] colOf;//column of the base seen in each column of the view
+	private int[] symbolPerm;
+
+	/**
+	 * Constructs the isotope of base by the three permutations (of 0..n-1, or null).
+	 *
+	 * @param base
+	 * @param rowPerm
+	 * @param colPerm
+	 * @param symbolPerm
+	 */
+	public IsotopyView(ILatinSquare base, int[] rowPerm, int[] colPerm, int[] symbolPerm) {
+		super(base instanceof IsotopyView ? ((IsotopyView)base).base : base);
+		int[] newRowOf = inverse(rowPerm, n);
+		int[] newColOf = inverse(colPerm, n);
+		if (base instanceof IsotopyView) {
+			IsotopyView inner = (IsotopyView)base;
+			newRowOf = compose(inner.rowOf, newRowOf);
+			newColOf = compose(inner.colOf, newColOf);
+			symbolPerm = compose(symbolPerm, inner.symbolPerm);
+		}
+		this.rowOf = newRowOf;
+		this.colOf = newColOf;
+		this.symbolPerm = symbolPerm;
+	}
+
+	/**
+	 * Gets the value at specified row and column indexes.
+	 */
+	@Override
+	public int get(int row, int col) {
+		int r = (rowOf==null) ? row : rowOf[row];
+		int c = (colOf==null) ? col : colOf[col];
+		int s = base.get(r, c);
+		return (symbolPerm==null) ? s : symbolPerm[s];
+	}
+
+	private static int[] inverse(int[] perm, int n) {
+		if (perm==null)
+			return null;
+		if (perm.length!=n)
+			throw new IllegalArgumentException("Permutation of length "+perm.length+" for a LS of order "+n+".");
+		int[] inv = new int[n];
+		for (int i=0; i<n; i++)
+			inv[perm[i]] = i;
+		return inv;
+	}
+
+	/**
+	 * The permutation i -> outer[inner[i]] (null means the identity).
+	 */
+	private static int[] compose(int[] outer, int[] inner) {
+		if (inner==null)
+			return outer;
+		if (outer==null)
+			return inner;
+		int[] p = new int[inner.length];
+		for (int i=0; i<p.length; i++)
+			p[i] = outer[inner[i]];
+		return p;
+	}
+}
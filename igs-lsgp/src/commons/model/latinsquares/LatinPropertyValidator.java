@@ -0,0 +1,176 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.model.latinsquares;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ *  Checks the Latin property (no repeated symbol in a row or in a column) of squares and rectangles.
+ *  The symbols seen are marked in long[] bitmasks (64 symbols per word), and the check stops at the first repetition.
+ *  Rows and columns are verified in one row-major pass, with one mask per column. When the column masks would take
+ *  too much memory, the columns are verified in blocks. For large orders the rows and the column blocks are split
+ *  in a fork-join pool.
+ *
+ * @author igallego
+ *
+ */
+public class LatinPropertyValidator {
+
+	/**
+	 * Orders from which the verification is done in parallel.
+	 */
+	public static final int PARALLEL_THRESHOLD = 512;
+
+	private static final int MAX_MASK_WORDS = 1 << 20;//at most 8 MB of column masks per pass
+	private static final int MIN_LINES_PER_TASK = 64;//rows or columns
+
+	private static ForkJoinPool pool = null;
+
+	/**
+	 * Returns true if the LS has no repetitions in any row or column (all symbols must be in [0, n-1]).
+	 *
+	 * @param ls
+	 * @return
+	 */
+	public static boolean isLatin(ILatinSquare ls) {
+		int n = ls.size();
+		return isLatin(ls, n, n);
+	}
+
+	/**
+	 * Returns true if the first rows*cols cells of ls have no repetitions in any row or column.
+	 *  All symbols must be in [0, cols-1].
+	 *
+	 * @param ls
+	 * @param rows
+	 * @param cols
+	 * @return
+	 */
+	public static boolean isLatin(ILatinSquare ls, int rows, int cols) {
+		if (cols>=PARALLEL_THRESHOLD && rows>=PARALLEL_THRESHOLD) {
+			AtomicBoolean failed = new AtomicBoolean(false);
+			ValidationTask byRows = new ValidationTask(ls, rows, cols, false, 0, rows, failed);
+			ValidationTask byColumns = new ValidationTask(ls, rows, cols, true, 0, cols, failed);
+			ForkJoinPool workers = getPool();
+			workers.execute(byColumns);
+			return workers.invoke(byRows) && byColumns.join();
+		}
+
+		int blockCols = columnsPerBlock(cols);
+		if (blockCols>=cols)
+			return scan(ls, cols, 0, rows, 0, cols, true, true, null);
+		if (!scan(ls, cols, 0, rows, 0, 0, true, false, null))
+			return false;
+		for (int c=0; c<cols; c+=blockCols) {
+			if (!scan(ls, cols, 0, rows, c, Math.min(cols, c+blockCols), false, true, null))
+				return false;
+		}
+		return true;
+	}
+
+	private static synchronized ForkJoinPool getPool() {
+		if (pool==null)
+			pool = new ForkJoinPool();
+		return pool;
+	}
+
+	private static int wordsFor(int symbols) {
+		return (symbols + 63) >>> 6;
+	}
+
+	private static int columnsPerBlock(int cols) {
+		return Math.max(1, MAX_MASK_WORDS / wordsFor(cols));
+	}
+
+	/**
+	 * Row-major pass over rows [rowLo, rowHi). Checks each row (if checkRows) and the columns [colLo, colHi) (if checkCols).
+	 *  Stops early if another task has already found a repetition.
+	 */
+	private static boolean scan(ILatinSquare ls, int cols, int rowLo, int rowHi, int colLo, int colHi,
+								boolean checkRows, boolean checkCols, AtomicBoolean failed) {
+		int words = wordsFor(cols);
+		long[] rowMask = checkRows ? new long[words] : null;
+		long[] colMasks = checkCols ? new long[(colHi-colLo)*words] : null;
+		int from = checkRows ? 0 : colLo;
+		int to = checkRows ? cols : colHi;
+
+		for (int i=rowLo; i<rowHi; i++) {
+			if (failed!=null && failed.get())
+				return false;
+			if (checkRows)
+				Arrays.fill(rowMask, 0L);
+			for (int j=from; j<to; j++) {
+				int symbol = ls.get(i, j);
+				if (symbol<0 || symbol>=cols)
+					return false;
+				int w = symbol >>> 6;
+				long bit = 1L << symbol;
+				if (checkRows) {
+					if ((rowMask[w] & bit)!=0)
+						return false;
+					rowMask[w] |= bit;
+				}
+				if (checkCols && j>=colLo && j<colHi) {
+					int k = (j-colLo)*words + w;
+					if ((colMasks[k] & bit)!=0)
+						return false;
+					colMasks[k] |= bit;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Verifies a range of rows (or of columns) of ls, splitting it while it is large.
+	 *  The shared flag failed lets the other tasks stop as soon as one repetition is found.
+	 */
+	private static class ValidationTask extends RecursiveTask<Boolean> {
+
+		private static final long serialVersionUID = 1L;
+
+		private ILatinSquare ls;
+		private int rows;
+		private int cols;
+		private boolean byColumns;
+		private int lo;
+		private int hi;
+		private AtomicBoolean failed;
+
+		ValidationTask(ILatinSquare ls, int rows, int cols, boolean byColumns, int lo, int hi, AtomicBoolean failed) {
+			this.ls = ls;
+			this.rows = rows;
+			this.cols = cols;
+			this.byColumns = byColumns;
+			this.lo = lo;
+			this.hi = hi;
+			this.failed = failed;
+		}
+
+		@Override
+		protected Boolean compute() {
+			boolean ok;
+			int grain = byColumns ? Math.min(columnsPerBlock(cols), MIN_LINES_PER_TASK) : MIN_LINES_PER_TASK;
+			if (hi-lo<=grain) {
+				if (byColumns)
+					ok = scan(ls, cols, 0, rows, lo, hi, false, true, failed);
+				else
+					ok = scan(ls, cols, lo, hi, 0, 0, true, false, failed);
+			} else {
+				int mid = (lo+hi) >>> 1;
+				ValidationTask right = new ValidationTask(ls, rows, cols, byColumns, mid, hi, failed);
+				right.fork();
+				ok = new ValidationTask(ls, rows, cols, byColumns, lo, mid, failed).compute();
+				ok = right.join() && ok;
+			}
+			if (!ok)
+				failed.set(true);
+			return ok;
+		}
+	}
+}
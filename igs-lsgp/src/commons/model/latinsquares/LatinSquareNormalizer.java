@@ -0,0 +1,365 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.model.latinsquares;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ *  Canonical forms of LSs, to count or deduplicate them up to isotopy (permutation of rows, columns and symbols)
+ *  or up to main class (isotopy and conjugation).
+ *  <ul>
+ *  <li>reducedForm: rows and columns permuted so that the first row and the first column are 0..n-1, in O(n^2).
+ *  Two LSs with the same symbols and the same reduced form differ only in the order of rows and columns.</li>
+ *  <li>isotopyCanonicalForm: the same LS for every isotope. For each ordered pair of rows (r1, r2), the permutation
+ *  that takes the symbol of r1 to the symbol of r2 in the same column has a cycle structure that isotopies don't change.
+ *  Only the pairs with the cycle structure that gives the fewest candidates are tried: r1 becomes the first row (0..n-1),
+ *  r2 the second one (its cycles written on consecutive symbols, shortest first), and the remaining rows are sorted
+ *  by their first symbol. Every way of laying out the cycles gives a candidate, and the lexicographically smallest one wins.
+ *  Candidates are abandoned as soon as a row is larger than the one of the best candidate so far.</li>
+ *  <li>mainClassCanonicalForm: the smallest of the isotopy canonical forms of the six conjugates.</li>
+ *  </ul>
+ *  The hashes are the structural hashes of the canonical forms.
+ *
+ * @author igallego
+ *
+ */
+public class LatinSquareNormalizer {
+
+	/**
+	 * Returns the LS with rows and columns permuted so the first row and first column are in natural order (0..n-1).
+	 *
+	 * @param ls
+	 * @return
+	 */
+	public static PackedLatinSquare reducedForm(ILatinSquare ls) {
+		int n = ls.size();
+		int[] colPerm = new int[n];//new column of each column: the symbol in its first row
+		int firstCol = 0;//the column that starts with 0
+		for (int c=0; c<n; c++) {
+			colPerm[c] = ls.get(0, c);
+			if (colPerm[c]==0)
+				firstCol = c;
+		}
+		int[] rowPerm = new int[n];//new row of each row: the symbol in that column
+		for (int r=0; r<n; r++)
+			rowPerm[r] = ls.get(r, firstCol);
+		PackedLatinSquare reduced = new PackedLatinSquare(n);
+		new IsotopyView(ls, rowPerm, colPerm, null).materializeInto(reduced);
+		return reduced;
+	}
+
+	/**
+	 * Returns the canonical form of the isotopy class of ls: isotopic LSs (and only them) have the same one.
+	 *
+	 * @param ls
+	 * @return
+	 */
+	public static PackedLatinSquare isotopyCanonicalForm(ILatinSquare ls) {
+		return toSquare(new Search(toArray(ls)).run());
+	}
+
+	/**
+	 * Returns the canonical form of the main class of ls: the smallest isotopy canonical form among its six conjugates.
+	 *
+	 * @param ls
+	 * @return
+	 */
+	public static PackedLatinSquare mainClassCanonicalForm(ILatinSquare ls) {
+		int[] best = null;
+		for (ConjugateView conjugate : ConjugateView.allOf(ls)) {
+			int[] form = new Search(toArray(conjugate)).run();
+			if (best==null || compare(form, best)<0)
+				best = form;
+		}
+		return toSquare(best);
+	}
+
+	/**
+	 * A hash of the isotopy class of ls.
+	 *
+	 * @param ls
+	 * @return
+	 */
+	public static StructuralHash isotopyHash(ILatinSquare ls) {
+		return isotopyCanonicalForm(ls).structuralHash();
+	}
+
+	/**
+	 * A hash of the main class of ls.
+	 *
+	 * @param ls
+	 * @return
+	 */
+	public static StructuralHash mainClassHash(ILatinSquare ls) {
+		return mainClassCanonicalForm(ls).structuralHash();
+	}
+
+	/**
+	 * Returns true if ls2 can be obtained from ls1 by permuting rows, columns and symbols.
+	 *
+	 * @param ls1
+	 * @param ls2
+	 * @return
+	 */
+	public static boolean isIsotopic(ILatinSquare ls1, ILatinSquare ls2) {
+		return ls1.size()==ls2.size() && isotopyCanonicalForm(ls1).equals(isotopyCanonicalForm(ls2));
+	}
+
+	/**
+	 * Returns true if both LSs are in the same main class.
+	 *
+	 * @param ls1
+	 * @param ls2
+	 * @return
+	 */
+	public static boolean isSameMainClass(ILatinSquare ls1, ILatinSquare ls2) {
+		return ls1.size()==ls2.size() && mainClassCanonicalForm(ls1).equals(mainClassCanonicalForm(ls2));
+	}
+
+	private static int[][] toArray(ILatinSquare ls) {
+		int n = ls.size();
+		int[][] a = new int[n][n];
+		for (int r=0; r<n; r++) {
+			for (int c=0; c<n; c++)
+				a[r][c] = ls.get(r, c);
+		}
+		return a;
+	}
+
+	private static PackedLatinSquare toSquare(int[] flat) {
+		int n = (int)Math.round(Math.sqrt(flat.length));
+		PackedLatinSquare ls = new PackedLatinSquare(n);
+		for (int r=0; r<n; r++) {
+			for (int c=0; c<n; c++)
+				ls.set(r, c, flat[r*n+c]);
+		}
+		return ls;
+	}
+
+	private static int compare(int[] a, int[] b) {
+		for (int i=0; i<a.length; i++) {
+			if (a[i]!=b[i])
+				return a[i]<b[i] ? -1 : 1;
+		}
+		return 0;
+	}
+
+	/**
+	 * The search of the isotopy canonical form of one LS.
+	 */
+	private static class Search {
+
+		private int n;
+		private int[][] a;
+		private int[][] pos;//pos[r][s] = column of symbol s in row r
+
+		private int[] best = null;//flat n*n
+
+		//the row pair being tried
+		private int r1;
+		private List<int[]> cycles;//cycles of the row permutation, sorted by length
+		private int[] blockStart;//first symbol of the block of each cycle
+		private boolean[] used;
+		private int[] label;//new name of each symbol
+		private int[] unlabel;//inverse of label
+
+		//candidate being built
+		private int[] candidate;
+		private int[] rowAt;//original row at each position
+
+		Search(int[][] a) {
+			this.n = a.length;
+			this.a = a;
+			this.pos = new int[n][n];
+			for (int r=0; r<n; r++) {
+				for (int c=0; c<n; c++)
+					pos[r][a[r][c]] = c;
+			}
+		}
+
+		int[] run() {
+			if (n==1)
+				return new int[] {0};
+
+			//the cycle structures of all row pairs; keep the pairs whose structure gives the fewest candidates
+			List<int[]> pairs = new ArrayList<int[]>();
+			int[] bestType = null;
+			double bestBranches = Double.MAX_VALUE;
+			int[] sigma = new int[n];
+			for (int i=0; i<n; i++) {
+				for (int j=0; j<n; j++) {
+					if (i==j)
+						continue;
+					for (int s=0; s<n; s++)
+						sigma[s] = a[j][pos[i][s]];
+					int[] type = cycleType(sigma);
+					double branches = branches(type);
+					int cmp = bestType==null ? -1 : (branches!=bestBranches ? (branches<bestBranches ? -1 : 1) : compareTypes(type, bestType));
+					if (cmp<0) {
+						bestType = type;
+						bestBranches = branches;
+						pairs.clear();
+					}
+					if (cmp<=0)
+						pairs.add(new int[] {i, j});
+				}
+			}
+
+			candidate = new int[n*n];
+			rowAt = new int[n];
+			label = new int[n];
+			unlabel = new int[n];
+			for (int[] pair : pairs)
+				this.tryPair(pair[0], pair[1]);
+			return best;
+		}
+
+		private void tryPair(int r1, int r2) {
+			this.r1 = r1;
+			int[] sigma = new int[n];
+			for (int s=0; s<n; s++)
+				sigma[s] = a[r2][pos[r1][s]];
+
+			//cycles, shortest first, and the block of symbols of each one in the canonical second row
+			cycles = new ArrayList<int[]>();
+			boolean[] seen = new boolean[n];
+			for (int s=0; s<n; s++) {
+				if (seen[s])
+					continue;
+				int len = 0;
+				for (int x=s; !seen[x]; x=sigma[x]) {
+					seen[x] = true;
+					len++;
+				}
+				int[] cycle = new int[len];
+				int x = s;
+				for (int k=0; k<len; k++) {
+					cycle[k] = x;
+					x = sigma[x];
+				}
+				cycles.add(cycle);
+			}
+			Collections.sort(cycles, new Comparator<int[]>() {
+				@Override
+				public int compare(int[] c1, int[] c2) {
+					return c1.length - c2.length;
+				}
+			});
+			blockStart = new int[cycles.size()];
+			for (int b=1; b<blockStart.length; b++)
+				blockStart[b] = blockStart[b-1] + cycles.get(b-1).length;
+
+			used = new boolean[cycles.size()];
+			rowAt[0] = r1;
+			rowAt[1] = r2;
+			this.assignBlock(0);
+		}
+
+		/**
+		 * Chooses which cycle (of the right length) goes to block b, and where it starts.
+		 */
+		private void assignBlock(int b) {
+			if (b==blockStart.length) {
+				this.buildCandidate();
+				return;
+			}
+			int len = (b+1<blockStart.length ? blockStart[b+1] : n) - blockStart[b];
+			for (int k=0; k<cycles.size(); k++) {
+				int[] cycle = cycles.get(k);
+				if (used[k] || cycle.length!=len)
+					continue;
+				used[k] = true;
+				for (int start=0; start<len; start++) {
+					for (int t=0; t<len; t++) {
+						int symbol = cycle[(start+t) % len];
+						label[symbol] = blockStart[b] + t;
+						unlabel[blockStart[b] + t] = symbol;
+					}
+					this.assignBlock(b+1);
+				}
+				used[k] = false;
+			}
+		}
+
+		/**
+		 * With the labels fixed, the columns are ordered by the label of their symbol in r1, and the remaining rows
+		 * by their (relabelled) first symbol. Rows 0 and 1 are the same for every candidate, so the comparison starts at row 2.
+		 */
+		private void buildCandidate() {
+			int firstCol = pos[r1][unlabel[0]];
+			for (int r=0; r<n; r++) {
+				if (r!=rowAt[0] && r!=rowAt[1])
+					rowAt[label[a[r][firstCol]]] = r;
+			}
+			boolean smaller = (best==null);
+			int from = smaller ? 0 : 2;
+			for (int p=from; p<n; p++) {
+				int[] row = a[rowAt[p]];
+				int base = p*n;
+				for (int j=0; j<n; j++) {
+					int v = label[row[pos[r1][unlabel[j]]]];
+					if (!smaller) {
+						int old = best[base+j];
+						if (v>old)
+							return;//larger than the best: abandon
+						if (v<old)
+							smaller = true;
+					}
+					candidate[base+j] = v;
+				}
+			}
+			if (smaller) {
+				if (best==null)
+					best = new int[n*n];
+				System.arraycopy(candidate, from*n, best, from*n, (n-from)*n);
+			}
+		}
+
+		private int[] cycleType(int[] perm) {
+			boolean[] seen = new boolean[n];
+			List<Integer> lengths = new ArrayList<Integer>();
+			for (int s=0; s<n; s++) {
+				int len = 0;
+				for (int x=s; !seen[x]; x=perm[x]) {
+					seen[x] = true;
+					len++;
+				}
+				if (len>0)
+					lengths.add(len);
+			}
+			int[] type = new int[lengths.size()];
+			for (int k=0; k<type.length; k++)
+				type[k] = lengths.get(k);
+			Arrays.sort(type);
+			return type;
+		}
+
+		/**
+		 * Number of candidates of a row pair with this cycle type: each cycle can start anywhere,
+		 * and cycles of the same length can go in any order.
+		 */
+		private double branches(int[] type) {
+			double b = 1;
+			int same = 0;
+			for (int k=0; k<type.length; k++) {
+				same = (k>0 && type[k]==type[k-1]) ? same+1 : 1;
+				b *= type[k] * same;
+			}
+			return b;
+		}
+
+		private int compareTypes(int[] t1, int[] t2) {
+			for (int k=0; k<t1.length && k<t2.length; k++) {
+				if (t1[k]!=t2[k])
+					return t1[k]<t2[k] ? -1 : 1;
+			}
+			return t1.length - t2.length;
+		}
+	}
+}
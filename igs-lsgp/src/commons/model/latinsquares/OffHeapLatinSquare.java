@@ -0,0 +1,261 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.model.latinsquares;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ *  An implementation of AbstractLatinSquare that keeps the symbols outside the Java heap, for very large orders
+ *  (n=50000 means 2.5*10^9 cells, more than an array can index).
+ *  The n*n cells are stored row by row in direct buffers of 2^28 cells each, with the width chosen as in {@link PackedCells}.
+ *  The buffers can also be mapped from a file, so the LS is persisted as it is built.
+ *
+ * @author igallego
+ *
+ */
+public class OffHeapLatinSquare extends AbstractLatinSquare {
+
+	protected static final int CHUNK_SHIFT = 28;//cells per buffer: 2^28 (1 GB with 4-byte cells)
+	protected static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+	public static final long CELLS_PER_CHUNK = 1L << CHUNK_SHIFT;
+
+	protected ByteBuffer[] chunks;
+	protected int width;
+	protected FileChannel channel = null;//null when the cells are not file-backed
+	protected String fileName = null;
+
+	/**
+	 * Constructs an empty LS of order n in direct (off-heap) memory.
+	 *
+	 * @param n
+	 */
+	public OffHeapLatinSquare(int n) {
+		super(n);
+		this.width = PackedCells.widthFor(n);
+		long cells = (long)n*n;
+		this.chunks = new ByteBuffer[chunkCount(cells)];
+		for (int c=0; c<chunks.length; c++) {
+			chunks[c] = ByteBuffer.allocateDirect((int)(chunkCells(cells, c)*width));
+		}
+	}
+
+	/**
+	 * Constructs an empty LS of order n whose cells are mapped from the file fileName (created or resized if needed).
+	 *
+	 * @param n
+	 * @param fileName
+	 * @throws IOException
+	 */
+	public OffHeapLatinSquare(int n, String fileName) throws IOException {
+		super(n);
+		this.width = PackedCells.widthFor(n);
+		RandomAccessFile file = new RandomAccessFile(fileName, "rw");
+		boolean mapped = false;
+		try {
+			this.mapChunks(file.getChannel(), 0L, MapMode.READ_WRITE);
+			mapped = true;
+		} finally {
+			if (!mapped)//nobody else can close it
+				file.close();
+		}
+		this.fileName = fileName;
+	}
+
+	/**
+	 * Constructs a LS of order n over the cells found in the channel from the byte offset on.
+	 *  The mode tells if the cells can be modified.
+	 *
+	 * @param n
+	 * @param channel
+	 * @param offset
+	 * @param mode
+	 * @throws IOException
+	 */
+	protected OffHeapLatinSquare(int n, FileChannel channel, long offset, MapMode mode) throws IOException {
+		super(n);
+		this.width = PackedCells.widthFor(n);
+		this.mapChunks(channel, offset, mode);
+	}
+
+	/**
+	 * Maps the n*n cells from the byte offset of the channel on.
+	 *
+	 * @param channel
+	 * @param offset
+	 * @param mode
+	 * @throws IOException
+	 */
+	private void mapChunks(FileChannel channel, long offset, MapMode mode) throws IOException {
+		this.channel = channel;
+		long cells = (long)n*n;
+		this.chunks = new ByteBuffer[chunkCount(cells)];
+		long position = offset;
+		for (int c=0; c<chunks.length; c++) {
+			long size = chunkCells(cells, c)*width;
+			chunks[c] = channel.map(mode, position, size);
+			position += size;
+		}
+	}
+
+	/**
+	 * Constructs a LS of order n over cells already in memory (at most 2^28 cells, from position 0 of the buffer).
+	 *
+	 * @param n
+	 * @param cells
+	 */
+	protected OffHeapLatinSquare(int n, ByteBuffer cells) {
+		super(n);
+		if ((long)n*n > CELLS_PER_CHUNK)
+			throw new IllegalArgumentException("Order "+n+" is too large for one buffer.");
+		this.width = PackedCells.widthFor(n);
+		this.chunks = new ByteBuffer[] { cells };
+	}
+
+	/**
+	 * Returns a LS of order n over the packed cells found in the buffer (for example a slice of a mapped file), without copying them.
+	 *
+	 * @param n
+	 * @param cells
+	 * @return
+	 */
+	public static OffHeapLatinSquare wrap(int n, ByteBuffer cells) {
+		return new OffHeapLatinSquare(n, cells);
+	}
+
+	/**
+	 * Returns a LS of order n that reads and writes (depending on mode) the packed cells found in the channel
+	 *  from the byte offset on, without copying them. Used by the binary file readers.
+	 *
+	 * @param n
+	 * @param channel
+	 * @param offset
+	 * @param mode
+	 * @return
+	 * @throws IOException
+	 */
+	public static OffHeapLatinSquare map(int n, FileChannel channel, long offset, MapMode mode) throws IOException {
+		return new OffHeapLatinSquare(n, channel, offset, mode);
+	}
+
+	private static int chunkCount(long cells) {
+		return (int)((cells + CHUNK_MASK) >>> CHUNK_SHIFT);
+	}
+
+	private static long chunkCells(long cells, int chunk) {
+		return Math.min(cells - ((long)chunk << CHUNK_SHIFT), 1L << CHUNK_SHIFT);
+	}
+
+	/**
+	 * Gets the value at specified row and column indexes.
+	 */
+	@Override
+	public int get(int row, int col) {
+		long idx = (long)row*n + col;
+		ByteBuffer chunk = chunks[(int)(idx >>> CHUNK_SHIFT)];
+		int pos = (int)(idx & CHUNK_MASK)*width;
+		if (width==PackedCells.BYTE_WIDTH)
+			return chunk.get(pos) & 0xFF;
+		if (width==PackedCells.SHORT_WIDTH)
+			return chunk.getShort(pos) & 0xFFFF;
+		return chunk.getInt(pos);
+	}
+
+	/**
+	 * Sets the value at specified row and column indexes.
+	 */
+	@Override
+	public void set(int row, int col, int value) {
+		this.cellChanging(row, col, value);
+		long idx = (long)row*n + col;
+		ByteBuffer chunk = chunks[(int)(idx >>> CHUNK_SHIFT)];
+		int pos = (int)(idx & CHUNK_MASK)*width;
+		if (width==PackedCells.BYTE_WIDTH)
+			chunk.put(pos, (byte)value);
+		else if (width==PackedCells.SHORT_WIDTH)
+			chunk.putShort(pos, (short)value);
+		else
+			chunk.putInt(pos, value);
+	}
+
+	/**
+	 * The number of bytes used by each cell (1, 2 or 4).
+	 *
+	 * @return
+	 */
+	public int cellWidth() {
+		return width;
+	}
+
+	/**
+	 * The number of bytes used by all the cells.
+	 *
+	 * @return
+	 */
+	public long sizeInBytes() {
+		return (long)n*n*width;
+	}
+
+	/**
+	 * Returns true if the cells are mapped from a file.
+	 *
+	 * @return
+	 */
+	public boolean isFileBacked() {
+		return channel!=null;
+	}
+
+	/**
+	 * The file the cells are mapped from, or null.
+	 *
+	 * @return
+	 */
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * Writes the packed cells, row by row, to the channel. The buffers are handed to the channel as they are (no copy in the heap).
+	 *
+	 * @param out
+	 * @throws IOException
+	 */
+	public void writeCellsTo(WritableByteChannel out) throws IOException {
+		for (int c=0; c<chunks.length; c++) {
+			ByteBuffer b = chunks[c].duplicate();
+			b.clear();
+			while (b.hasRemaining())
+				out.write(b);
+		}
+	}
+
+	/**
+	 * Makes sure the changes in a file-backed LS reach the file.
+	 */
+	public void force() {
+		if (channel==null)
+			return;
+		for (int c=0; c<chunks.length; c++) {
+			((MappedByteBuffer)chunks[c]).force();
+		}
+	}
+
+	/**
+	 * Flushes and closes the underlying file, if any. The instance must not be used afterwards.
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		if (channel!=null) {
+			this.force();
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.model.latinsquares;
+
+/**
+ *  A flat array of symbols where the width of each cell is chosen from the number of symbols:
+ *  one byte for up to 256 symbols, two bytes for up to 65536 symbols, and an int above that.
+ *  Only one of the three arrays is allocated.
+ *
+ * @author igallego
+ *
+ */
+public class PackedCells {
+
+	public static final int BYTE_WIDTH  = 1;
+	public static final int SHORT_WIDTH = 2;
+	public static final int INT_WIDTH   = 4;
+
+	protected byte[] bytes = null;
+	protected short[] shorts = null;
+	protected int[] ints = null;
+
+	protected int width = 0;
+	protected int length = 0;
+
+	/**
+	 * Constructs an array of length cells, each able to hold a symbol in [0, symbols-1].
+	 *
+	 * @param length
+	 * @param symbols
+	 */
+	public PackedCells(int length, int symbols) {
+		this.length = length;
+		this.width = widthFor(symbols);
+
+		if (width==BYTE_WIDTH)
+			bytes = new byte[length];
+		else if (width==SHORT_WIDTH)
+			shorts = new short[length];
+		else
+			ints = new int[length];
+	}
+
+	/**
+	 * Returns the number of bytes needed to store a symbol in [0, symbols-1].
+	 *
+	 * @param symbols
+	 * @return
+	 */
+	public static int widthFor(int symbols) {
+		if (symbols<=256)
+			return BYTE_WIDTH;
+		if (symbols<=65536)
+			return SHORT_WIDTH;
+		return INT_WIDTH;
+	}
+
+	/**
+	 * Gets the symbol stored at index idx.
+	 *
+	 * @param idx
+	 * @return
+	 */
+	public int get(int idx) {
+		if (bytes!=null)
+			return bytes[idx] & 0xFF;
+		if (shorts!=null)
+			return shorts[idx] & 0xFFFF;
+		return ints[idx];
+	}
+
+	/**
+	 * Stores the symbol value at index idx.
+	 *
+	 * @param idx
+	 * @param value
+	 */
+	public void set(int idx, int value) {
+		if (bytes!=null)
+			bytes[idx] = (byte)value;
+		else if (shorts!=null)
+			shorts[idx] = (short)value;
+		else
+			ints[idx] = value;
+	}
+
+	/**
+	 * The number of bytes of each cell (1, 2 or 4).
+	 *
+	 * @return
+	 */
+	public int width() {
+		return width;
+	}
+
+	/**
+	 * The number of cells.
+	 *
+	 * @return
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * The number of bytes used by the cells.
+	 *
+	 * @return
+	 */
+	public long sizeInBytes() {
+		return (long)length * width;
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.model.latinsquares;
+
+
+/**
+ *  A compact implementation of AbstractLatinSquare: the n*n symbols are stored row by row in one flat array,
+ *  using a byte per cell for n&lt;=256, a short for n&lt;=65536 and an int above that (see {@link PackedCells}).
+ *  A LS of order 256 takes 64 KB.
+ *
+ * @author igallego
+ *
+ */
+public class PackedLatinSquare extends AbstractLatinSquare {
+
+	/**
+	 * The largest order whose n*n cells can be indexed in one array.
+	 */
+	public static final int MAX_ORDER = 46340;
+
+	protected PackedCells cells;
+
+	/**
+	 * Constructs an empty LS of order n (all cells hold the symbol 0).
+	 *
+	 * @param n
+	 */
+	public PackedLatinSquare(int n) {
+		super(n);
+		if (n>MAX_ORDER)
+			throw new IllegalArgumentException("Order "+n+" is too large for a packed LS (max. "+MAX_ORDER+").");
+		this.cells = new PackedCells(n*n, n);
+	}
+
+	/**
+	 * Gets the value at specified row and column indexes.
+	 */
+	@Override
+	public int get(int row, int col) {
+		return cells.get(row*n+col);
+	}
+
+	/**
+	 * Sets the value at specified row and column indexes.
+	 */
+	@Override
+	public void set(int row, int col, int value) {
+		this.cellChanging(row, col, value);
+		cells.set(row*n+col, value);
+	}
+
+	/**
+	 * Copies the row into the flat array.
+	 *
+	 * @param i
+	 * @param row
+	 */
+	@Override
+	public void setRow(int i, int[] row) {
+		this.rowChanging(i, row);
+		int base = i*n;
+		for (int j=0; j<n; j++)
+			cells.set(base+j, row[j]);
+	}
+
+	/**
+	 * The number of bytes used by each cell (1, 2 or 4).
+	 *
+	 * @return
+	 */
+	public int cellWidth() {
+		return cells.width();
+	}
+}
@@ -3,10 +3,6 @@
  * 
  */
 package commons.model.latinsquares;
-
-import java.security.MessageDigest;
-import java.util.List;
-
 /**
  *  This is an optional implementation for class AbstractLatinSquare.
  * 
@@ -17,10 +13,6 @@ import java.util.List;
 public class PrimitiveIntArrayLatinSquare extends AbstractLatinSquare {
 	protected int[][] ls;
 	
-	protected int n = 0;
-	
-	protected MessageDigest md = null;
-	
 	/**
 	 * Constructs the LS instance.
 	 * @param n
@@ -34,7 +26,7 @@ public class PrimitiveIntArrayLatinSquare extends AbstractLatinSquare {
 	 * Gets the value at specified row and column indexes.
 	 */
 	@Override
-	public Integer getValueAt(int row, int col) {
+	public int get(int row, int col) {
 		return ls[row][col];
 	}
 
@@ -42,19 +34,20 @@ public class PrimitiveIntArrayLatinSquare extends AbstractLatinSquare {
 	 * Sets the value at specified row and column indexes.
 	 */
 	@Override
-	public void setValueAt(int row, int col, int value) {
+	public void set(int row, int col, int value) {
+		this.cellChanging(row, col, value);
 		ls[row][col] = value;
 	}
 
 	/**
-	 * Inefficient, but we'll search for other methods.
+	 * Copies the primitive row.
 	 * 
 	 * @param i
 	 * @param row
 	 */
 	@Override
-	public void setRow (int i, List<Integer> row) {
-		for (int j=0; j<n; j++)
-			ls[i][j] = row.get(j);
+	public void setRow(int i, int[] row) {
+		this.rowChanging(i, row);
+		System.arraycopy(row, 0, ls[i], 0, n);
 	}
 }
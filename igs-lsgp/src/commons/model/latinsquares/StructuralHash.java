@@ -0,0 +1,142 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.model.latinsquares;
+
+/**
+ *  A 128-bit non-cryptographic hash of the symbols of a LS (or LR), computed in the style of MurmurHash3 (x64, 128 bits).
+ *  The cells are read row by row as 32-bit words, four per block, and the dimensions are part of the seed,
+ *  so squares of different orders never share the same cell stream.
+ *  Instances are values: two hashes are equal if both halves are equal.
+ *
+ * @author igallego
+ *
+ */
+public class StructuralHash {
+
+	private static final long C1 = 0x87c37b91114253d5L;
+	private static final long C2 = 0x4cf5ad432745937fL;
+
+	public final long h1;
+	public final long h2;
+
+	/**
+	 * Constructs the hash from its two halves.
+	 *
+	 * @param h1
+	 * @param h2
+	 */
+	public StructuralHash(long h1, long h2) {
+		this.h1 = h1;
+		this.h2 = h2;
+	}
+
+	/**
+	 * Computes the hash of a LS of order n.
+	 *
+	 * @param ls
+	 * @return
+	 */
+	public static StructuralHash of(ILatinSquare ls) {
+		int n = ls.size();
+		return of(ls, n, n);
+	}
+
+	/**
+	 * Computes the hash of the first rows*cols cells of ls.
+	 *
+	 * @param ls
+	 * @param rows
+	 * @param cols
+	 * @return
+	 */
+	public static StructuralHash of(ILatinSquare ls, int rows, int cols) {
+		long h1 = ((long)rows << 32) | cols;
+		long h2 = h1;
+		long k1 = 0;
+		long k2 = 0;
+		int pending = 0;//cells already in k1, k2
+
+		for (int i=0; i<rows; i++) {
+			for (int j=0; j<cols; j++) {
+				long v = ls.get(i, j) & 0xFFFFFFFFL;
+				switch (pending) {
+					case 0: k1 = v; break;
+					case 1: k1 |= v << 32; break;
+					case 2: k2 = v; break;
+					default:
+						k2 |= v << 32;
+
+						k1 *= C1; k1 = Long.rotateLeft(k1, 31); k1 *= C2; h1 ^= k1;
+						h1 = Long.rotateLeft(h1, 27); h1 += h2; h1 = h1*5 + 0x52dce729;
+
+						k2 *= C2; k2 = Long.rotateLeft(k2, 33); k2 *= C1; h2 ^= k2;
+						h2 = Long.rotateLeft(h2, 31); h2 += h1; h2 = h2*5 + 0x38495ab5;
+				}
+				pending = (pending + 1) & 3;
+			}
+		}
+
+		//tail
+		if (pending>2) {
+			k2 *= C2; k2 = Long.rotateLeft(k2, 33); k2 *= C1; h2 ^= k2;
+		}
+		if (pending>0) {
+			k1 *= C1; k1 = Long.rotateLeft(k1, 31); k1 *= C2; h1 ^= k1;
+		}
+
+		//finalization
+		long length = (long)rows*cols*4;
+		h1 ^= length;
+		h2 ^= length;
+		h1 += h2;
+		h2 += h1;
+		h1 = fmix(h1);
+		h2 = fmix(h2);
+		h1 += h2;
+		h2 += h1;
+		return new StructuralHash(h1, h2);
+	}
+
+	private static long fmix(long k) {
+		k ^= k >>> 33;
+		k *= 0xff51afd7ed558ccdL;
+		k ^= k >>> 33;
+		k *= 0xc4ceb9fe1a85ec53L;
+		k ^= k >>> 33;
+		return k;
+	}
+
+	/**
+	 * The 16 bytes of the hash (h1 then h2, big-endian).
+	 *
+	 * @return
+	 */
+	public byte[] toBytes() {
+		byte[] b = new byte[16];
+		for (int i=0; i<8; i++) {
+			b[i] = (byte)(h1 >>> (56 - 8*i));
+			b[8+i] = (byte)(h2 >>> (56 - 8*i));
+		}
+		return b;
+	}
+
+	@Override
+	public int hashCode() {
+		return (int)(h1 ^ (h1 >>> 32));
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof StructuralHash))
+			return false;
+		StructuralHash other = (StructuralHash)o;
+		return h1==other.h1 && h2==other.h2;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%016x%016x", h1, h2);
+	}
+}
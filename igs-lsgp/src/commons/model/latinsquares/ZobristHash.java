@@ -0,0 +1,117 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.model.latinsquares;
+
+/**
+ *  A Zobrist hash of a LS: the XOR of one random 64-bit key per filled (row, column, symbol) triple.
+ *  Changing a cell only XORs two keys in and out, so the hash of a square that changes a few cells per step
+ *  (a J&amp;M move, a swap) is kept up to date in O(1), instead of rehashing the n^2 cells.
+ *  The keys are not stored in a n^3 table: each one is computed from the triple and the seed with the SplitMix64 mixer,
+ *  which is a bijection, so different triples never share a key (for orders up to 2^21).
+ *  Squares hashed with the same seed can be compared by their value.
+ *
+ * @author igallego
+ *
+ */
+public class ZobristHash {
+
+	public static final long DEFAULT_SEED = 0x2545F4914F6CDD1DL;
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private long seed;
+	private long value = 0;
+
+	/**
+	 * Constructs an empty hash with the default keys.
+	 */
+	public ZobristHash() {
+		this(DEFAULT_SEED);
+	}
+
+	/**
+	 * Constructs an empty hash whose keys depend on the seed.
+	 *
+	 * @param seed
+	 */
+	public ZobristHash(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * The key of symbol in cell (row, col).
+	 *
+	 * @param row
+	 * @param col
+	 * @param symbol
+	 * @return
+	 */
+	public long key(int row, int col, int symbol) {
+		long z = (((long)row << 42) | ((long)col << 21) | symbol) * GOLDEN_GAMMA + seed;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Adds the triple to the hash, or removes it if it was already there.
+	 *
+	 * @param row
+	 * @param col
+	 * @param symbol
+	 */
+	public void toggle(int row, int col, int symbol) {
+		value ^= key(row, col, symbol);
+	}
+
+	/**
+	 * Updates the hash when cell (row, col) changes from oldSymbol to newSymbol.
+	 *
+	 * @param row
+	 * @param col
+	 * @param oldSymbol
+	 * @param newSymbol
+	 */
+	public void replace(int row, int col, int oldSymbol, int newSymbol) {
+		if (oldSymbol!=newSymbol)
+			value ^= key(row, col, oldSymbol) ^ key(row, col, newSymbol);
+	}
+
+	/**
+	 * Sets the hash to the one of ls, in O(n^2).
+	 *
+	 * @param ls
+	 */
+	public void compute(ILatinSquare ls) {
+		int n = ls.size();
+		long h = 0;
+		for (int i=0; i<n; i++) {
+			for (int j=0; j<n; j++) {
+				h ^= key(i, j, ls.get(i, j));
+			}
+		}
+		this.value = h;
+	}
+
+	/**
+	 * Empties the hash.
+	 */
+	public void clear() {
+		this.value = 0;
+	}
+
+	/**
+	 * The current hash.
+	 *
+	 * @return
+	 */
+	public long value() {
+		return value;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.test;
+
+import java.util.HashMap;
+
+import commons.generators.IRandomLatinSquareGenerator;
+import commons.model.latinsquares.StructuralHash;
+import commons.utils.RandomStreams;
+import commons.utils.Xoshiro256Source;
+import jacomatt.model.generators.JacobsonMatthewsChainGenerator;
+import jacomatt.model.generators.ParallelJacobsonMatthewsGenerator;
+
+/**
+ *  Checks that the continuous J&M chains with thinning (one chain, or one per thread) sample uniformly, for orders 4
+ *  and 5, where all the LSs can be counted (L(4)=576, L(5)=161280). The counts of each LS are compared with the
+ *  uniform distribution with a chi-square statistic and its z-score z=(chi2-df)/sqrt(2df), which is approximately
+ *  normal when the sampler is uniform; the test fails when z is 3 or more. The chains use a thinning of n^2 moves
+ *  and a fixed seed: the runs of the single chain are reproducible, while the parallel chains deliver their LSs in
+ *  any order.
+ *
+ * @author igallego
+ *
+ */
+public class ChainUniformityTest {
+
+	public static void main(String[] args) {
+		int perLS = (args.length>0) ? new Integer(args[0]) : 5;//samples per LS: keep it at 5 or more
+		long seed = (args.length>1) ? new Long(args[1]) : 1;
+		int failures = 0;
+		for (int n=4; n<=5; n++) {
+			JacobsonMatthewsChainGenerator chain = new JacobsonMatthewsChainGenerator(n);
+			chain.setRandomSource(new Xoshiro256Source(seed));
+			failures += check("jm-chain (thinning "+chain.getThinning()+")", chain, n, perLS);
+			ParallelJacobsonMatthewsGenerator parallel = new ParallelJacobsonMatthewsGenerator(n, 2);
+			parallel.setRandomStreams(new RandomStreams(seed));
+			parallel.setThinning(n*n);
+			try {
+				failures += check("jm-parallel (2 chains, thinning "+n*n+")", parallel, n, perLS);
+			} finally {
+				parallel.close();
+			}
+		}
+		if (failures>0) {
+			System.out.println(failures+" samplers are not uniform.");
+			System.exit(1);
+		}
+		System.out.println("All the samplers are uniform.");
+	}
+
+	/**
+	 * Counts perLS*L(n) LSs of the generator and prints the statistic; returns 1 if the counts are not uniform.
+	 *
+	 * @param name
+	 * @param generator
+	 * @param n
+	 * @param perLS
+	 * @return
+	 */
+	static int check(String name, IRandomLatinSquareGenerator generator, int n, int perLS) {
+		long total = (n==4) ? 576 : 161280;
+		long samples = perLS*total;
+		HashMap<StructuralHash, Integer> counts = new HashMap<StructuralHash, Integer>();
+		for (long i=0; i<samples; i++) {
+			StructuralHash key = generator.generateLS().structuralHash();
+			Integer count = counts.get(key);
+			counts.put(key, (count==null) ? 1 : count+1);
+		}
+		//the LSs never generated count with an observed frequency of 0
+		double expected = samples/(double)total;
+		double chi2 = (total-counts.size())*expected;
+		for (Integer count : counts.values())
+			chi2 += (count-expected)*(count-expected)/expected;
+		long df = total-1;
+		double z = (chi2-df)/Math.sqrt(2.0*df);
+		boolean uniform = z<3;
+		System.out.println(String.format("%-36s order %d, %8d samples   chi2/df: %6.3f   z: %7.2f   %s",
+				name, n, samples, chi2/df, z, uniform ? "ok" : "NOT UNIFORM"));
+		return uniform ? 0 : 1;
+	}
+}
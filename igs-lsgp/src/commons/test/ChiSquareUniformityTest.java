@@ -30,9 +30,10 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 
+import commons.generators.IRandomLatinSquareGenerator;
 import commons.model.latinsquares.ILatinSquare;
 import jacomatt.model.EfficientIncidenceCube;
-import seqgen.model.generators.AbstractSequentialGenerator;
+import jacomatt.model.generators.JacobsonMatthewsChainGenerator;
 import seqgen.model.generators.SeqGenWithBacktracking;
 import seqgen.model.generators.SeqGenWithRandomSwapping;
 import seqgen.model.generators.SeqGenWithReplGraph;
@@ -43,9 +44,10 @@ public class ChiSquareUniformityTest {
 		long startTime = System.nanoTime();
 
 		if (args.length<3) {
-			System.out.println("Usage: [ jacomatt | swapping | graph ] <generations> <LS order>");
+			System.out.println("Usage: [ jacomatt | jmchain | swapping | graph ] <generations> <LS order>");
 			System.out.println("Example 1: swapping 1000000 4");
 			System.out.println("Example 2: jacomatt 10000000 5");
+			System.out.println("Example 3: jmchain 10000000 5 (one chain, an LS every n^2 moves)");
 			return;
 		}
 		String option = args[0]; 
@@ -53,12 +55,14 @@ public class ChiSquareUniformityTest {
 		int cantExperim = new Integer(args[1]);//1000000;
 		int order = new Integer(args[2]);
 
-		AbstractSequentialGenerator generator = new SeqGenWithBacktracking(4); //default
+		IRandomLatinSquareGenerator generator = new SeqGenWithBacktracking(4); //default
 		//creates the generator
 		if (option.equalsIgnoreCase("swapping")) 
 			generator = new SeqGenWithRandomSwapping(order);
 		if (option.equalsIgnoreCase("graph"))
 			generator = new SeqGenWithReplGraph(order);
+		if (option.equalsIgnoreCase("jmchain"))
+			generator = new JacobsonMatthewsChainGenerator(order);
 			
 		ILatinSquare ls;
 
@@ -68,7 +72,8 @@ public class ChiSquareUniformityTest {
 		for (int i=0; i<cantExperim ; i++) {
 			
 			if (option.equalsIgnoreCase("swapping")
-				|| option.equalsIgnoreCase("graph")) {
+				|| option.equalsIgnoreCase("graph")
+				|| option.equalsIgnoreCase("jmchain")) {
 				ls = generator.generateLS();
 			} else {
 				ls = new EfficientIncidenceCube(order);//creates cyclic IC
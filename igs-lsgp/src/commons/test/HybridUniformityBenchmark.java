@@ -0,0 +1,112 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.test;
+
+import java.util.HashMap;
+
+import commons.generators.IRandomLatinSquareGenerator;
+import commons.model.latinsquares.StructuralHash;
+import commons.utils.RandomSource;
+import commons.utils.RandomUtils;
+import jacomatt.model.MixingSchedule;
+import jacomatt.model.generators.HybridJacobsonMatthewsGenerator;
+import jacomatt.model.generators.JacobsonMatthewsChainGenerator;
+import jacomatt.model.generators.JacobsonMatthewsLSGenerator;
+import koscielny.model.generators.KoscielnyProductGenerator;
+import seqgen.model.generators.SeqGenWithReplGraph;
+
+/**
+ *  Compares the time and the uniformity of the warm-started J&M method against pure J&M, for orders 4 and 5, where
+ *  all the LSs can be counted (L(4)=576, L(5)=161280). For each method, it reports the seconds per LS and the
+ *  chi-square statistic of the counts against the uniform distribution, with its z-score: z=(chi2-df)/sqrt(2df)
+ *  is approximately normal when the method is uniform, so values above 3 show a bias.
+ *  Stopping at the first proper cube after the moves (as shuffle() does) is clearly biased at these orders: pure J&M
+ *  gives chi2/df of about 52 at order 4 with 200000 samples, and the hybrids share that bias. So compare the hybrids
+ *  with the pure J&M line; the jm-chain line, which samples a chain at fixed times, shows what an unbiased sampler
+ *  gives with the same number of samples (chi2/df near 1).
+ *  Keep samples/L(n) at 5 or more, or the test is not reliable.
+ *
+ * @author igallego
+ *
+ */
+public class HybridUniformityBenchmark {
+
+	public static void main(String[] args) {
+		if (args.length<2) {
+			System.out.println("Usage: <LS order (4 or 5)> <samples> [<chain multiplier of n^3> ...]");
+			System.out.println("Example 1: 4 100000 (multipliers 0, 0.125 and 1)");
+			System.out.println("Example 2: 5 1000000 0.125 0.25");
+			return;
+		}
+		int order = new Integer(args[0]);
+		int samples = new Integer(args[1]);
+		long total = latinSquares(order);
+		if (total==0) {
+			System.out.println("Only orders 4 and 5 are supported.");
+			return;
+		}
+		double[] multipliers;
+		if (args.length>2) {
+			multipliers = new double[args.length-2];
+			for (int i=2; i<args.length; i++)
+				multipliers[i-2] = new Double(args[i]);
+		} else {
+			multipliers = new double[] { 0, HybridJacobsonMatthewsGenerator.DEFAULT_MULTIPLIER, 1 };
+		}
+		RandomSource random = RandomUtils.createSource(RandomUtils.XOSHIRO, null);
+
+		System.out.println("Order "+order+", "+samples+" samples, L(n)="+total+".");
+		run("jm-chain (fixed times)", new JacobsonMatthewsChainGenerator(order), random, samples, total);
+		run("jm (n^3 moves)", new JacobsonMatthewsLSGenerator(order), random, samples, total);
+		for (int i=0; i<multipliers.length; i++) {
+			HybridJacobsonMatthewsGenerator graph = new HybridJacobsonMatthewsGenerator(new SeqGenWithReplGraph(order));
+			graph.setMixingSchedule(MixingSchedule.cubes(multipliers[i]));
+			run("graph + "+multipliers[i]+" n^3 moves", graph, random, samples, total);
+			HybridJacobsonMatthewsGenerator product = new HybridJacobsonMatthewsGenerator(new KoscielnyProductGenerator(order));
+			product.setMixingSchedule(MixingSchedule.cubes(multipliers[i]));
+			run("product + "+multipliers[i]+" n^3 moves", product, random, samples, total);
+		}
+	}
+
+	/**
+	 * Generates the samples and prints one line of results.
+	 *
+	 * @param name
+	 * @param generator
+	 * @param random
+	 * @param samples
+	 * @param total
+	 */
+	private static void run(String name, IRandomLatinSquareGenerator generator, RandomSource random, int samples, long total) {
+		generator.setRandomSource(random);
+		HashMap<StructuralHash, Integer> counts = new HashMap<StructuralHash, Integer>();
+		long startTime = System.nanoTime();
+		for (int i=0; i<samples; i++) {
+			StructuralHash key = generator.generateLS().structuralHash();
+			Integer count = counts.get(key);
+			counts.put(key, (count==null) ? 1 : count+1);
+		}
+		double secs = (System.nanoTime()-startTime)/1000000000d;
+
+		//the LSs never generated count with an observed frequency of 0
+		double expected = samples/(double)total;
+		double chi2 = (total-counts.size())*expected;
+		for (Integer count : counts.values())
+			chi2 += (count-expected)*(count-expected)/expected;
+		long df = total-1;
+		double z = (chi2-df)/Math.sqrt(2.0*df);
+
+		System.out.println(String.format("%-28s %10.2f us/LS   distinct: %7d   chi2/df: %7.3f   z: %9.2f",
+				name, secs*1000000/samples, counts.size(), chi2/df, z));
+	}
+
+	private static long latinSquares(int n) {
+		if (n==4)
+			return 576;
+		if (n==5)
+			return 161280;
+		return 0;
+	}
+}
@@ -0,0 +1,198 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import commons.model.latinsquares.ILatinSquare;
+import commons.model.latinsquares.LatinSquareNormalizer;
+import commons.model.latinsquares.PackedLatinSquare;
+import commons.model.latinsquares.StructuralHash;
+
+/**
+ *  Checks {@link LatinSquareNormalizer} against the known classifications of the LSs of orders 4 to 6. All the
+ *  reduced LSs of each order are enumerated (R(4)=4, R(5)=56, R(6)=9408), and the distinct isotopy and main-class
+ *  hashes among them must be 2 and 2 for order 4, 2 and 2 for order 5, and 22 and 12 for order 6. The reduced form
+ *  is checked on every reduced LS (which must be left as it is), on the LS with its columns shuffled (which must
+ *  give the LS back) and on a random isotope (which must give a reduced LS of the same isotopy class).
+ *
+ * @author igallego
+ *
+ */
+public class LatinSquareNormalizerTest {
+
+	private static final int[][] EXPECTED = {//order, reduced LSs, isotopy classes, main classes
+		{4, 4, 2, 2},
+		{5, 56, 2, 2},
+		{6, 9408, 22, 12}};
+
+	public static void main(String[] args) {
+		long seed = (args.length>0) ? new Long(args[0]) : 1;
+		Random random = new Random(seed);
+		int failures = 0;
+		for (int[] expected : EXPECTED) {
+			int n = expected[0];
+			List<PackedLatinSquare> reduced = new ArrayList<PackedLatinSquare>();
+			enumerateReduced(new PackedLatinSquare(n), 1, 1, reduced);
+			HashSet<StructuralHash> isotopy = new HashSet<StructuralHash>();
+			HashSet<StructuralHash> mainClass = new HashSet<StructuralHash>();
+			int badReducedForms = 0;
+			for (PackedLatinSquare ls : reduced) {
+				isotopy.add(LatinSquareNormalizer.isotopyHash(ls));
+				mainClass.add(LatinSquareNormalizer.mainClassHash(ls));
+				if (!checkReducedForm(ls, random))
+					badReducedForms++;
+			}
+			boolean ok = reduced.size()==expected[1] && isotopy.size()==expected[2] && mainClass.size()==expected[3]
+					&& badReducedForms==0;
+			System.out.println(String.format("order %d   reduced LSs: %5d (%5d)   isotopy classes: %2d (%2d)   main classes: %2d (%2d)   bad reduced forms: %d   %s",
+					n, reduced.size(), expected[1], isotopy.size(), expected[2], mainClass.size(), expected[3], badReducedForms,
+					ok ? "ok" : "WRONG"));
+			if (!ok)
+				failures++;
+		}
+		if (failures>0) {
+			System.out.println(failures+" orders are not classified as expected.");
+			System.exit(1);
+		}
+		System.out.println("All the orders are classified as expected.");
+	}
+
+	/**
+	 * Fills ls from cell (row, col) on in every possible way, with its first row and column in natural order, and
+	 *  adds a copy of each complete LS to the list.
+	 *
+	 * @param ls
+	 * @param row
+	 * @param col
+	 * @param reduced
+	 */
+	static void enumerateReduced(PackedLatinSquare ls, int row, int col, List<PackedLatinSquare> reduced) {
+		int n = ls.size();
+		if (row==1 && col==1) {
+			for (int i=0; i<n; i++) {
+				ls.set(0, i, i);
+				ls.set(i, 0, i);
+			}
+		}
+		if (row==n) {
+			reduced.add(copyOf(ls));
+			return;
+		}
+		int nextRow = (col==n-1) ? row+1 : row;
+		int nextCol = (col==n-1) ? 1 : col+1;
+		for (int symbol=0; symbol<n; symbol++) {
+			if (fits(ls, row, col, symbol)) {
+				ls.set(row, col, symbol);
+				enumerateReduced(ls, nextRow, nextCol, reduced);
+			}
+		}
+	}
+
+	/**
+	 * Returns true if symbol is not used yet in the row before col, nor in the column above row.
+	 *
+	 * @param ls
+	 * @param row
+	 * @param col
+	 * @param symbol
+	 * @return
+	 */
+	private static boolean fits(ILatinSquare ls, int row, int col, int symbol) {
+		for (int c=0; c<col; c++)
+			if (ls.get(row, c)==symbol)
+				return false;
+		for (int r=0; r<row; r++)
+			if (ls.get(r, col)==symbol)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Checks the reduced form of a reduced LS, of the LS with its columns shuffled and of a random isotope of it.
+	 *
+	 * @param ls a reduced LS
+	 * @param random
+	 * @return
+	 */
+	static boolean checkReducedForm(PackedLatinSquare ls, Random random) {
+		int n = ls.size();
+		int[] identity = permutation(n, null);
+		if (!LatinSquareNormalizer.reducedForm(ls).equals(ls))
+			return false;
+		if (!LatinSquareNormalizer.reducedForm(isotope(ls, identity, permutation(n, random), identity)).equals(ls))
+			return false;
+		PackedLatinSquare scrambled = isotope(ls, permutation(n, random), permutation(n, random), permutation(n, random));
+		PackedLatinSquare reducedForm = LatinSquareNormalizer.reducedForm(scrambled);
+		return isReduced(reducedForm) && reducedForm.preservesLatinProperty()
+				&& LatinSquareNormalizer.isotopyHash(reducedForm).equals(LatinSquareNormalizer.isotopyHash(ls));
+	}
+
+	/**
+	 * Returns true if the first row and the first column of ls are in natural order (0..n-1).
+	 *
+	 * @param ls
+	 * @return
+	 */
+	private static boolean isReduced(ILatinSquare ls) {
+		for (int i=0; i<ls.size(); i++)
+			if (ls.get(0, i)!=i || ls.get(i, 0)!=i)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Returns the LS with row r of ls at rowPerm[r], column c at colPerm[c] and symbol s replaced by symbolPerm[s].
+	 *
+	 * @param ls
+	 * @param rowPerm
+	 * @param colPerm
+	 * @param symbolPerm
+	 * @return
+	 */
+	private static PackedLatinSquare isotope(ILatinSquare ls, int[] rowPerm, int[] colPerm, int[] symbolPerm) {
+		int n = ls.size();
+		PackedLatinSquare result = new PackedLatinSquare(n);
+		for (int r=0; r<n; r++)
+			for (int c=0; c<n; c++)
+				result.set(rowPerm[r], colPerm[c], symbolPerm[ls.get(r, c)]);
+		return result;
+	}
+
+	/**
+	 * Returns a random permutation of 0..n-1, or the identity if random is null.
+	 *
+	 * @param n
+	 * @param random
+	 * @return
+	 */
+	private static int[] permutation(int n, Random random) {
+		int[] perm = new int[n];
+		for (int i=0; i<n; i++)
+			perm[i] = i;
+		if (random!=null) {
+			for (int i=n-1; i>0; i--) {
+				int j = random.nextInt(i+1);
+				int aux = perm[i];
+				perm[i] = perm[j];
+				perm[j] = aux;
+			}
+		}
+		return perm;
+	}
+
+	private static PackedLatinSquare copyOf(ILatinSquare ls) {
+		int n = ls.size();
+		PackedLatinSquare copy = new PackedLatinSquare(n);
+		for (int r=0; r<n; r++)
+			for (int c=0; c<n; c++)
+				copy.set(r, c, ls.get(r, c));
+		return copy;
+	}
+
+}
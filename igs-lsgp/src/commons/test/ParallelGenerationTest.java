@@ -0,0 +1,74 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.test;
+
+import commons.generators.IRandomLatinSquareGenerator;
+import commons.model.latinsquares.ILatinSquare;
+import commons.utils.RandomStreams;
+import jacomatt.model.generators.JacobsonMatthewsLSGenerator;
+import seqgen.model.generators.SeqGenWithRandomSwapping;
+import seqgen.model.generators.SeqGenWithReplGraph;
+
+/**
+ *  Runs one generator per thread, each one with its own stream of a master seed, and prints the time and a checksum
+ *  of all the generated LSs. With the same master seed the checksum must be the same for any number of runs,
+ *  and the time should stay about the same when the threads (up to the number of cores) and the total work grow together.
+ *
+ * @author igallego
+ *
+ */
+public class ParallelGenerationTest {
+
+	public static void main(String[] args) throws Exception {
+		if (args.length!=5) {
+			System.out.println("Usage: <jm|graph|swapping> <LS order> <threads> <LSs per thread> <master seed>");
+			return;
+		}
+		final String method = args[0];
+		final int order = new Integer(args[1]);
+		int threads = new Integer(args[2]);
+		final int count = new Integer(args[3]);
+		RandomStreams streams = new RandomStreams(new Long(args[4]));
+
+		final long[] checksums = new long[threads];
+		Thread[] workers = new Thread[threads];
+		for (int t=0; t<threads; t++) {
+			final int index = t;
+			final IRandomLatinSquareGenerator generator = newGenerator(method, order);
+			generator.setRandomSource(streams.stream(t));
+			workers[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					long sum = 0;
+					for (int i=0; i<count; i++) {
+						ILatinSquare ls = generator.generateLS();
+						sum = sum*31 + ls.structuralHash().h1;
+					}
+					checksums[index] = sum;
+				}
+			});
+		}
+		long startTime = System.nanoTime();
+		for (Thread worker : workers)
+			worker.start();
+		for (Thread worker : workers)
+			worker.join();
+		double secs = (System.nanoTime() - startTime)/1000000000d;
+
+		long checksum = 0;
+		for (int t=0; t<threads; t++)
+			checksum = checksum*31 + checksums[t];
+		System.out.println(threads*count+" LSs of order "+order+" in "+threads+" threads: "+secs+" seconds.");
+		System.out.println("Checksum: "+Long.toHexString(checksum));
+	}
+
+	private static IRandomLatinSquareGenerator newGenerator(String method, int order) {
+		if (method.equalsIgnoreCase("graph"))
+			return new SeqGenWithReplGraph(order);
+		if (method.equalsIgnoreCase("swapping"))
+			return new SeqGenWithRandomSwapping(order);
+		return new JacobsonMatthewsLSGenerator(order);
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.test;
+
+import commons.model.latinsquares.ILatinSquare;
+import commons.model.latinsquares.ZobristHash;
+import commons.utils.Xoshiro256Source;
+import seqgen.model.generators.AbstractSequentialGenerator;
+import seqgen.model.generators.SeqGenWithBacktracking;
+import seqgen.model.generators.SeqGenWithRandomSwapping;
+import seqgen.model.generators.SeqGenWithReplGraph;
+
+/**
+ *  Checks that the fingerprint a sequential generator keeps while it builds a LS is the Zobrist hash of the LS it
+ *  returns, computed from scratch. The random swapping generator is the delicate one: its row hash has to follow
+ *  both the collision path and every swap of fixRow(). Since a finished row goes into the hash of the LS, its own
+ *  hash is also checked at the end of every row, before it is added to the LS.
+ *
+ * @author igallego
+ *
+ */
+public class ZobristFingerprintTest {
+
+	public static void main(String[] args) {
+		int[] orders = { 2, 5, 10, 25, 50 };
+		int seeds = (args.length>0) ? new Integer(args[0]) : 20;
+		int failures = 0;
+		for (int n : orders) {
+			for (int seed=0; seed<seeds; seed++) {
+				CheckedSwapping swapping = new CheckedSwapping(n);
+				failures += check(swapping, seed) + swapping.wrongRows;
+				failures += check(new SeqGenWithReplGraph(n), seed);
+				if (n<=10)
+					failures += check(new SeqGenWithBacktracking(n), seed);
+			}
+		}
+		if (failures>0) {
+			System.out.println(failures+" fingerprints do not match the LS.");
+			System.exit(1);
+		}
+		System.out.println("All the fingerprints match the LS.");
+	}
+
+	/**
+	 * Random swapping that compares the fingerprint with one computed from scratch after generating each row.
+	 */
+	private static class CheckedSwapping extends SeqGenWithRandomSwapping {
+		private int wrongRows = 0;
+
+		public CheckedSwapping(int n) {
+			super(n);
+		}
+
+		@Override
+		protected int[] generateRow(int i_row) {
+			int[] row = super.generateRow(i_row);
+			ZobristHash hash = new ZobristHash();
+			hash.compute(ls);//the rows not generated yet have symbol 0
+			for (int j=0; j<n; j++)
+				hash.toggle(i_row, j, row[j]);
+			if (hash.value()!=this.currentFingerprint()) {
+				System.out.println("Wrong fingerprint of row "+i_row+": "+this.getMethodName()+", order "+n+".");
+				wrongRows++;
+			}
+			return row;
+		}
+	}
+
+	private static int check(AbstractSequentialGenerator generator, int seed) {
+		generator.setRandomSource(new Xoshiro256Source(seed));
+		generator.setFingerprinting(true);
+		ILatinSquare ls = generator.generateLS();
+		ZobristHash hash = new ZobristHash();
+		hash.compute(ls);
+		if (hash.value()!=generator.currentFingerprint()) {
+			System.out.println("Wrong fingerprint: "+generator.getMethodName()+", order "+ls.size()+", seed "+seed+".");
+			return 1;
+		}
+		return 0;
+	}
+}
@@ -26,7 +26,6 @@
 
 package commons.test.concurrentChi;
 
-import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -75,7 +74,7 @@ public class GeneratorLSsChiTest implements Runnable {
 			
 		ILatinSquare ls;
 
-		HashMap<Integer, byte[]> cuads = new HashMap<Integer, byte[]>();
+		HashMap<ILatinSquare, Integer> cuads = new HashMap<ILatinSquare, Integer>();//index of each distinct LS
 		HashMap<Integer, Integer> counts = new HashMap<Integer, Integer>();
 		int i = 0;
 		
@@ -83,51 +82,30 @@ public class GeneratorLSsChiTest implements Runnable {
 				|| option.equalsIgnoreCase("graph")) {
 			for (i=0; !finish ; i++) {
 				ls = generator.generateLS();
-				byte[] dig1 = ls.hashCodeOfStructure();
-				
-				boolean found = false;
-				Iterator<Integer> cuadrados = cuads.keySet().iterator();
-				
-				for (; cuadrados.hasNext() && !found;) {
-					Integer index = cuadrados.next();
-	//				if (ls.equals(cuads.get(index))) {
-					if (MessageDigest.isEqual(dig1, cuads.get(index))) {
-						found = true;
-						counts.put(index, counts.get(index)+1);
-					}
-				}
-				if (!found) {
-					Integer index2 = cuads.keySet().size(); 
-	//				cuads.put(index2, ls);
-					cuads.put(index2, dig1);
-					counts.put(index2, 1);
+				Integer index = cuads.get(ls);
+				if (index!=null) {
+					counts.put(index, counts.get(index)+1);
+				} else {
+					index = cuads.size();
+					cuads.put(ls, index);
+					counts.put(index, 1);
 				}
 				if (i%10000==0)
 					System.out.println(i);
 			}
 		} else {
 			for (i=0; !finish ; i++) {
-				ls = new EfficientIncidenceCube(order);//creates cyclic IC
-				((EfficientIncidenceCube)ls).shuffle();//shuffles IC = n^3 ops
+				EfficientIncidenceCube ic = new EfficientIncidenceCube(order);//creates cyclic IC
+				ic.shuffle();//shuffles IC = n^3 ops
+				ls = ic.snapshot();//keeps only the n^2 symbols
 
-				byte[] dig1 = ls.hashCodeOfStructure();
-				
-				boolean found = false;
-				Iterator<Integer> cuadrados = cuads.keySet().iterator();
-				
-				for (; cuadrados.hasNext() && !found;) {
-					Integer index = cuadrados.next();
-	//				if (ls.equals(cuads.get(index))) {
-					if (MessageDigest.isEqual(dig1, cuads.get(index))) {
-						found = true;
-						counts.put(index, counts.get(index)+1);
-					}
-				}
-				if (!found) {
-					Integer index2 = cuads.keySet().size(); 
-	//				cuads.put(index2, ls);
-					cuads.put(index2, dig1);
-					counts.put(index2, 1);
+				Integer index = cuads.get(ls);
+				if (index!=null) {
+					counts.put(index, counts.get(index)+1);
+				} else {
+					index = cuads.size();
+					cuads.put(ls, index);
+					counts.put(index, 1);
 				}
 				if (i%10000==0)
 					System.out.println(i);
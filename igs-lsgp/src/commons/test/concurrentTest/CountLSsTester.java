@@ -25,7 +25,6 @@ package commons.test.concurrentTest;
  * 
  */
 
-import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -72,33 +71,19 @@ public class CountLSsTester implements Runnable {
 			
 		ILatinSquare ls;
 
-		HashMap<Integer, byte[]> cuads = new HashMap<Integer, byte[]>();
+		HashMap<ILatinSquare, Integer> cuads = new HashMap<ILatinSquare, Integer>();//index of each distinct LS
 		HashMap<Integer, Integer> counts = new HashMap<Integer, Integer>();
 	
 		for (int i=0; !finish ; i++) {
 			
 			ls = generator.generateLS();
-			byte[] dig1 = ls.hashCodeOfStructure();
-			
-			boolean found = false;
-			Iterator<Integer> cuadrados = cuads.keySet().iterator();
-			
-			for (; cuadrados.hasNext() && !found;) {
-				Integer index = cuadrados.next();
-				try {
-					if (MessageDigest.isEqual(dig1, cuads.get(index))) {
-					
-//					if (ls.equals(cuads.get(index))) {
-						found = true;
-						counts.put(index, counts.get(index)+1);
-					}
-				} catch (Exception e) {System.out.println("Exception trying to compare 2 LSs."); }
-			}
-			if (!found) {
-				Integer index2 = cuads.keySet().size(); 
-//				cuads.put(index2, ls);
-				cuads.put(index2, dig1);
-				counts.put(index2, 1);
+			Integer index = cuads.get(ls);
+			if (index!=null) {
+				counts.put(index, counts.get(index)+1);
+			} else {
+				index = cuads.size();
+				cuads.put(ls, index);
+				counts.put(index, 1);
 			}
 			System.out.println(i);
 		}
@@ -0,0 +1,57 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.utils;
+
+/**
+ *  Default behaviour for the sources that produce 64 random bits at a time: ints are the high half of a long,
+ *  and bounded ints use Lemire's multiply-and-shift method, which is unbiased and rarely needs a second draw.
+ *
+ * @author igallego
+ *
+ */
+public abstract class AbstractRandomSource implements RandomSource {
+
+	/**
+	 * The high 32 bits of nextLong().
+	 */
+	@Override
+	public int nextInt() {
+		return (int)(this.nextLong() >>> 32);
+	}
+
+	/**
+	 * Lemire's method: the high half of a 32x32-bit product, rejecting the few low halves that would bias the result.
+	 */
+	@Override
+	public int nextInt(int bound) {
+		if (bound<=0)
+			throw new IllegalArgumentException("The bound must be positive: "+bound);
+		long m = (this.nextInt() & 0xFFFFFFFFL) * bound;
+		long low = m & 0xFFFFFFFFL;
+		if (low < bound) {
+			long threshold = (0x100000000L - bound) % bound;
+			while (low < threshold) {
+				m = (this.nextInt() & 0xFFFFFFFFL) * bound;
+				low = m & 0xFFFFFFFFL;
+			}
+		}
+		return (int)(m >>> 32);
+	}
+
+	/**
+	 * The highest bit of nextInt() (the same bit as the highest of nextLong(), but counted as an int draw).
+	 */
+	@Override
+	public boolean nextBoolean() {
+		return this.nextInt() < 0;
+	}
+
+	/**
+	 * Nothing to release.
+	 */
+	@Override
+	public void close() {
+	}
+}
@@ -24,7 +24,7 @@ public class Base64Utils {
 				//result+=(Character.toString((char)(ls.getValueAt(i, j).intValue())));//this is to return a string
 				//byte signedByte = (byte)(ls.getValueAt(i, j).intValue());
 				//int unsignedByte = signedByte & (0xff);
-				char c = (char)(ls.getValueAt(i, j).intValue());
+				char c = (char)ls.get(i, j);
 				charArr[k] = c;
 				k++;
 			}	
@@ -0,0 +1,198 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import commons.model.latinsquares.ILatinSquare;
+import commons.model.latinsquares.OffHeapLatinSquare;
+import commons.model.latinsquares.PackedCells;
+import commons.model.latinsquares.StructuralHash;
+
+/**
+ *  Binary file format for one LS: a header of HEADER_SIZE bytes followed by the packed cells, row by row.
+ *  All numbers are big-endian.
+ *  <pre>
+ *  offset  size  field
+ *  0       4     magic "LSQB"
+ *  4       2     version (1)
+ *  6       1     width of each cell in bytes (1, 2 or 4, see {@link PackedCells})
+ *  7       1     reserved (0)
+ *  8       4     order n
+ *  12      16    checksum: structural hash of the LS (h1, h2)
+ *  28      4     reserved (0)
+ *  32      n*n*width  cells
+ *  </pre>
+ *  An LS of order 4096 takes 16 MB (instead of 67 MB as text). The reader maps the cells and returns a view on them,
+ *  so nothing is copied into the heap.
+ *
+ * @author igallego
+ *
+ */
+public class BinaryLSFile {
+
+	public static final int MAGIC = 0x4C535142;//"LSQB"
+	public static final short VERSION = 1;
+	public static final int HEADER_SIZE = 32;
+
+	/**
+	 * Writes ls to the file in path, replacing it.
+	 *  The LS is written to a temporary file of the same directory which then replaces path, so ls can be one mapped
+	 *  from path itself (its cells are read before the old file goes away).
+	 *
+	 * @param ls
+	 * @param path
+	 * @throws IOException
+	 */
+	public static void write(ILatinSquare ls, String path) throws IOException {
+		File target = new File(path).getAbsoluteFile();
+		File temp = File.createTempFile(target.getName(), ".tmp", target.getParentFile());
+		boolean moved = false;
+		try {
+			RandomAccessFile file = new RandomAccessFile(temp, "rw");
+			try {
+				FileChannel channel = file.getChannel();
+				writeHeader(channel, 0, ls);
+				writeCells(channel, HEADER_SIZE, ls);
+				channel.force(false);
+			} finally {
+				file.close();
+			}
+			Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			moved = true;
+		} finally {
+			if (!moved)
+				temp.delete();
+		}
+	}
+
+	/**
+	 * Maps the LS stored in path, read-only, after checking its header and checksum.
+	 *  The returned LS must be closed when it is no longer used.
+	 *
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static OffHeapLatinSquare read(String path) throws IOException {
+		return read(path, true);
+	}
+
+	/**
+	 * Maps the LS stored in path, read-only. The checksum is verified (in O(n^2)) only if asked for.
+	 *
+	 * @param path
+	 * @param verify
+	 * @return
+	 * @throws IOException
+	 */
+	public static OffHeapLatinSquare read(String path, boolean verify) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(path, "r");
+		FileChannel channel = file.getChannel();
+		try {
+			ByteBuffer header = readHeader(channel, 0);
+			int n = header.getInt(8);
+			long cells = (long)n*n*header.get(6);
+			if (channel.size() < HEADER_SIZE + cells)
+				throw new IOException("Truncated LS file: "+path);
+
+			OffHeapLatinSquare ls = OffHeapLatinSquare.map(n, channel, HEADER_SIZE, MapMode.READ_ONLY);
+			if (verify && !checksumOf(header, 12).equals(ls.structuralHash()))
+				throw new IOException("Checksum mismatch in LS file: "+path);
+			return ls;
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Writes the header of ls in the channel at the given position.
+	 *
+	 * @param channel
+	 * @param position
+	 * @param ls
+	 * @throws IOException
+	 */
+	static void writeHeader(FileChannel channel, long position, ILatinSquare ls) throws IOException {
+		int n = ls.size();
+		StructuralHash hash = ls.structuralHash();
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC);
+		header.putShort(VERSION);
+		header.put((byte)PackedCells.widthFor(n));
+		header.put((byte)0);
+		header.putInt(n);
+		header.putLong(hash.h1);
+		header.putLong(hash.h2);
+		header.putInt(0);
+		header.flip();
+		while (header.hasRemaining())
+			position += channel.write(header, position);
+	}
+
+	/**
+	 * Writes the packed cells of ls in the channel from the given position on.
+	 *  Off-heap LSs hand their buffers to the channel; other LSs are copied into a mapped region.
+	 *
+	 * @param channel
+	 * @param position
+	 * @param ls
+	 * @throws IOException
+	 */
+	static void writeCells(FileChannel channel, long position, ILatinSquare ls) throws IOException {
+		int n = ls.size();
+		if (ls instanceof OffHeapLatinSquare) {
+			channel.position(position);
+			((OffHeapLatinSquare)ls).writeCellsTo(channel);
+			return;
+		}
+		OffHeapLatinSquare target = OffHeapLatinSquare.map(n, channel, position, MapMode.READ_WRITE);
+		for (int i=0; i<n; i++) {
+			for (int j=0; j<n; j++) {
+				target.set(i, j, ls.get(i, j));
+			}
+		}
+		target.force();
+	}
+
+	/**
+	 * Reads and checks the header found in the channel at the given position.
+	 *
+	 * @param channel
+	 * @param position
+	 * @return the header, with absolute positions as in the file format
+	 * @throws IOException
+	 */
+	static ByteBuffer readHeader(FileChannel channel, long position) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (header.hasRemaining()) {
+			if (channel.read(header, position + header.position()) < 0)
+				throw new IOException("Not a LS file (too short).");
+		}
+		if (header.getInt(0)!=MAGIC)
+			throw new IOException("Not a LS file (bad magic number).");
+		if (header.getShort(4)!=VERSION)
+			throw new IOException("Unsupported LS file version: "+header.getShort(4));
+		int n = header.getInt(8);
+		if (n<=0 || header.get(6)!=PackedCells.widthFor(n))
+			throw new IOException("Bad LS file header (order "+n+", width "+header.get(6)+").");
+		return header;
+	}
+
+	/**
+	 * The structural hash stored in the header from offset on.
+	 */
+	static StructuralHash checksumOf(ByteBuffer header, int offset) {
+		return new StructuralHash(header.getLong(offset), header.getLong(offset+8));
+	}
+}
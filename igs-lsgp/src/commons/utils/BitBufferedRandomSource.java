@@ -0,0 +1,113 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.utils;
+
+/**
+ *  A source that keeps the last 64-bit word of another source and hands it out bit by bit: a boolean costs one bit,
+ *  and an int in [0, bound) costs log2(bound) bits when bound is a power of two. Other small ranges (up to
+ *  SMALL_RANGE_BITS bits) are drawn by rejection on ceil(log2(bound)) bits, which needs less than twice that on
+ *  average; larger ranges use Lemire's method on 32 buffered bits.
+ *  <p>
+ *  The results are uniform as long as the wrapped source is, but they differ from the ones of the wrapped source,
+ *  so a seeded run is reproducible only in the same mode.
+ *
+ * @author igallego
+ *
+ */
+public class BitBufferedRandomSource extends AbstractRandomSource {
+
+	public static final int SMALL_RANGE_BITS = 16;
+
+	private RandomSource source;
+	private long buffer = 0;//the unused bits, in the lowest positions
+	private int available = 0;//how many bits of buffer are unused
+
+	/**
+	 * Constructs the buffer over the given source.
+	 *
+	 * @param source
+	 */
+	public BitBufferedRandomSource(RandomSource source) {
+		this.source = source;
+	}
+
+	/**
+	 * An int made of k random bits, with 0&lt;=k&lt;=32. When the buffer runs out, the bits left are used first
+	 *  and the rest is taken from a new word.
+	 *
+	 * @param k
+	 * @return
+	 */
+	public int nextBits(int k) {
+		if (k<=available) {
+			int result = (int)(buffer & ((1L << k) - 1));
+			buffer >>>= k;
+			available -= k;
+			return result;
+		}
+		int have = available;
+		int result = (int)buffer;
+		int rest = k - have;
+		buffer = source.nextLong();
+		available = 64;
+		result |= (int)(buffer & ((1L << rest) - 1)) << have;
+		buffer >>>= rest;
+		available -= rest;
+		return result;
+	}
+
+	@Override
+	public int nextInt() {
+		return this.nextBits(32);
+	}
+
+	/**
+	 * Whole words are taken directly from the wrapped source, keeping the buffered bits.
+	 */
+	@Override
+	public long nextLong() {
+		return source.nextLong();
+	}
+
+	@Override
+	public boolean nextBoolean() {
+		return this.nextBits(1)==1;
+	}
+
+	/**
+	 * Uses only the bits needed by small ranges, and Lemire's method for the rest.
+	 */
+	@Override
+	public int nextInt(int bound) {
+		if (bound<=0)
+			throw new IllegalArgumentException("The bound must be positive: "+bound);
+		if ((bound & (bound - 1))==0)//a power of two (1 needs no bits)
+			return this.nextBits(Integer.numberOfTrailingZeros(bound));
+		int k = 32 - Integer.numberOfLeadingZeros(bound - 1);
+		if (k>SMALL_RANGE_BITS)
+			return super.nextInt(bound);
+		int result = this.nextBits(k);
+		while (result>=bound)
+			result = this.nextBits(k);
+		return result;
+	}
+
+	public RandomSource getSource() {
+		return source;
+	}
+
+	@Override
+	public String getName() {
+		return source.getName()+" (bit-buffered)";
+	}
+
+	/**
+	 * Closes the buffered source.
+	 */
+	@Override
+	public void close() {
+		source.close();
+	}
+}
@@ -0,0 +1,58 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ *  Reads values of 0 to 32 bits from an input stream, most significant bit first (the counterpart of {@link BitOutputStream}).
+ *
+ * @author igallego
+ *
+ */
+public class BitInputStream {
+
+	private InputStream in;
+	private long buffer = 0;//bits not read yet, in the low part
+	private int available = 0;//how many
+
+	public BitInputStream(InputStream in) {
+		this.in = in;
+	}
+
+	/**
+	 * Reads an unsigned value of the given number of bits.
+	 *
+	 * @param bits from 0 to 32
+	 * @return
+	 * @throws IOException if the stream ends before
+	 */
+	public int read(int bits) throws IOException {
+		if (bits==0)
+			return 0;
+		while (available<bits) {
+			int b = in.read();
+			if (b<0)
+				throw new EOFException("Unexpected end of bit stream.");
+			buffer = (buffer << 8) | b;
+			available += 8;
+		}
+		available -= bits;
+		return (int)((buffer >>> available) & ((1L << bits) - 1));
+	}
+
+	/**
+	 * Skips the bits left in the current byte (the padding written by {@link BitOutputStream#flush()}).
+	 */
+	public void align() {
+		available -= available % 8;
+	}
+
+	public void close() throws IOException {
+		in.close();
+	}
+}
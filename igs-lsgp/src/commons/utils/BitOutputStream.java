@@ -0,0 +1,75 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ *  Writes values of 0 to 32 bits to an output stream, most significant bit first.
+ *  The last byte is padded with zeros by flush() and close().
+ *
+ * @author igallego
+ *
+ */
+public class BitOutputStream {
+
+	private OutputStream out;
+	private long buffer = 0;//bits not written yet, in the low part
+	private int pending = 0;//how many
+	private long bitsWritten = 0;
+
+	public BitOutputStream(OutputStream out) {
+		this.out = out;
+	}
+
+	/**
+	 * Writes the lowest bits of value.
+	 *
+	 * @param value
+	 * @param bits from 0 to 32
+	 * @throws IOException
+	 */
+	public void write(int value, int bits) throws IOException {
+		if (bits==0)
+			return;
+		buffer = (buffer << bits) | (value & ((1L << bits) - 1));
+		pending += bits;
+		bitsWritten += bits;
+		while (pending>=8) {
+			pending -= 8;
+			out.write((int)(buffer >>> pending));
+		}
+	}
+
+	/**
+	 * The number of bits written so far (without padding).
+	 *
+	 * @return
+	 */
+	public long getBitsWritten() {
+		return bitsWritten;
+	}
+
+	/**
+	 * Completes the current byte with zeros and flushes the stream.
+	 *
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+		if (pending>0) {
+			out.write((int)(buffer << (8 - pending)));
+			bitsWritten += 8 - pending;
+			pending = 0;
+		}
+		buffer = 0;
+		out.flush();
+	}
+
+	public void close() throws IOException {
+		this.flush();
+		out.close();
+	}
+}
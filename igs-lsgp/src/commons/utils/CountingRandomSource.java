@@ -0,0 +1,88 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.utils;
+
+/**
+ *  Wraps a source and counts the words drawn from it and the random bits they carry (32 for an int, 64 for a long),
+ *  to measure the entropy a generator consumes. Bounded ints and booleans are built from counted words with the
+ *  methods of {@link AbstractRandomSource}, so the rejections of bounded draws are also counted.
+ *  <p>
+ *  Wrapped under a {@link BitBufferedRandomSource}, it measures the words the buffer actually pulls.
+ *
+ * @author igallego
+ *
+ */
+public class CountingRandomSource extends AbstractRandomSource {
+
+	private RandomSource source;
+	private long draws = 0;
+	private long bits = 0;
+
+	/**
+	 * Constructs the counter of the given source.
+	 *
+	 * @param source
+	 */
+	public CountingRandomSource(RandomSource source) {
+		this.source = source;
+	}
+
+	@Override
+	public int nextInt() {
+		draws++;
+		bits += 32;
+		return source.nextInt();
+	}
+
+	@Override
+	public long nextLong() {
+		draws++;
+		bits += 64;
+		return source.nextLong();
+	}
+
+	/**
+	 * The number of words drawn since the last reset.
+	 *
+	 * @return
+	 */
+	public long getDraws() {
+		return draws;
+	}
+
+	/**
+	 * The number of random bits drawn since the last reset.
+	 *
+	 * @return
+	 */
+	public long getBits() {
+		return bits;
+	}
+
+	/**
+	 * Restarts the counts (for example, before generating each LS).
+	 */
+	public void reset() {
+		draws = 0;
+		bits = 0;
+	}
+
+	public RandomSource getSource() {
+		return source;
+	}
+
+	@Override
+	public String getName() {
+		return source.getName();
+	}
+
+	/**
+	 * Closes the counted source.
+	 */
+	@Override
+	public void close() {
+		source.close();
+	}
+}
@@ -29,6 +29,7 @@ import java.io.File;
 import java.io.FileWriter;
 
 import commons.model.latinsquares.ILatinSquare;
+import commons.model.latinsquares.OffHeapLatinSquare;
 
 /**
  * @author Ignacio Gallego Sagastume
@@ -37,6 +38,67 @@ import commons.model.latinsquares.ILatinSquare;
  */
 public class FileUtils {
 
+	public static final String TEXT = "TEXT";
+	public static final String BINARY = "BINARY";
+	public static final String FORMATS = TEXT+"|"+BINARY;
+	
+	/**
+	 * Tells if format names one of the LS file formats (TEXT or BINARY, in any case).
+	 * 
+	 * @param format
+	 * @return
+	 */
+	public static boolean isFormat(String format) {
+		return TEXT.equalsIgnoreCase(format) || BINARY.equalsIgnoreCase(format);
+	}
+
+	/**
+	 * Writes the LS in path, as text or in the binary format of {@link BinaryLSFile}.
+	 * 
+	 * @param ic
+	 * @param path
+	 * @param format TEXT or BINARY (TEXT if null)
+	 * @throws IllegalArgumentException if format is not one of the LS file formats
+	 */
+	public static void writeLS(ILatinSquare ic, String path, String format) {
+		if (format!=null && !isFormat(format))
+			throw new IllegalArgumentException("Unknown LS file format: "+format+". Valid formats: "+FORMATS);
+		if (format==null || format.equalsIgnoreCase(TEXT)) {
+			writeLS(ic, path);
+			return;
+		}
+		if (path!=null && path.length()>3) {
+			try {
+				BinaryLSFile.write(ic, path);
+				System.out.println("LS written to path: "+path+" (binary)");
+			} catch (Exception e) {
+				System.out.println("Could not write LS to file. Exception: "+e.getMessage());
+			}
+		}
+	}
+	
+	/**
+	 * Maps a LS written in the binary format (read-only, without copying the cells). Returns null if it can't be read.
+	 * 
+	 * @param path
+	 * @return
+	 */
+	public static OffHeapLatinSquare readLS(String path) {
+		try {
+			return BinaryLSFile.read(path);
+		} catch (Exception e) {
+			System.out.println("Could not read LS from file. Exception: "+e.getMessage());
+			return null;
+		}
+	}
+	
+	/**
+	 * Writes the LS in path as text, whatever its implementation (off-heap LSs too: use the BINARY format of
+	 *  {@link #writeLS(ILatinSquare, String, String)} to keep large LSs compact and readable by {@link #readLS(String)}).
+	 * 
+	 * @param ic
+	 * @param path
+	 */
 	public static void writeLS(ILatinSquare ic, String path) {
 		if (path!=null && path.length()>3) {
 			try {
@@ -47,7 +109,7 @@ public class FileUtils {
 			}
 		}
 	}
-	
+
 	
 	public static void writeTextToFile(String path, String text) throws Exception {
 		File logFile=new File(path);
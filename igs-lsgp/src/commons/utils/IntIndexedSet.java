@@ -0,0 +1,256 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.utils;
+
+/**
+ *  A set of ints in [0, capacity) kept in a dense array plus the position of each element in it, so add, remove
+ *  (swapping with the last element), contains and a uniform random pick are all O(1), without boxing.
+ *  It replaces HashSet&lt;Integer&gt; in the generators, where a random choice used to walk the set up to a random index.
+ *  The order of the elements is not kept: removing one moves the last element into its place.
+ *
+ * @author igallego
+ *
+ */
+public class IntIndexedSet {
+
+	/**
+	 * Random picks from an intersection first try this many elements of the smaller set, and then look at all of them.
+	 */
+	private static final int REJECTION_TRIES = 4;
+
+	private int[] elements;
+	private int[] index;//index[v] = position of v in elements + 1, or 0 if v is not in the set
+	private int size = 0;
+	private int[] scratch = null;
+
+	/**
+	 * Constructs an empty set for the values 0..capacity-1.
+	 *
+	 * @param capacity
+	 */
+	public IntIndexedSet(int capacity) {
+		this.elements = new int[capacity];
+		this.index = new int[capacity];
+	}
+
+	/**
+	 * Constructs a copy of other.
+	 *
+	 * @param other
+	 */
+	public IntIndexedSet(IntIndexedSet other) {
+		this(other.capacity());
+		this.copyFrom(other);
+	}
+
+	/**
+	 * Returns the set {0, ..., n-1}.
+	 *
+	 * @param n
+	 * @return
+	 */
+	public static IntIndexedSet full(int n) {
+		IntIndexedSet set = new IntIndexedSet(n);
+		set.fill();
+		return set;
+	}
+
+	/**
+	 * Adds v, if it was not in the set.
+	 *
+	 * @param v
+	 * @return true if the set changed
+	 */
+	public boolean add(int v) {
+		if (index[v]!=0)
+			return false;
+		elements[size++] = v;
+		index[v] = size;
+		return true;
+	}
+
+	/**
+	 * Removes v, if it was in the set, moving the last element to its place.
+	 *
+	 * @param v
+	 * @return true if the set changed
+	 */
+	public boolean remove(int v) {
+		int pos = index[v];
+		if (pos==0)
+			return false;
+		int last = elements[--size];
+		elements[pos-1] = last;
+		index[last] = pos;
+		index[v] = 0;
+		return true;
+	}
+
+	public boolean contains(int v) {
+		return v>=0 && v<index.length && index[v]!=0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size==0;
+	}
+
+	/**
+	 * The values this set can hold are 0..capacity-1.
+	 *
+	 * @return
+	 */
+	public int capacity() {
+		return index.length;
+	}
+
+	/**
+	 * The element at position i (0&lt;=i&lt;size()); positions change when elements are removed.
+	 *
+	 * @param i
+	 * @return
+	 */
+	public int get(int i) {
+		return elements[i];
+	}
+
+	/**
+	 * Removes all the elements, in O(size).
+	 */
+	public void clear() {
+		for (int i=0; i<size; i++)
+			index[elements[i]] = 0;
+		size = 0;
+	}
+
+	/**
+	 * Adds all the values 0..capacity-1.
+	 */
+	public void fill() {
+		for (int v=0; v<index.length; v++) {
+			elements[v] = v;
+			index[v] = v+1;
+		}
+		size = index.length;
+	}
+
+	/**
+	 * Adds all the elements of other.
+	 *
+	 * @param other
+	 */
+	public void addAll(IntIndexedSet other) {
+		for (int i=0; i<other.size; i++)
+			this.add(other.elements[i]);
+	}
+
+	/**
+	 * Makes this set equal to other (of the same capacity), reusing the arrays.
+	 *
+	 * @param other
+	 */
+	public void copyFrom(IntIndexedSet other) {
+		this.clear();
+		System.arraycopy(other.elements, 0, elements, 0, other.size);
+		for (int i=0; i<other.size; i++)
+			index[elements[i]] = i+1;
+		this.size = other.size;
+	}
+
+	/**
+	 * A uniformly chosen element, in O(1). The set must not be empty.
+	 *
+	 * @param random
+	 * @return
+	 */
+	public int randomPick(RandomSource random) {
+		return elements[random.nextInt(size)];
+	}
+
+	/**
+	 * A uniformly chosen element of the intersection of a and b, or -1 if it is empty.
+	 *
+	 * @param a
+	 * @param b
+	 * @param random
+	 * @return
+	 */
+	public static int randomPickFromIntersection(IntIndexedSet a, IntIndexedSet b, RandomSource random) {
+		return randomPick(a, b, null, random);
+	}
+
+	/**
+	 * A uniformly chosen element of the intersection of a and b that is not in excluded, or -1 if there is none.
+	 *
+	 * @param a
+	 * @param b
+	 * @param excluded
+	 * @param random
+	 * @return
+	 */
+	public static int randomPickFromIntersection(IntIndexedSet a, IntIndexedSet b, IntIndexedSet excluded, RandomSource random) {
+		return randomPick(a, b, excluded, random);
+	}
+
+	/**
+	 * A uniformly chosen element of a that is not in excluded, or -1 if there is none.
+	 *
+	 * @param a
+	 * @param excluded
+	 * @param random
+	 * @return
+	 */
+	public static int randomPickExcluding(IntIndexedSet a, IntIndexedSet excluded, RandomSource random) {
+		return randomPick(a, null, excluded, random);
+	}
+
+	/**
+	 * Picks from (a and b) minus excluded (b and excluded may be null). A few random elements of the smaller set
+	 *  are tried first, which is O(1) when the intersection is not much smaller than the set; otherwise the smaller set
+	 *  is scanned, in O(min(|a|, |b|)). The result is uniform in both cases.
+	 */
+	private static int randomPick(IntIndexedSet a, IntIndexedSet b, IntIndexedSet excluded, RandomSource random) {
+		IntIndexedSet small = a;
+		IntIndexedSet other = b;
+		if (b!=null && b.size<a.size) {
+			small = b;
+			other = a;
+		}
+		if (small.size==0)
+			return -1;
+		for (int t=0; t<REJECTION_TRIES; t++) {
+			int v = small.elements[random.nextInt(small.size)];
+			if ((other==null || other.contains(v)) && (excluded==null || !excluded.contains(v)))
+				return v;
+		}
+		if (small.scratch==null)
+			small.scratch = new int[small.elements.length];
+		int[] candidates = small.scratch;
+		int count = 0;
+		for (int i=0; i<small.size; i++) {
+			int v = small.elements[i];
+			if ((other==null || other.contains(v)) && (excluded==null || !excluded.contains(v)))
+				candidates[count++] = v;
+		}
+		return (count==0) ? -1 : candidates[random.nextInt(count)];
+	}
+
+	/**
+	 * Prints the elements as a list, in their current order.
+	 */
+	@Override
+	public String toString() {
+		StringBuffer sb = new StringBuffer("[");
+		for (int i=0; i<size; i++) {
+			if (i>0)
+				sb.append(", ");
+			sb.append(elements[i]);
+		}
+		return sb.append("]").toString();
+	}
+}
@@ -0,0 +1,197 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.utils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import commons.model.latinsquares.OffHeapLatinSquare;
+import commons.model.latinsquares.PackedCells;
+import commons.model.latinsquares.StructuralHash;
+
+/**
+ *  Memory-mapped reader of the container files written by {@link LSContainerWriter}.
+ *  The index is mapped once, and the records are mapped in windows of 1 GB (extended by the size of the largest record,
+ *  so no record is split between two windows). get(k) finds the k-th LS in O(1) and returns a read-only view on its cells,
+ *  without copying them. The views are valid until the reader is closed.
+ *
+ * @author igallego
+ *
+ */
+public class LSContainerReader {
+
+	private static final int WINDOW_SHIFT = 30;
+
+	private RandomAccessFile file;
+	private FileChannel channel;
+	private LongBuffer index;
+	private int count;
+	private long maxRecordSize;
+	private long recordsEnd;
+	private ByteBuffer[] windows;
+
+	/**
+	 * Opens the container in path and maps its index.
+	 *
+	 * @param path
+	 * @throws IOException
+	 */
+	public LSContainerReader(String path) throws IOException {
+		this.file = new RandomAccessFile(path, "r");
+		this.channel = file.getChannel();
+		try {
+			long size = channel.size();
+			if (size < LSContainerWriter.HEADER_SIZE + LSContainerWriter.FOOTER_SIZE)
+				throw new IOException("Not a LS container (too short): "+path);
+
+			ByteBuffer header = ByteBuffer.allocate(LSContainerWriter.HEADER_SIZE);
+			readFully(header, 0);
+			if (header.getInt(0)!=LSContainerWriter.MAGIC)
+				throw new IOException("Not a LS container (bad magic number): "+path);
+			if (header.getShort(4)!=LSContainerWriter.VERSION)
+				throw new IOException("Unsupported LS container version: "+header.getShort(4));
+
+			ByteBuffer footer = ByteBuffer.allocate(LSContainerWriter.FOOTER_SIZE);
+			readFully(footer, size - LSContainerWriter.FOOTER_SIZE);
+			if (footer.getInt(24)!=LSContainerWriter.INDEX_MAGIC)
+				throw new IOException("LS container without index (not closed?): "+path);
+			this.recordsEnd = footer.getLong(0);
+			long records = footer.getLong(8);
+			this.maxRecordSize = footer.getLong(16);
+			if (records > Integer.MAX_VALUE/8)
+				throw new IOException("Too many records in LS container: "+records);
+			this.count = (int)records;
+
+			this.index = channel.map(MapMode.READ_ONLY, recordsEnd, 8L*count).asLongBuffer();
+			this.windows = new ByteBuffer[(int)(recordsEnd >>> WINDOW_SHIFT) + 1];
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * The number of LSs in the container.
+	 *
+	 * @return
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns a read-only view of the k-th LS (0-based).
+	 *
+	 * @param k
+	 * @return
+	 * @throws IOException
+	 */
+	public OffHeapLatinSquare get(int k) throws IOException {
+		long offset = index.get(k);
+		int n = this.orderOf(k);
+		long cellBytes = (long)n*n*PackedCells.widthFor(n);
+		long cellsOffset = offset + LSContainerWriter.RECORD_HEADER_SIZE;
+
+		ByteBuffer window = this.windowFor(offset);
+		if (window==null || (long)n*n > OffHeapLatinSquare.CELLS_PER_CHUNK)//very large records are mapped on their own
+			return OffHeapLatinSquare.map(n, channel, cellsOffset, MapMode.READ_ONLY);
+
+		ByteBuffer cells = window.duplicate();
+		int pos = (int)(cellsOffset - windowStart(offset));
+		cells.limit(pos + (int)cellBytes);
+		cells.position(pos);
+		return OffHeapLatinSquare.wrap(n, cells.slice());
+	}
+
+	/**
+	 * The order of the k-th LS.
+	 *
+	 * @param k
+	 * @return
+	 * @throws IOException
+	 */
+	public int orderOf(int k) throws IOException {
+		return this.recordHeader(k).getInt(0);
+	}
+
+	/**
+	 * The structural hash of the k-th LS, as it was when written.
+	 *
+	 * @param k
+	 * @return
+	 * @throws IOException
+	 */
+	public StructuralHash checksumOf(int k) throws IOException {
+		ByteBuffer h = this.recordHeader(k);
+		return new StructuralHash(h.getLong(8), h.getLong(16));
+	}
+
+	/**
+	 * Returns true if the cells of the k-th LS still match its checksum.
+	 *
+	 * @param k
+	 * @return
+	 * @throws IOException
+	 */
+	public boolean verify(int k) throws IOException {
+		return this.checksumOf(k).equals(this.get(k).structuralHash());
+	}
+
+	/**
+	 * Closes the file. The views returned by get() must not be used afterwards.
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		windows = null;
+		index = null;
+		file.close();
+	}
+
+	private ByteBuffer recordHeader(int k) throws IOException {
+		long offset = index.get(k);
+		ByteBuffer window = this.windowFor(offset);
+		ByteBuffer h;
+		if (window==null) {
+			h = ByteBuffer.allocate(LSContainerWriter.RECORD_HEADER_SIZE);
+			readFully(h, offset);
+		} else {
+			h = window.duplicate();
+			h.position((int)(offset - windowStart(offset)));
+			h = h.slice();
+		}
+		return h;
+	}
+
+	private static long windowStart(long offset) {
+		return (offset >>> WINDOW_SHIFT) << WINDOW_SHIFT;
+	}
+
+	/**
+	 * The mapped window where the record at offset is, or null if the records are too large for windows.
+	 */
+	private ByteBuffer windowFor(long offset) throws IOException {
+		if (maxRecordSize > Integer.MAX_VALUE - (1L << WINDOW_SHIFT))
+			return null;
+		int w = (int)(offset >>> WINDOW_SHIFT);
+		if (windows[w]==null) {
+			long start = windowStart(offset);
+			long end = Math.min(recordsEnd, start + (1L << WINDOW_SHIFT) + maxRecordSize);
+			windows[w] = channel.map(MapMode.READ_ONLY, start, end - start);
+		}
+		return windows[w];
+	}
+
+	private void readFully(ByteBuffer b, long at) throws IOException {
+		while (b.hasRemaining()) {
+			if (channel.read(b, at + b.position()) < 0)
+				throw new IOException("Unexpected end of LS container.");
+		}
+	}
+}
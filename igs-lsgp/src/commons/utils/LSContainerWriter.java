@@ -0,0 +1,172 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.utils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import commons.model.latinsquares.ILatinSquare;
+import commons.model.latinsquares.OffHeapLatinSquare;
+import commons.model.latinsquares.PackedCells;
+import commons.model.latinsquares.StructuralHash;
+
+/**
+ *  Streaming writer of a container file with many LSs, to be fed from a generation loop. All numbers are big-endian.
+ *  <pre>
+ *  header   (HEADER_SIZE bytes): magic "LSQC", version (2 bytes), 26 reserved bytes
+ *  records  one per LS, appended in order: order (4), width (1), 3 reserved, checksum h1, h2 (16), packed cells (n*n*width)
+ *  index    one long per record: the offset of the record in the file
+ *  footer   (FOOTER_SIZE bytes): index offset (8), number of records (8), size of the largest record (8), magic "LSQI", 4 reserved
+ *  </pre>
+ *  All the records of the same order have the same size. The index and the footer are written by close(),
+ *  so {@link LSContainerReader} finds the k-th LS in O(1).
+ *
+ * @author igallego
+ *
+ */
+public class LSContainerWriter {
+
+	public static final int MAGIC = 0x4C535143;//"LSQC"
+	public static final int INDEX_MAGIC = 0x4C535149;//"LSQI"
+	public static final short VERSION = 1;
+	public static final int HEADER_SIZE = 32;
+	public static final int RECORD_HEADER_SIZE = 24;
+	public static final int FOOTER_SIZE = 32;
+
+	private RandomAccessFile file;
+	private FileChannel channel;
+	private long position = HEADER_SIZE;//where the next record goes
+	private long[] offsets = new long[1024];
+	private int count = 0;
+	private long maxRecordSize = 0;
+
+	private ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+	private ByteBuffer cells = null;//reused while the order does not change
+	private int cellsOrder = -1;
+
+	/**
+	 * Creates (or replaces) the container in path.
+	 *
+	 * @param path
+	 * @throws IOException
+	 */
+	public LSContainerWriter(String path) throws IOException {
+		this.file = new RandomAccessFile(path, "rw");
+		this.channel = file.getChannel();
+		channel.truncate(0);
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC);
+		header.putShort(VERSION);
+		header.position(HEADER_SIZE);
+		header.flip();
+		writeFully(header, 0);
+	}
+
+	/**
+	 * Appends ls as the next record.
+	 *
+	 * @param ls
+	 * @throws IOException
+	 */
+	public void append(ILatinSquare ls) throws IOException {
+		int n = ls.size();
+		int width = PackedCells.widthFor(n);
+		long cellBytes = (long)n*n*width;
+		StructuralHash hash = ls.structuralHash();
+
+		recordHeader.clear();
+		recordHeader.putInt(n);
+		recordHeader.put((byte)width);
+		recordHeader.put((byte)0).put((byte)0).put((byte)0);
+		recordHeader.putLong(hash.h1);
+		recordHeader.putLong(hash.h2);
+		recordHeader.flip();
+		writeFully(recordHeader, position);
+
+		if (ls instanceof OffHeapLatinSquare) {
+			channel.position(position + RECORD_HEADER_SIZE);
+			((OffHeapLatinSquare)ls).writeCellsTo(channel);
+		} else {
+			if (cellsOrder!=n) {
+				cells = ByteBuffer.allocateDirect((int)cellBytes);
+				cellsOrder = n;
+			}
+			cells.clear();
+			for (int i=0; i<n; i++) {
+				for (int j=0; j<n; j++) {
+					int symbol = ls.get(i, j);
+					if (width==PackedCells.BYTE_WIDTH)
+						cells.put((byte)symbol);
+					else if (width==PackedCells.SHORT_WIDTH)
+						cells.putShort((short)symbol);
+					else
+						cells.putInt(symbol);
+				}
+			}
+			cells.flip();
+			writeFully(cells, position + RECORD_HEADER_SIZE);
+		}
+
+		if (count==offsets.length) {
+			long[] bigger = new long[offsets.length*2];
+			System.arraycopy(offsets, 0, bigger, 0, count);
+			offsets = bigger;
+		}
+		offsets[count++] = position;
+		long recordSize = RECORD_HEADER_SIZE + cellBytes;
+		maxRecordSize = Math.max(maxRecordSize, recordSize);
+		position += recordSize;
+	}
+
+	/**
+	 * The number of records appended.
+	 *
+	 * @return
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Writes the index and the footer, and closes the file.
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		try {
+			long indexOffset = position;
+			ByteBuffer index = ByteBuffer.allocate(8*1024);
+			for (int k=0; k<count; k++) {
+				index.putLong(offsets[k]);
+				if (!index.hasRemaining() || k==count-1) {
+					index.flip();
+					position += writeFully(index, position);
+					index.clear();
+				}
+			}
+			ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE);
+			footer.putLong(indexOffset);
+			footer.putLong(count);
+			footer.putLong(maxRecordSize);
+			footer.putInt(INDEX_MAGIC);
+			footer.putInt(0);
+			footer.flip();
+			writeFully(footer, position);
+			channel.force(false);
+		} finally {
+			file.close();
+		}
+	}
+
+	private long writeFully(ByteBuffer b, long at) throws IOException {
+		long written = 0;
+		while (b.hasRemaining())
+			written += channel.write(b, at + written);
+		return written;
+	}
+}
@@ -0,0 +1,129 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.utils;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import commons.model.latinsquares.ILatinSquare;
+import commons.model.latinsquares.OffHeapLatinSquare;
+import commons.model.latinsquares.PackedLatinSquare;
+
+/**
+ *  Streaming decoder of the LSs written by {@link LSRankEncoder}: it keeps the same available-symbol bitsets
+ *  and turns each rank back into the symbol it stands for. Only one LS is held in memory at a time.
+ *
+ * @author igallego
+ *
+ */
+public class LSRankDecoder {
+
+	private BitInputStream bits;
+	private Inflater inflater = null;//ended by close(): the stream does not end an inflater it was given
+	private boolean finished = false;
+
+	private int order = -1;
+	private int words = 0;
+	private long[] availableInCol = null;
+	private long[] availableInRow = null;
+
+	/**
+	 * Reads the stream header from in (the stream tells if it is deflated).
+	 *
+	 * @param in
+	 * @throws IOException
+	 */
+	public LSRankDecoder(InputStream in) throws IOException {
+		DataInputStream header = new DataInputStream(in);
+		if (header.readInt()!=LSRankEncoder.MAGIC)
+			throw new IOException("Not a rank-encoded LS stream.");
+		int flags = header.readUnsignedByte();
+		if ((flags & LSRankEncoder.FLAG_DEFLATE)!=0) {
+			inflater = new Inflater();
+			in = new InflaterInputStream(in, inflater, 1 << 16);
+		}
+		this.bits = new BitInputStream(new BufferedInputStream(in, 1 << 16));
+	}
+
+	/**
+	 * Decodes the next LS, or returns null at the end of the stream.
+	 *
+	 * @return
+	 * @throws IOException
+	 */
+	public ILatinSquare read() throws IOException {
+		if (finished)
+			return null;
+		int n = bits.read(32);
+		if (n==0) {
+			finished = true;
+			return null;
+		}
+		this.reset(n);
+		ILatinSquare ls = n>PackedLatinSquare.MAX_ORDER ? new OffHeapLatinSquare(n) : new PackedLatinSquare(n);
+
+		for (int i=0; i<n; i++) {
+			LSRankEncoder.fillAll(availableInRow, 0, n);
+			for (int j=0; j<n; j++) {
+				int base = j*words;
+				int candidates = 0;
+				for (int w=0; w<words; w++)
+					candidates += Long.bitCount(availableInCol[base+w] & availableInRow[w]);
+				if (candidates==0)
+					throw new IOException("Corrupted LS stream: no symbol fits at ("+i+","+j+").");
+
+				int rank = bits.read(LSRankEncoder.bitsFor(candidates));
+				int symbol = -1;
+				for (int w=0; w<words && symbol<0; w++) {
+					long m = availableInCol[base+w] & availableInRow[w];
+					int c = Long.bitCount(m);
+					if (rank<c) {
+						for (int r=0; r<rank; r++)
+							m &= m - 1;//drop the lowest candidates
+						symbol = (w << 6) + Long.numberOfTrailingZeros(m);
+					} else {
+						rank -= c;
+					}
+				}
+				if (symbol<0)
+					throw new IOException("Corrupted LS stream: bad rank at ("+i+","+j+").");
+
+				ls.set(i, j, symbol);
+				availableInCol[base + (symbol >>> 6)] &= ~(1L << symbol);
+				availableInRow[symbol >>> 6] &= ~(1L << symbol);
+			}
+		}
+		return ls;
+	}
+
+	/**
+	 * Closes the underlying input stream and releases the native memory of the inflater.
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		try {
+			bits.close();
+		} finally {
+			if (inflater!=null)
+				inflater.end();
+		}
+	}
+
+	private void reset(int n) {
+		if (n!=order) {
+			order = n;
+			words = (n + 63) >>> 6;
+			availableInCol = new long[n*words];
+			availableInRow = new long[words];
+		}
+		for (int j=0; j<n; j++)
+			LSRankEncoder.fillAll(availableInCol, j*words, n);
+	}
+}
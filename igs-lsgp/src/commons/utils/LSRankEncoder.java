@@ -0,0 +1,165 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import commons.model.latinsquares.ILatinSquare;
+
+/**
+ *  Compressed encoding of a stream of LSs. Each cell is written as its rank among the symbols still available
+ *  for it (not used before in its row nor above in its column), with just enough bits to tell the candidates apart:
+ *  ceil(log2(candidates)) bits, and no bits at all when only one symbol fits (the last cell of every row, the whole last row).
+ *  The available symbols are kept in long[] bitsets, so the ranks are computed with bit counts.
+ *  <pre>
+ *  stream  magic "LSQR" (4 bytes), flags (1 byte: 1 = the rest is deflated), then the bit stream:
+ *          for each LS its order (32 bits) and the ranks of its cells row by row; an order 0 ends the stream
+ *  </pre>
+ *  Read it back with {@link LSRankDecoder}.
+ *
+ * @author igallego
+ *
+ */
+public class LSRankEncoder {
+
+	public static final int MAGIC = 0x4C535152;//"LSQR"
+	public static final int FLAG_DEFLATE = 1;
+
+	private BitOutputStream bits;
+	private Deflater deflater = null;//ended by close(): the stream does not end a deflater it was given
+	private int count = 0;
+
+	//available symbols, reused while the order does not change
+	private int order = -1;
+	private int words = 0;
+	private long[] availableInCol = null;//words per column
+	private long[] availableInRow = null;
+
+	/**
+	 * Starts a stream of encoded LSs in out. If deflate is true, the bit stream is also compressed with Deflater.
+	 *
+	 * @param out
+	 * @param deflate
+	 * @throws IOException
+	 */
+	public LSRankEncoder(OutputStream out, boolean deflate) throws IOException {
+		DataOutputStream header = new DataOutputStream(out);
+		header.writeInt(MAGIC);
+		header.writeByte(deflate ? FLAG_DEFLATE : 0);
+		header.flush();
+		if (deflate) {
+			deflater = new Deflater(Deflater.BEST_COMPRESSION);
+			out = new DeflaterOutputStream(out, deflater, 1 << 16);
+		}
+		this.bits = new BitOutputStream(new BufferedOutputStream(out, 1 << 16));
+	}
+
+	/**
+	 * Appends ls to the stream.
+	 *
+	 * @param ls
+	 * @throws IOException
+	 */
+	public void write(ILatinSquare ls) throws IOException {
+		int n = ls.size();
+		this.reset(n);
+		bits.write(n, 32);
+
+		for (int i=0; i<n; i++) {
+			fillAll(availableInRow, 0, n);
+			for (int j=0; j<n; j++) {
+				int symbol = ls.get(i, j);
+				int base = j*words;
+				int sw = symbol >>> 6;
+				if (symbol<0 || symbol>=n || ((availableInCol[base+sw] & availableInRow[sw]) & (1L << symbol))==0)
+					throw new IllegalArgumentException("Not a LS: symbol "+symbol+" can't be at ("+i+","+j+").");
+
+				int candidates = 0;
+				int rank = 0;
+				for (int w=0; w<words; w++) {
+					long m = availableInCol[base+w] & availableInRow[w];
+					int c = Long.bitCount(m);
+					candidates += c;
+					if (w<sw)
+						rank += c;
+					else if (w==sw)
+						rank += Long.bitCount(m & ((1L << symbol) - 1));
+				}
+				bits.write(rank, bitsFor(candidates));
+
+				availableInCol[base+sw] &= ~(1L << symbol);
+				availableInRow[sw] &= ~(1L << symbol);
+			}
+		}
+		count++;
+	}
+
+	/**
+	 * The number of LSs written.
+	 *
+	 * @return
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * The number of bits written so far (without the stream header, before deflating).
+	 *
+	 * @return
+	 */
+	public long getBitsWritten() {
+		return bits.getBitsWritten();
+	}
+
+	/**
+	 * Ends the stream, closes the underlying output stream and releases the native memory of the deflater.
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		try {
+			bits.write(0, 32);
+			bits.close();
+		} finally {
+			if (deflater!=null)
+				deflater.end();
+		}
+	}
+
+	private void reset(int n) {
+		if (n!=order) {
+			order = n;
+			words = (n + 63) >>> 6;
+			availableInCol = new long[n*words];
+			availableInRow = new long[words];
+		}
+		for (int j=0; j<n; j++)
+			fillAll(availableInCol, j*words, n);
+	}
+
+	/**
+	 * Sets the bits of symbols 0..n-1 in the words of bitset from offset on.
+	 */
+	static void fillAll(long[] bitset, int offset, int n) {
+		int words = (n + 63) >>> 6;
+		Arrays.fill(bitset, offset, offset + words, -1L);
+		if ((n & 63)!=0)
+			bitset[offset + words - 1] = (1L << (n & 63)) - 1;
+	}
+
+	/**
+	 * The number of bits needed to tell apart the given number of candidates.
+	 */
+	static int bitsFor(int candidates) {
+		return candidates<=1 ? 0 : 32 - Integer.numberOfLeadingZeros(candidates - 1);
+	}
+}
@@ -0,0 +1,152 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.utils;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ *  Cryptographically strong numbers from a {@link SecureRandom} that runs ahead in a background (daemon) thread.
+ *  The thread fills a ring of random longs in batches; the consumer takes them without locks (one producer and one
+ *  consumer: head and tail are only written by their owner, and published with ordered stores). So the generator does not
+ *  wait for the provider's locking and entropy mixing on each draw. Each long gives two ints, and bounded ints use
+ *  Lemire's method. If the ring is ever empty the consumer draws from its own SecureRandom instead of waiting.
+ *  <p>
+ *  Only one thread may draw from an instance. close() stops the background thread.
+ *
+ * @author igallego
+ *
+ */
+public class PrefetchingSecureRandomSource extends AbstractRandomSource {
+
+	public static final int DEFAULT_CAPACITY = 1 << 12;
+	private static final int BATCH = 64;//longs produced per call to the SecureRandom
+	private static final long IDLE_NANOS = 200000;//the producer sleeps this long when the ring is full
+
+	private final long[] ring;
+	private final int mask;
+	private final AtomicLong head = new AtomicLong();//next position to read, written by the consumer
+	private final AtomicLong tail = new AtomicLong();//next position to write, written by the producer
+	private long cachedTail = 0;//the consumer's last read of tail
+	private volatile boolean closed = false;
+
+	private final Thread producer;
+	private final SecureRandom fallback = new SecureRandom();
+	private long fallbacks = 0;
+
+	private int spareInt;//the low half of the last long, not used yet
+	private boolean hasSpareInt = false;
+
+	/**
+	 * Constructs a source with a ring of DEFAULT_CAPACITY longs.
+	 */
+	public PrefetchingSecureRandomSource() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a source with a ring of capacity longs (rounded up to a power of two, at least BATCH).
+	 *
+	 * @param capacity
+	 */
+	public PrefetchingSecureRandomSource(int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity, BATCH) - 1) << 1;
+		this.ring = new long[size];
+		this.mask = size - 1;
+		this.producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				produce();
+			}
+		}, "prefetching-secure-random");
+		producer.setDaemon(true);
+		producer.start();
+	}
+
+	/**
+	 * The producer's loop: fills the free part of the ring, BATCH longs at a time.
+	 */
+	private void produce() {
+		SecureRandom random = new SecureRandom();
+		byte[] bytes = new byte[8*BATCH];
+		long cachedHead = 0;
+		long t = tail.get();
+		while (!closed) {
+			if (t - cachedHead > ring.length - BATCH) {
+				cachedHead = head.get();
+				if (t - cachedHead > ring.length - BATCH) {
+					LockSupport.parkNanos(this, IDLE_NANOS);//full: wait for the consumer
+					continue;
+				}
+			}
+			random.nextBytes(bytes);
+			for (int i=0; i<BATCH; i++) {
+				long v = 0;
+				for (int b=0; b<8; b++)
+					v = (v << 8) | (bytes[8*i+b] & 0xFF);
+				ring[(int)(t++ & mask)] = v;
+			}
+			tail.lazySet(t);//publishes the batch
+		}
+	}
+
+	/**
+	 * The next long of the ring, or of the fallback if the ring is empty.
+	 */
+	@Override
+	public long nextLong() {
+		long h = head.get();
+		if (h==cachedTail) {
+			cachedTail = tail.get();
+			if (h==cachedTail) {
+				fallbacks++;
+				LockSupport.unpark(producer);
+				return fallback.nextLong();
+			}
+		}
+		long v = ring[(int)(h & mask)];
+		head.lazySet(h+1);
+		return v;
+	}
+
+	/**
+	 * Uses both halves of each long.
+	 */
+	@Override
+	public int nextInt() {
+		if (hasSpareInt) {
+			hasSpareInt = false;
+			return spareInt;
+		}
+		long v = this.nextLong();
+		spareInt = (int)v;
+		hasSpareInt = true;
+		return (int)(v >>> 32);
+	}
+
+	/**
+	 * The number of draws served by the fallback because the ring was empty.
+	 *
+	 * @return
+	 */
+	public long getFallbacks() {
+		return fallbacks;
+	}
+
+	/**
+	 * Stops the background thread. Later draws are served by the fallback.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		LockSupport.unpark(producer);
+	}
+
+	@Override
+	public String getName() {
+		return "prefetch";
+	}
+}
@@ -0,0 +1,61 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.utils;
+
+import java.io.Closeable;
+
+/**
+ *  A source of random numbers for the generators. Implementations are not thread-safe: each generator (or thread)
+ *  must use its own source. See {@link RandomUtils#createSource(String, Long)} for the available ones.
+ *  <p>
+ *  A source must be closed when it is no longer used, since some of them own a background thread.
+ *
+ * @author igallego
+ *
+ */
+public interface RandomSource extends Closeable {
+
+	/**
+	 * A uniform int (32 random bits).
+	 *
+	 * @return
+	 */
+	public int nextInt();
+
+	/**
+	 * A uniform int in [0, bound), with bound&gt;0.
+	 *
+	 * @param bound
+	 * @return
+	 */
+	public int nextInt(int bound);
+
+	/**
+	 * A uniform long (64 random bits).
+	 *
+	 * @return
+	 */
+	public long nextLong();
+
+	/**
+	 * A uniform boolean.
+	 *
+	 * @return
+	 */
+	public boolean nextBoolean();
+
+	/**
+	 * The name of the source (to print into the console).
+	 *
+	 * @return
+	 */
+	public String getName();
+
+	/**
+	 * Releases the resources of the source (does not throw IOException). Closing twice has no effect.
+	 */
+	@Override
+	public void close();
+}
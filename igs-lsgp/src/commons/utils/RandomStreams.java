@@ -0,0 +1,78 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.utils;
+
+/**
+ *  Independent random streams derived from one master seed, for running many generators at the same time.
+ *  Stream k is a xoshiro256** source seeded with the master seed and jumped k times (2^128 steps each), so no two streams
+ *  overlap and each one only depends on the master seed and k. Every generator (or thread) gets its own stream and
+ *  nothing is shared while generating, so N generators scale with N cores and a run can be repeated from the master seed.
+ *
+ * @author igallego
+ *
+ */
+public class RandomStreams {
+
+	private long masterSeed;
+	private Xoshiro256Source next;//state of the next stream handed by nextStream()
+	private int nextIndex = 0;
+
+	/**
+	 * Constructs the streams of the master seed.
+	 *
+	 * @param masterSeed
+	 */
+	public RandomStreams(long masterSeed) {
+		this.masterSeed = masterSeed;
+		this.next = new Xoshiro256Source(masterSeed);
+	}
+
+	/**
+	 * Constructs the streams of a seed taken from the system.
+	 */
+	public RandomStreams() {
+		this(RandomUtils.freshSeed());
+	}
+
+	/**
+	 * The stream with the given index (0, 1, ...), in O(index). Asking twice for the same index returns two sources
+	 *  with the same numbers.
+	 *
+	 * @param index
+	 * @return
+	 */
+	public RandomSource stream(int index) {
+		Xoshiro256Source source = new Xoshiro256Source(masterSeed);
+		for (int k=0; k<index; k++)
+			source.jump();
+		return source;
+	}
+
+	/**
+	 * The stream after the last one handed by this method (stream 0 the first time), in O(1). It can be called from any thread;
+	 *  for reproducible runs, hand the streams in a fixed order or use stream(index).
+	 *
+	 * @return
+	 */
+	public synchronized RandomSource nextStream() {
+		Xoshiro256Source source = new Xoshiro256Source(next);
+		next.jump();
+		nextIndex++;
+		return source;
+	}
+
+	/**
+	 * The number of streams handed by nextStream().
+	 *
+	 * @return
+	 */
+	public synchronized int streamsHanded() {
+		return nextIndex;
+	}
+
+	public long getMasterSeed() {
+		return masterSeed;
+	}
+}
@@ -24,7 +24,6 @@
  */
 package commons.utils;
 
-import java.security.SecureRandom;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -37,19 +36,48 @@ import commons.model.OrderedTriple;
  * @tags 
  */
 public class RandomUtils {
-	private static SecureRandom rand;
 	
+	//names of the random sources, for the command line
+	public static final String SECURE = "secure";
+	public static final String SPLITMIX = "splitmix";
+	public static final String XOSHIRO = "xoshiro";
+	public static final String PREFETCH = "prefetch";
 	
-	public static void initRand() {
-		try {
-			rand = new SecureRandom();
-		} catch (Exception e) {
-			rand = null;				
+	/**
+	 * Creates the source with the given name (secure, splitmix, xoshiro or prefetch), seeded with seed (or by the system if it is null).
+	 *  The prefetching source cannot be seeded, as its numbers depend on the timing of its background thread.
+	 * 
+	 * @param name
+	 * @param seed
+	 * @return
+	 */
+	public static RandomSource createSource(String name, Long seed) {
+		if (name.equalsIgnoreCase(SECURE))
+			return (seed==null) ? new SecureRandomSource() : new SecureRandomSource(seed);
+		if (name.equalsIgnoreCase(SPLITMIX))
+			return (seed==null) ? new SplitMix64Source() : new SplitMix64Source(seed);
+		if (name.equalsIgnoreCase(XOSHIRO))
+			return (seed==null) ? new Xoshiro256Source() : new Xoshiro256Source(seed);
+		if (name.equalsIgnoreCase(PREFETCH)) {
+			if (seed!=null)
+				throw new IllegalArgumentException("The prefetch source cannot be seeded.");
+			return new PrefetchingSecureRandomSource();
 		}
+		throw new IllegalArgumentException("Unknown random source: "+name);
 	}
+	
+	/**
+	 * A seed for the sources constructed without one, mixed from the clock and an address.
+	 * 
+	 * @return
+	 */
+	public static long freshSeed() {
+		return SplitMix64Source.mix(System.nanoTime() ^ ((long)System.identityHashCode(new Object()) << 32));
+	}
+
 
-	public static Integer randomChoice(Set<Integer> set) {
-		int index = rand.nextInt(set.size());
+	public static Integer randomChoice(Set<Integer> set, RandomSource random) {
+		int index = random.nextInt(set.size());
 		int i = 0;
 		for(Integer obj : set) {
 		    if (i == index)
@@ -59,13 +87,13 @@ public class RandomUtils {
 		return null;
 	}
 	
-	public static Integer randomChoice(List<Integer> list) {
-		int idx = rand.nextInt(list.size());
+	public static Integer randomChoice(List<Integer> list, RandomSource random) {
+		int idx = random.nextInt(list.size());
 		return list.get(idx);
 	}
 	
-	public static OrderedTriple randomTriple(List<OrderedTriple> list) {
-		int idx = rand.nextInt(list.size());
+	public static OrderedTriple randomTriple(List<OrderedTriple> list, RandomSource random) {
+		int idx = random.nextInt(list.size());
 		return list.get(idx);
 	}
 
@@ -0,0 +1,82 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.utils;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ *  Cryptographically strong numbers, from a {@link SecureRandom}. This is the default source of the generators.
+ *  With a seed, the SHA1PRNG algorithm is used (seeded before its first use), so the sequence is reproducible.
+ *
+ * @author igallego
+ *
+ */
+public class SecureRandomSource implements RandomSource {
+
+	private SecureRandom random;
+
+	/**
+	 * Constructs a source seeded by the system.
+	 */
+	public SecureRandomSource() {
+		this.random = new SecureRandom();
+	}
+
+	/**
+	 * Constructs a reproducible source.
+	 *
+	 * @param seed
+	 */
+	public SecureRandomSource(long seed) {
+		try {
+			this.random = SecureRandom.getInstance("SHA1PRNG");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA1PRNG is not available: "+e.getMessage());
+		}
+		this.random.setSeed(seed);
+	}
+
+	/**
+	 * Wraps an existing SecureRandom.
+	 *
+	 * @param random
+	 */
+	public SecureRandomSource(SecureRandom random) {
+		this.random = random;
+	}
+
+	@Override
+	public int nextInt() {
+		return random.nextInt();
+	}
+
+	@Override
+	public int nextInt(int bound) {
+		return random.nextInt(bound);
+	}
+
+	@Override
+	public long nextLong() {
+		return random.nextLong();
+	}
+
+	@Override
+	public boolean nextBoolean() {
+		return random.nextBoolean();
+	}
+
+	@Override
+	public String getName() {
+		return "secure";
+	}
+
+	/**
+	 * Nothing to release.
+	 */
+	@Override
+	public void close() {
+	}
+}
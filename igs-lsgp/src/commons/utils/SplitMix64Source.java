@@ -0,0 +1,58 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.utils;
+
+/**
+ *  The SplitMix64 generator (the one behind java.util.SplittableRandom): a Weyl sequence with step GOLDEN_GAMMA
+ *  passed through a 64-bit mixer. Very fast and seedable, with period 2^64, but not cryptographically strong.
+ *
+ * @author igallego
+ *
+ */
+public class SplitMix64Source extends AbstractRandomSource {
+
+	public static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private long state;
+
+	/**
+	 * Constructs a source with a seed taken from the system.
+	 */
+	public SplitMix64Source() {
+		this(RandomUtils.freshSeed());
+	}
+
+	/**
+	 * Constructs a reproducible source.
+	 *
+	 * @param seed
+	 */
+	public SplitMix64Source(long seed) {
+		this.state = seed;
+	}
+
+	@Override
+	public long nextLong() {
+		state += GOLDEN_GAMMA;
+		return mix(state);
+	}
+
+	/**
+	 * The SplitMix64 mixer, a bijection of the longs.
+	 *
+	 * @param z
+	 * @return
+	 */
+	public static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	@Override
+	public String getName() {
+		return "splitmix";
+	}
+}
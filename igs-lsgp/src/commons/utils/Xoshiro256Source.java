@@ -0,0 +1,92 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package commons.utils;
+
+/**
+ *  The xoshiro256** generator by Blackman and Vigna: 256 bits of state, period 2^256-1, and very good statistical quality.
+ *  Seeds are expanded to the four state words with SplitMix64, as its authors recommend. Not cryptographically strong.
+ *  jump() advances the state by 2^128 steps, which splits the period in non-overlapping streams (see {@link RandomStreams}).
+ *
+ * @author igallego
+ *
+ */
+public class Xoshiro256Source extends AbstractRandomSource {
+
+	private static final long[] JUMP = {0x180EC6D33CFD0ABAL, 0xD5A61266F0C9392CL, 0xA9582618E03FC9AAL, 0x39ABDC4529B1661CL};
+
+	protected long s0, s1, s2, s3;
+
+	/**
+	 * Constructs a source with a seed taken from the system.
+	 */
+	public Xoshiro256Source() {
+		this(RandomUtils.freshSeed());
+	}
+
+	/**
+	 * Constructs a reproducible source.
+	 *
+	 * @param seed
+	 */
+	public Xoshiro256Source(long seed) {
+		SplitMix64Source sm = new SplitMix64Source(seed);
+		this.s0 = sm.nextLong();
+		this.s1 = sm.nextLong();
+		this.s2 = sm.nextLong();
+		this.s3 = sm.nextLong();
+	}
+
+	/**
+	 * Constructs a source in the same state as other; both produce the same numbers from now on.
+	 *
+	 * @param other
+	 */
+	public Xoshiro256Source(Xoshiro256Source other) {
+		this.s0 = other.s0;
+		this.s1 = other.s1;
+		this.s2 = other.s2;
+		this.s3 = other.s3;
+	}
+
+	/**
+	 * Advances the state as 2^128 calls to nextLong() would, in 256 steps.
+	 */
+	public void jump() {
+		long t0 = 0, t1 = 0, t2 = 0, t3 = 0;
+		for (int i=0; i<JUMP.length; i++) {
+			for (int b=0; b<64; b++) {
+				if ((JUMP[i] & (1L << b)) != 0) {
+					t0 ^= s0;
+					t1 ^= s1;
+					t2 ^= s2;
+					t3 ^= s3;
+				}
+				this.nextLong();
+			}
+		}
+		s0 = t0;
+		s1 = t1;
+		s2 = t2;
+		s3 = t3;
+	}
+
+	@Override
+	public long nextLong() {
+		long result = Long.rotateLeft(s1 * 5, 7) * 9;
+		long t = s1 << 17;
+		s2 ^= s0;
+		s3 ^= s1;
+		s1 ^= s2;
+		s0 ^= s3;
+		s2 ^= t;
+		s3 = Long.rotateLeft(s3, 45);
+		return result;
+	}
+
+	@Override
+	public String getName() {
+		return "xoshiro";
+	}
+}
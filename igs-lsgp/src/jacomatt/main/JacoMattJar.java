@@ -29,9 +29,14 @@ package jacomatt.main;
 import java.security.SecureRandom;
 
 import commons.utils.FileUtils;
+import commons.utils.RandomSource;
+import commons.utils.RandomUtils;
+import jacomatt.model.BitsetCubeStorage;
+import jacomatt.model.BitsetIncidenceCube;
 import jacomatt.model.EfficientIncidenceCube;
 import jacomatt.model.IncidenceCube;
 import jacomatt.model.IncidenceCubeWithDebugging;
+import jacomatt.model.MixingSchedule;
 
 /**
  *  This class is prepared to be called from a runnable jar.
@@ -51,21 +56,28 @@ public class JacoMattJar {
 			System.out.println("Where <action> ::= debug | draw | compute");
 			System.out.println("  and <option> ::= ic | efficient | shuffle");*/
 			System.out.println("Available options are:");
-			System.out.println("debug   ic        <LS order>                 |");
-			System.out.println("debug   shuffle   <LS order>                 |");
-			System.out.println("draw    ic        <LS order>                 |");
-			System.out.println("draw    shuffle   <LS order>                 |");
-			System.out.println("compute ic        <LS order> [write <path>]  |");
-			System.out.println("compute efficient <LS order> [write <path>]");
+			System.out.println("debug   ic        <LS order> [bitset]        |");
+			System.out.println("debug   shuffle   <LS order> [bitset]        |");
+			System.out.println("draw    ic        <LS order> [bitset]        |");
+			System.out.println("draw    shuffle   <LS order> [bitset]        |");
+			System.out.println("compute ic        <LS order> [write <path> [text|binary]] [random <secure|splitmix|xoshiro|prefetch> [seed <seed>]] |");
+			System.out.println("compute bitset    <LS order> [write <path> [text|binary]] [random <secure|splitmix|xoshiro|prefetch> [seed <seed>]] |");
+			System.out.println("compute efficient <LS order> [write <path> [text|binary]] [random <secure|splitmix|xoshiro|prefetch> [seed <seed>]]");
+			System.out.println("                             [mixing <steps <moves>|cubes <multiplier>|time <millis>> [time <millis>]]");
 			System.out.println("----------------------------------------------");
 			System.out.println("Example 1: debug ic 25");
 			System.out.println("Example 2: compute efficient 256");
+			System.out.println("Example 3: compute efficient 256 random xoshiro seed 42");
+			System.out.println("Example 4: compute efficient 1000 mixing cubes 0.25 time 60000");
+			System.out.println("Example 5: draw shuffle 200 bitset");
+			System.out.println("(bitset stores the clear implementation in 2 bits per cell instead of an int)");
 			return;
 		}
 		
 		if (args[0].equalsIgnoreCase("debug")) {
 			boolean shuffle = args[1].equalsIgnoreCase("shuffle"); 
-			debugIncidenceCube(new Integer(args[2]), shuffle);
+			boolean bitset = (args.length>3 && args[3].equalsIgnoreCase("bitset"));
+			debugIncidenceCube(new Integer(args[2]), shuffle, bitset);
 			return;	
 		}
 		if (args[0].equalsIgnoreCase("debug") && args[1].equalsIgnoreCase("efficient")) {
@@ -74,30 +86,80 @@ public class JacoMattJar {
 		}
 		if (args[0].equalsIgnoreCase("draw")) {
 			boolean shuffle = args[1].equalsIgnoreCase("shuffle");
-			drawIncidenceCube(new Integer(args[2]), shuffle);
+			boolean bitset = (args.length>3 && args[3].equalsIgnoreCase("bitset"));
+			drawIncidenceCube(new Integer(args[2]), shuffle, bitset);
 			return;
 		}
 		String path = null;
-		if (args.length>3) {
-			if (args[3]!=null && args[3].equalsIgnoreCase("write")) {
-				if (args.length==5)
-					path = args[4];
-				else {
+		String format = FileUtils.TEXT;
+		String randomName = RandomUtils.SECURE;
+		Long seed = null;
+		MixingSchedule schedule = MixingSchedule.DEFAULT;
+		for (int a=3; a<args.length; a++) {//options, in any order
+			if (args[a].equalsIgnoreCase("write")) {
+				if (a+1>=args.length) {
 					System.out.println("Bad usage. The write option needs a path.");
 					return;
 				}
+				path = args[++a];
+				if (a+1<args.length && !args[a+1].equalsIgnoreCase("random") && !args[a+1].equalsIgnoreCase("mixing")) {//the format is optional
+					format = args[++a];
+					if (!FileUtils.isFormat(format)) {
+						System.out.println("Bad usage. Unknown format for the write option: "+format+". Valid formats: "+FileUtils.FORMATS.toLowerCase());
+						return;
+					}
+				}
+			} else if (args[a].equalsIgnoreCase("random")) {
+				if (a+1>=args.length) {
+					System.out.println("Bad usage. The random option needs secure, splitmix, xoshiro or prefetch.");
+					return;
+				}
+				randomName = args[++a];
+				if (a+2<args.length && args[a+1].equalsIgnoreCase("seed"))
+					seed = new Long(args[a+=2]);
+			} else if (args[a].equalsIgnoreCase("mixing")) {
+				if (a+2>=args.length) {
+					System.out.println("Bad usage. The mixing option needs steps <moves>, cubes <multiplier> or time <millis>.");
+					return;
+				}
+				try {
+					schedule = MixingSchedule.of(args[a+1], args[a+2]);
+					a += 2;
+					if (a+2<args.length && args[a+1].equalsIgnoreCase(MixingSchedule.TIME)) {
+						schedule = schedule.withTimeLimit(new Long(args[a+2]));
+						a += 2;
+					}
+				} catch (IllegalArgumentException e) {
+					System.out.println("Bad usage. "+e.getMessage());
+					return;
+				}
 			} else {
-				System.out.println("Bad usage. Parameter 4 must be 'write'.");
+				System.out.println("Bad usage. Unknown option: "+args[a]);
 				return;
 			}
 		}
-		if (args[0].equalsIgnoreCase("compute") && args[1].equalsIgnoreCase("ic")) {
-			computeICTime(new Integer(args[2]), path);
+		RandomSource random;
+		try {
+			random = RandomUtils.createSource(randomName, seed);
+		} catch (IllegalArgumentException e) {
+			System.out.println("Bad usage. "+e.getMessage());
 			return;
 		}
-		if (args[0].equalsIgnoreCase("compute") && args[1].equalsIgnoreCase("efficient")) {
-			computeICTimeForEfficientLS(new Integer(args[2]), path);
-			return;
+		try {
+			if (args[0].equalsIgnoreCase("compute") && args[1].equalsIgnoreCase("ic")) {
+				computeICTime(new IncidenceCube(new Integer(args[2])), path, format, random, schedule);
+				return;
+			}
+			if (args[0].equalsIgnoreCase("compute") && args[1].equalsIgnoreCase("bitset")) {
+				computeICTime(new BitsetIncidenceCube(new Integer(args[2])), path, format, random, schedule);
+				return;
+			}
+			if (args[0].equalsIgnoreCase("compute") && args[1].equalsIgnoreCase("efficient")) {
+				computeICTimeForEfficientLS(new Integer(args[2]), path, format, random, schedule);
+				return;
+			}
+		} finally {
+			random.close();//stops the background thread of the prefetch source
 		}
 		if (args[0].equalsIgnoreCase("compute") && args[1].equalsIgnoreCase("shuffle")) {
 			System.out.println("The option 'compute' already shuffles the result. Allowed options are 'compute ic <n>' or 'compute efficient <n>'.");
@@ -126,25 +188,25 @@ public class JacoMattJar {
 		System.out.println(random.nextInt(100));
 	}
 	
-	public static void debugIncidenceCube(int n, boolean shuffle) {
-		IncidenceCubeWithDebugging ic = new IncidenceCubeWithDebugging(n);
+	public static void debugIncidenceCube(int n, boolean shuffle, boolean bitset) {
+		IncidenceCubeWithDebugging ic = bitset ? new IncidenceCubeWithDebugging(n, new BitsetCubeStorage(n)) : new IncidenceCubeWithDebugging(n);
 		if (shuffle)
 			ic.shuffle();
 		ic.drawIncidenceCube();
 	}
 	
-	public static void drawIncidenceCube(int n, boolean shuffle) {
-		IncidenceCube ic = new IncidenceCube(n);
+	public static void drawIncidenceCube(int n, boolean shuffle, boolean bitset) {
+		IncidenceCube ic = bitset ? new BitsetIncidenceCube(n) : new IncidenceCube(n);
 		if (shuffle)
 			ic.shuffle();
 		ic.drawIncidenceCube();
 	}
 	
-	public static void computeICTime(int n, String path) {
+	public static void computeICTime(IncidenceCube ic, String path, String format, RandomSource random, MixingSchedule schedule) {
 		long startTime = System.nanoTime();
-		IncidenceCube ic = new IncidenceCube(n);
+		ic.setRandomSource(random);
 		
-		int i = ic.shuffle();
+		long i = ic.shuffle(schedule);
 		
 		
 		long endTime = System.nanoTime();
@@ -154,18 +216,20 @@ public class JacoMattJar {
 		
 		System.out.println(ic);
 		
-		FileUtils.writeLS(ic, path);
+		FileUtils.writeLS(ic, path, format);
 		
 		
-		System.out.println("LS generated in: "+secs+" seconds. Generation method: J&M clear implementation.");
-		System.out.println("Iterations: "+i);
+		System.out.println("LS generated in: "+secs+" seconds. Generation method: J&M clear implementation"+((ic instanceof BitsetIncidenceCube) ? " on bitsets." : "."));
+		System.out.println("Iterations: "+i+" (mixing: "+schedule+")");
+		System.out.println(ic.getMetrics());
 	}
 	
-	public static void computeICTimeForEfficientLS(int n, String path) {
+	public static void computeICTimeForEfficientLS(int n, String path, String format, RandomSource random, MixingSchedule schedule) {
 		long startTime = System.nanoTime();
 		EfficientIncidenceCube ic = new EfficientIncidenceCube(n);
+		ic.setRandomSource(random);
 		
-		int i = ic.shuffle();
+		long i = ic.shuffle(schedule);
 
 		long endTime = System.nanoTime();
 
@@ -175,10 +239,11 @@ public class JacoMattJar {
 		
 		System.out.println(ic);
 		
-		FileUtils.writeLS(ic, path);
+		FileUtils.writeLS(ic, path, format);
 		
 		System.out.println("LS generated in: "+secs+" seconds. Generation method: J&M efficient method.");
-		System.out.println("Iterations: "+i);
+		System.out.println("Iterations: "+i+" (mixing: "+schedule+")");
+		System.out.println(ic.getMetrics());
 	}
 	
 	public static void testIncidenceCubeToString() {
@@ -0,0 +1,170 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package jacomatt.main;
+
+import commons.utils.RandomSource;
+import commons.utils.RandomStreams;
+import jacomatt.model.ChainDiagnostics;
+import jacomatt.model.EfficientIncidenceCube;
+import jacomatt.model.MixingSchedule;
+import seqgen.model.generators.SeqGenWithReplGraph;
+
+/**
+ *  Runs some J&M chains of each order and measures how fast they mix, to choose the burn-in and the thinning from
+ *  data instead of the n^3 moves of the paper. Half of the chains start from the cyclic LS (as shuffle() does) and
+ *  half from a LS of the replacement graph, so they start far from each other.
+ *  The chains are sampled as jm-chain samples them: they walk blocks of interval moves, and record the observables
+ *  of ChainDiagnostics at the end of the first block where the cube is proper.
+ *  The recommended burn-in is the largest MSER truncation of all the chains and observables, and R-hat after it
+ *  checks that the chains agree. The thinning is the largest autocorrelation time after the burn-in, in blocks of
+ *  interval moves: jm-chain with that many moves per block gives LSs that are about independent (and uniform, since
+ *  it samples at fixed times).
+ *
+ * @author igallego
+ *
+ */
+public class MixingDiagnosticsJar {
+
+	public static final double DEFAULT_THRESHOLD = 1.01;
+
+	/** The entry main() method */
+	public static void main(String[] args) {
+		if (args.length<1) {
+			System.out.println("Usage: <LS order> [<LS order> ...] [chains <chains>] [samples <samples per chain>]");
+			System.out.println("                  [interval <moves>] [rhat <threshold>] [seed <seed>]");
+			System.out.println("       (by default: 4 chains of 1000 samples, one every n^2 moves, R-hat below "+DEFAULT_THRESHOLD+")");
+			System.out.println("Example 1: 10 20 50");
+			System.out.println("Example 2: 100 chains 8 samples 2000 interval 5000 seed 42");
+			return;
+		}
+		int orders = 0;
+		while (orders<args.length && args[orders].matches("[0-9]+"))
+			orders++;
+		int chains = 4;
+		int samples = 1000;
+		Long interval = null;
+		double threshold = DEFAULT_THRESHOLD;
+		RandomStreams streams = new RandomStreams();
+		for (int a=orders; a<args.length; a++) {//options, in any order
+			if (a+1>=args.length) {
+				System.out.println("Bad usage. The option "+args[a]+" needs a value.");
+				return;
+			}
+			if (args[a].equalsIgnoreCase("chains")) {
+				chains = new Integer(args[++a]);
+			} else if (args[a].equalsIgnoreCase("samples")) {
+				samples = new Integer(args[++a]);
+			} else if (args[a].equalsIgnoreCase("interval")) {
+				interval = new Long(args[++a]);
+			} else if (args[a].equalsIgnoreCase("rhat")) {
+				threshold = new Double(args[++a]);
+			} else if (args[a].equalsIgnoreCase("seed")) {
+				streams = new RandomStreams(new Long(args[++a]));
+			} else {
+				System.out.println("Bad usage. Unknown option: "+args[a]);
+				return;
+			}
+		}
+		if (orders==0 || chains<2 || samples<20 || (interval!=null && interval<1)) {
+			System.out.println("Bad usage. At least one order, 2 chains, 20 samples per chain and an interval of 1 move are needed.");
+			return;
+		}
+		System.out.println("Master seed: "+streams.getMasterSeed()+".");
+		for (int i=0; i<orders; i++) {
+			int n = new Integer(args[i]);
+			diagnose(n, chains, samples, (interval==null) ? (long)n*n : interval, threshold, streams);
+		}
+	}
+
+	/**
+	 * Runs the chains of order n and prints the statistics and the recommendations.
+	 *
+	 * @param n
+	 * @param chains
+	 * @param samples
+	 * @param interval
+	 * @param threshold
+	 * @param streams
+	 */
+	public static void diagnose(int n, int chains, int samples, long interval, double threshold, RandomStreams streams) {
+		int observables = ChainDiagnostics.OBSERVABLES.length;
+		double[][][] values = new double[observables][chains][samples];
+		double[] observed = new double[observables];
+		MixingSchedule schedule = MixingSchedule.steps(interval);
+		long moves = 0;
+		long startTime = System.nanoTime();
+
+		for (int c=0; c<chains; c++) {
+			RandomSource random = streams.stream(c);
+			EfficientIncidenceCube cube;
+			if (c%2==0) {
+				cube = new EfficientIncidenceCube(n);
+			} else {
+				SeqGenWithReplGraph graph = new SeqGenWithReplGraph(n);
+				graph.setRandomSource(random);
+				cube = new EfficientIncidenceCube(graph.generateLS());
+			}
+			cube.setRandomSource(random);
+			int[][] start = ChainDiagnostics.toArray(cube, null);
+			int[][] square = null;
+			for (int s=0; s<samples; s++) {
+				if (s>0) {
+					do {
+						moves += cube.walk(schedule);
+					} while (!cube.proper());
+				}
+				square = ChainDiagnostics.toArray(cube, square);
+				ChainDiagnostics.observe(square, start, observed);
+				for (int o=0; o<observables; o++)
+					values[o][c][s] = observed[o];
+			}
+		}
+		double secs = (System.nanoTime()-startTime)/1000000000d;
+		double movesPerSample = moves/(double)(chains*(samples-1));
+		double cube = Math.pow(n, 3);
+
+		//the end of the slowest transient
+		int from = 0;
+		for (int o=0; o<observables; o++)
+			for (int c=0; c<chains; c++)
+				from = Math.max(from, ChainDiagnostics.mserTruncation(values[o][c]));
+
+		System.out.println("");
+		System.out.println("Order "+n+": "+chains+" chains of "+samples+" samples, one every "+format(movesPerSample)+" moves ("+format(movesPerSample/cube)+" n^3), in "+format(secs)+" seconds.");
+		System.out.println(String.format("%-16s %10s %10s %10s %8s %8s %8s %8s", "observable", "mean", "tau", "ESS", "R-hat", "acf(1)", "acf(5)", "acf(10)"));
+		double maxTau = 0;
+		double maxRHat = 0;
+		for (int o=0; o<observables; o++) {
+			double tau = 0;
+			double mean = 0;
+			double[] acf = new double[11];
+			for (int c=0; c<chains; c++) {
+				tau += ChainDiagnostics.autocorrelationTime(values[o][c], from)/chains;
+				double[] acfOfChain = ChainDiagnostics.autocorrelation(values[o][c], from, 10);
+				for (int t=0; t<acf.length; t++)
+					acf[t] += acfOfChain[t]/chains;
+				for (int s=from; s<samples; s++)
+					mean += values[o][c][s]/(chains*(samples-from));
+			}
+			maxTau = Math.max(maxTau, tau);
+			maxRHat = Math.max(maxRHat, ChainDiagnostics.gelmanRubin(values[o], from));
+			System.out.println(String.format("%-16s %10.3f %10.2f %10.1f %8.4f %8.3f %8.3f %8.3f",
+					ChainDiagnostics.OBSERVABLES[o], mean, tau, ChainDiagnostics.effectiveSampleSize(values[o], from),
+					ChainDiagnostics.gelmanRubin(values[o], from), acf[1], acf[5], acf[10]));
+		}
+		long thinning = (long)Math.ceil(maxTau)*interval;//the block of jm-chain
+		long burnInMoves = (long)Math.ceil(from*movesPerSample);
+		if (maxRHat>=threshold || from>=samples/2) {
+			System.out.println("The chains have not mixed: R-hat is "+format(maxRHat)+" after "+burnInMoves+" moves (or the transient takes half the samples). Run longer chains (more samples or a larger interval).");
+		} else {
+			System.out.println("Recommended burn-in: "+burnInMoves+" moves ("+format(burnInMoves/cube)+" n^3). Recommended thinning: blocks of "+thinning+" moves ("+format(thinning/cube)+" n^3).");
+			System.out.println("For example: GeneratorJar jm-chain "+n+" MIXING STEPS "+Math.max(burnInMoves, 1)+" THINNING "+thinning+" (it samples at the ends of the blocks, uniformly)");
+		}
+	}
+
+	private static String format(double value) {
+		return String.format("%.3g", value);
+	}
+}
@@ -0,0 +1,19 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package jacomatt.model;
+
+/**
+ *  The clear implementation of the incidence cube on a {@link BitsetCubeStorage}: the same moves and drawing,
+ *  with 2 bits per cell instead of an int, so it stays usable for debugging and drawing at large orders.
+ *
+ * @author igallego
+ *
+ */
+public class BitsetIncidenceCube extends IncidenceCube {
+
+	public BitsetIncidenceCube(int n) {
+		super(n, new BitsetCubeStorage(n));
+	}
+}
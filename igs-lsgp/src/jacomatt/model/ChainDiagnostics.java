@@ -0,0 +1,226 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package jacomatt.model;
+
+import commons.model.latinsquares.ILatinSquare;
+
+/**
+ *  Statistics to tell when a J&M chain has mixed, from the values of some cheap observables of its LSs taken every
+ *  few moves: the autocorrelation along one chain, the effective sample size (how many independent LSs the samples
+ *  are worth) and Gelman and Rubin's potential scale reduction factor across chains that start from different LSs
+ *  (near 1 when every chain has forgotten its start), and the MSER rule to find the end of the initial transient.
+ *  The samples of each chain are arrays, and the statistics only use the ones from index "from" on, to discard a
+ *  burn-in.
+ *
+ * @author igallego
+ *
+ */
+public class ChainDiagnostics {
+
+	/**
+	 * Names of the observables computed by observe().
+	 */
+	public static final String[] OBSERVABLES = { "fixed cells", "intercalates", "symbol at (0,0)" };
+
+	/**
+	 * Copies the LS into a matrix, to compute the observables without going through the cube.
+	 *
+	 * @param ls
+	 * @param target a n*n matrix to reuse, or null
+	 * @return
+	 */
+	public static int[][] toArray(ILatinSquare ls, int[][] target) {
+		int n = ls.size();
+		if (target==null || target.length!=n)
+			target = new int[n][n];
+		for (int i=0; i<n; i++)
+			for (int j=0; j<n; j++)
+				target[i][j] = ls.get(i, j);
+		return target;
+	}
+
+	/**
+	 * Computes the observables of the square (in the order of OBSERVABLES) and stores them in values.
+	 *
+	 * @param square
+	 * @param start the square where the chain started
+	 * @param values
+	 */
+	public static void observe(int[][] square, int[][] start, double[] values) {
+		values[0] = fixedCells(square, start);
+		values[1] = intercalates(square);
+		values[2] = square[0][0];
+	}
+
+	/**
+	 * The cells with the same symbol as in start. A random LS keeps about n of them (one in n).
+	 *
+	 * @param square
+	 * @param start
+	 * @return
+	 */
+	public static int fixedCells(int[][] square, int[][] start) {
+		int count = 0;
+		for (int i=0; i<square.length; i++)
+			for (int j=0; j<square.length; j++)
+				if (square[i][j]==start[i][j])
+					count++;
+		return count;
+	}
+
+	/**
+	 * The 2x2 Latin subsquares, in O(n^3): for each pair of rows, the columns c and d form one when the symbol of
+	 *  the second row in c is the one of the first row in d, and vice versa (a 2-cycle of that map).
+	 *
+	 * @param square
+	 * @return
+	 */
+	public static int intercalates(int[][] square) {
+		int n = square.length;
+		int[] columnOf = new int[n];
+		int[] next = new int[n];
+		int count = 0;
+		for (int r1=0; r1<n; r1++) {
+			for (int c=0; c<n; c++)
+				columnOf[square[r1][c]] = c;
+			for (int r2=r1+1; r2<n; r2++) {
+				for (int c=0; c<n; c++)
+					next[c] = columnOf[square[r2][c]];
+				for (int c=0; c<n; c++)
+					if (c<next[c] && next[next[c]]==c)
+						count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * The autocorrelation of the samples from index from, for lags 0 to maxLag (0 when they are constant).
+	 *
+	 * @param x
+	 * @param from
+	 * @param maxLag
+	 * @return
+	 */
+	public static double[] autocorrelation(double[] x, int from, int maxLag) {
+		int length = x.length-from;
+		double[] result = new double[maxLag+1];
+		double mean = mean(x, from);
+		double c0 = covariance(x, from, mean, 0);
+		for (int t=0; t<=maxLag && t<length; t++)
+			result[t] = (c0==0) ? 0 : covariance(x, from, mean, t)/c0;
+		return result;
+	}
+
+	/**
+	 * The integrated autocorrelation time 1+2*sum(rho(t)), in samples, with Geyer's initial positive sequence: the
+	 *  sum stops at the first pair of lags whose autocorrelations add up to a non-positive number. It is 1 for
+	 *  independent samples.
+	 *
+	 * @param x
+	 * @param from
+	 * @return
+	 */
+	public static double autocorrelationTime(double[] x, int from) {
+		int length = x.length-from;
+		double mean = mean(x, from);
+		double c0 = covariance(x, from, mean, 0);
+		if (c0==0)
+			return 1;
+		double tau = -1;
+		for (int k=0; 2*k+1<length; k++) {
+			double pair = (covariance(x, from, mean, 2*k) + covariance(x, from, mean, 2*k+1))/c0;
+			if (pair<=0)
+				break;
+			tau += 2*pair;
+		}
+		return Math.max(tau, 1.0/length);//so that the ESS is at most length^2 for alternating samples
+	}
+
+	/**
+	 * The effective sample size of all the chains: the sum of length/tau of each one.
+	 *
+	 * @param chains
+	 * @param from
+	 * @return
+	 */
+	public static double effectiveSampleSize(double[][] chains, int from) {
+		double ess = 0;
+		for (int j=0; j<chains.length; j++)
+			ess += (chains[j].length-from)/autocorrelationTime(chains[j], from);
+		return ess;
+	}
+
+	/**
+	 * Gelman and Rubin's R-hat: sqrt of the pooled variance estimate over the mean variance within chains.
+	 *  It is 1 when all the chains sample the same distribution, and larger while they still depend on their start.
+	 *
+	 * @param chains at least two, of the same length
+	 * @param from
+	 * @return
+	 */
+	public static double gelmanRubin(double[][] chains, int from) {
+		int m = chains.length;
+		int length = chains[0].length-from;
+		double[] means = new double[m];
+		double grandMean = 0;
+		double within = 0;
+		for (int j=0; j<m; j++) {
+			means[j] = mean(chains[j], from);
+			grandMean += means[j]/m;
+			within += covariance(chains[j], from, means[j], 0)*length/(length-1)/m;
+		}
+		double between = 0;
+		for (int j=0; j<m; j++)
+			between += (means[j]-grandMean)*(means[j]-grandMean)*length/(m-1);
+		if (within==0)
+			return (between==0) ? 1 : Double.POSITIVE_INFINITY;
+		double pooled = within*(length-1)/length + between/length;
+		return Math.sqrt(pooled/within);
+	}
+
+	/**
+	 * The burn-in of the chain by the MSER rule (White's marginal standard error rule): the first d samples are
+	 *  discarded for the d in [0, length/2] that minimizes the squared standard error of the mean of the rest, sum((x-mean)^2)/(length-d)^2.
+	 *  Discarding a transient lowers the error a lot, while discarding stationary samples raises it. O(length) with suffix sums.
+	 *
+	 * @param x
+	 * @return
+	 */
+	public static int mserTruncation(double[] x) {
+		int length = x.length;
+		double sum = 0;
+		double squares = 0;
+		double best = Double.POSITIVE_INFINITY;
+		int truncation = 0;
+		for (int d=length-1; d>=0; d--) {//suffix sums from the end
+			sum += x[d];
+			squares += x[d]*x[d];
+			int rest = length-d;
+			if (d<=length/2) {
+				double error = (squares - sum*sum/rest)/((double)rest*rest);
+				if (error<=best) {
+					best = error;
+					truncation = d;
+				}
+			}
+		}
+		return truncation;
+	}
+
+	private static double mean(double[] x, int from) {
+		double sum = 0;
+		for (int i=from; i<x.length; i++)
+			sum += x[i];
+		return sum/(x.length-from);
+	}
+
+	private static double covariance(double[] x, int from, double mean, int lag) {
+		double sum = 0;
+		for (int i=from; i+lag<x.length; i++)
+			sum += (x[i]-mean)*(x[i+lag]-mean);
+		return sum/(x.length-from);
+	}
+}
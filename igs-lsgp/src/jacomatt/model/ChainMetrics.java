@@ -0,0 +1,233 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package jacomatt.model;
+
+/**
+ *  Counters of the walk of an incidence cube during {@link IncidenceCube#shuffle(MixingSchedule)}: the moves from
+ *  proper and improper cubes, the proper-to-improper transitions, the lengths of the improper excursions (the moves
+ *  from improper cubes until the cube is proper again, in a histogram of powers of two), the rejections of
+ *  select0Cell(), and the time.
+ *  One move in TIMING_INTERVAL is timed on its own, which gives the mean cost of a move from a proper cube (with the
+ *  rejection sampling of its 0 cell) and from an improper one, without calling the clock on every move.
+ *  When the proper moves cost much more than the improper ones and there are many rejections per selection, the
+ *  run is bound by the rejection sampling; when both cost about the same and grow with n, it is bound by memory.
+ *  The counters add up over the shuffles until reset(), and one instance can be shared by many cubes of the same
+ *  thread (see IncidenceCube.setMetrics()).
+ *
+ * @author igallego
+ *
+ */
+public class ChainMetrics {
+
+	/**
+	 * One move in this many is timed (a power of two).
+	 */
+	public static final int TIMING_INTERVAL = 256;
+
+	private static final int BUCKETS = 64;
+
+	private long shuffles;
+	private long properMoves;
+	private long improperMoves;
+	private long properToImproper;
+	private long excursions;
+	private long currentExcursion;
+	private long longestExcursion;
+	private long[] excursionLengths = new long[BUCKETS];//bucket k: lengths in [2^k, 2^(k+1))
+	private long rejections;
+	private long nanos;
+	private long timedProperMoves;
+	private long timedProperNanos;
+	private long timedImproperMoves;
+	private long timedImproperNanos;
+
+	/**
+	 * Counts a move done from a proper cube (wasProper) or an improper one, and whether the cube is proper after it.
+	 *
+	 * @param wasProper
+	 * @param isProper
+	 */
+	public void countMove(boolean wasProper, boolean isProper) {
+		if (wasProper) {
+			properMoves++;
+			if (!isProper) {
+				properToImproper++;
+				currentExcursion = 0;
+			}
+		} else {
+			improperMoves++;
+			currentExcursion++;
+			if (isProper) {
+				excursions++;
+				excursionLengths[63-Long.numberOfLeadingZeros(currentExcursion)]++;
+				if (currentExcursion>longestExcursion)
+					longestExcursion = currentExcursion;
+			}
+		}
+	}
+
+	/**
+	 * Adds the time of a single move.
+	 *
+	 * @param wasProper
+	 * @param moveNanos
+	 */
+	public void timeMove(boolean wasProper, long moveNanos) {
+		if (wasProper) {
+			timedProperMoves++;
+			timedProperNanos += moveNanos;
+		} else {
+			timedImproperMoves++;
+			timedImproperNanos += moveNanos;
+		}
+	}
+
+	/**
+	 * Counts a rejected cell in the selection of a 0 cell.
+	 */
+	public void countRejection() {
+		rejections++;
+	}
+
+	/**
+	 * Counts a whole shuffle and its time.
+	 *
+	 * @param shuffleNanos
+	 */
+	public void countShuffle(long shuffleNanos) {
+		shuffles++;
+		nanos += shuffleNanos;
+	}
+
+	/**
+	 * Adds the counters of other to these ones (to sum the metrics of many chains).
+	 *
+	 * @param other
+	 */
+	public void add(ChainMetrics other) {
+		shuffles += other.shuffles;
+		properMoves += other.properMoves;
+		improperMoves += other.improperMoves;
+		properToImproper += other.properToImproper;
+		excursions += other.excursions;
+		longestExcursion = Math.max(longestExcursion, other.longestExcursion);
+		for (int k=0; k<BUCKETS; k++)
+			excursionLengths[k] += other.excursionLengths[k];
+		rejections += other.rejections;
+		nanos += other.nanos;
+		timedProperMoves += other.timedProperMoves;
+		timedProperNanos += other.timedProperNanos;
+		timedImproperMoves += other.timedImproperMoves;
+		timedImproperNanos += other.timedImproperNanos;
+	}
+
+	public void reset() {
+		shuffles = properMoves = improperMoves = properToImproper = excursions = 0;
+		currentExcursion = longestExcursion = rejections = nanos = 0;
+		timedProperMoves = timedProperNanos = timedImproperMoves = timedImproperNanos = 0;
+		excursionLengths = new long[BUCKETS];
+	}
+
+	public long getShuffles() {
+		return shuffles;
+	}
+
+	public long getMoves() {
+		return properMoves+improperMoves;
+	}
+
+	public long getProperMoves() {
+		return properMoves;
+	}
+
+	public long getImproperMoves() {
+		return improperMoves;
+	}
+
+	public long getProperToImproperTransitions() {
+		return properToImproper;
+	}
+
+	/**
+	 * The finished improper excursions.
+	 *
+	 * @return
+	 */
+	public long getExcursions() {
+		return excursions;
+	}
+
+	public long getLongestExcursion() {
+		return longestExcursion;
+	}
+
+	/**
+	 * The number of improper excursions with length in [2^k, 2^(k+1)).
+	 *
+	 * @param k
+	 * @return
+	 */
+	public long getExcursionsOfLength(int k) {
+		return excursionLengths[k];
+	}
+
+	public double getMeanExcursion() {
+		return (excursions==0) ? 0 : improperMoves/(double)excursions;
+	}
+
+	public long getRejections() {
+		return rejections;
+	}
+
+	/**
+	 * The rejected cells per selected 0 cell (one per move from a proper cube).
+	 *
+	 * @return
+	 */
+	public double getRejectionsPerSelection() {
+		return (properMoves==0) ? 0 : rejections/(double)properMoves;
+	}
+
+	public long getNanos() {
+		return nanos;
+	}
+
+	public double getNanosPerMove() {
+		return (getMoves()==0) ? 0 : nanos/(double)getMoves();
+	}
+
+	/**
+	 * The mean time of the timed moves from proper cubes (including the selection of the 0 cell).
+	 *
+	 * @return
+	 */
+	public double getNanosPerProperMove() {
+		return (timedProperMoves==0) ? 0 : timedProperNanos/(double)timedProperMoves;
+	}
+
+	public double getNanosPerImproperMove() {
+		return (timedImproperMoves==0) ? 0 : timedImproperNanos/(double)timedImproperMoves;
+	}
+
+	/**
+	 * A few lines with all the counters, for the command line.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("Moves: "+getMoves()+" in "+shuffles+" shuffles ("+properMoves+" from proper cubes, "+improperMoves+" from improper ones), "
+				+String.format("%.1f", getNanosPerMove())+" ns per move.\n");
+		sb.append("Proper-to-improper transitions: "+properToImproper+". Improper excursions: "+excursions
+				+String.format(", %.2f", getMeanExcursion())+" moves on average, the longest of "+longestExcursion+".\n");
+		sb.append("Excursion lengths:");
+		for (int k=0; k<BUCKETS; k++)
+			if (excursionLengths[k]>0)
+				sb.append(" ["+(1L<<k)+","+((k<62) ? (1L<<(k+1)) : Long.MAX_VALUE)+"):"+excursionLengths[k]);
+		sb.append("\n");
+		sb.append("Rejections in the selection of the 0 cell: "+rejections+String.format(" (%.4f per selection).", getRejectionsPerSelection())+"\n");
+		sb.append(String.format("Sampled move cost: %.1f ns from proper cubes, %.1f ns from improper ones.", getNanosPerProperMove(), getNanosPerImproperMove()));
+		return sb.toString();
+	}
+}
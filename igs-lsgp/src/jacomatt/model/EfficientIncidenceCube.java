@@ -25,33 +25,47 @@
  */
 package jacomatt.model;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 
-import commons.model.OrderedTriple;
-import jacomatt.utils.ArrayUtils;
+import commons.model.latinsquares.ILatinSquare;
+import commons.model.latinsquares.PackedLatinSquare;
 import jacomatt.utils.DrawingOptions;
 
 /**
+ * An incidence cube that stores only its three two-dimensional views, so it takes O(n^2) memory.
+ *  Each line of a view (for example, all the z for a given (x,y)) holds at most 3 non-zero cells (-z, z, t),
+ *  packed into one long of three 21-bit slots: 0 is an empty slot, c+1 a "1" at coordinate c, and c+1 with
+ *  the NEGATIVE bit a "-1" at c. The lines of each view are contiguous in a long[n*n].
+ * 
  * @author Ignacio Gallego Sagastume
  * @email ignaciogallego@gmail.com
  * @tags Java Latin Square generation
  */
 
 public class EfficientIncidenceCube extends IncidenceCube {
-	private final int nullInt = -99999; //a number outside the scope of symbols
-	private final int minus0  = -10000;
-	//Each view is stored as a two-dimensional array, 
+	private static final int SLOTS = 3;//maximum of 3 elements in the row or column (-z, z, t)
+	private static final int SLOT_BITS = 21;
+	private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+	private static final long NEGATIVE = 1L << (SLOT_BITS - 1);
+	
+	//Each view is stored as a two-dimensional array of lines, 
 	//to avoid sequential searches for "1" elements along the cube
-	//the lists store all possible values of the third coordinate
-	private final int max = 3;
-	protected int[][][] xyMatrix = new int[n][n][max];//maximum of 3 elements in the row or column (-z, z, t)
-	protected int[][][] yzMatrix = new int[n][n][max];
-	protected int[][][] xzMatrix = new int[n][n][max];
+	//the lines store all possible values of the third coordinate
+	//(no initializers: super(n) already fills them through init(true))
+	protected long[] xyLines;//index x*n+y
+	protected long[] yzLines;//index y*n+z
+	protected long[] xzLines;//index x*n+z
 	
 	public EfficientIncidenceCube(int n) {
 		super(n);
-		this.init(true);
+	}
+	
+	/**
+	 * Constructs the (proper) cube of the given LS, so a chain can start from any LS instead of the cyclic one.
+	 * 
+	 * @param ls
+	 */
+	public EfficientIncidenceCube(ILatinSquare ls) {
+		super(ls);//init(false) and set() of every cell, both redefined here
 	}
 	
 	@Override
@@ -60,28 +74,17 @@ public class EfficientIncidenceCube extends IncidenceCube {
 	}
 	@Override
 	public void init(boolean cyclic) {
-		//initialize the md
-		try {
-			md = MessageDigest.getInstance("MD5");
-		} catch (NoSuchAlgorithmException e) {
-			System.out.println("No such algorithm: md5");
-		}
-		//initialize the ls as cyclic 
-		xyMatrix = new int[n][n][max];
-		yzMatrix = new int[n][n][max];
-		xzMatrix = new int[n][n][max];		
-		//first initialize the 2-dimensional arrays
-		for (int x=0; x<n; x++) {
-			for (int y=0; y<n; y++) {
-				for (int z=0; z<max; z++) {
-					xyMatrix[x][y][z] = nullInt;
-					yzMatrix[x][y][z] = nullInt;
-					xzMatrix[x][y][z] = nullInt;
-				}
-			}
-		}
+		if (n>PackedLatinSquare.MAX_ORDER)
+			throw new IllegalArgumentException("Order "+n+" is too large for an efficient incidence cube (max. "+PackedLatinSquare.MAX_ORDER+").");
+		this.invalidateHash();
+		//all lines empty
+		xyLines = new long[n*n];
+		yzLines = new long[n*n];
+		xzLines = new long[n*n];
 		
 		drawingOptions = new DrawingOptions();
+		if (zobrist!=null)
+			zobrist.clear();//the empty cube; every xyzStore() adds its key
 		if (cyclic) {
 			int lastSymbol = -1;
 			for (int i=0; i<n; i++) {//for all rows
@@ -94,74 +97,110 @@ public class EfficientIncidenceCube extends IncidenceCube {
 		}
 	}
 	
-	public int getEmptySpace(int[] arr) {
-		return ArrayUtils.indexOf(arr, nullInt);
-	}
-	
 	/**
 	 * Stores an 1 at position (x,y,z) in the incidence cube.
-	 *  This is done by 
+	 *  This is done by adding z, x and y to the three lines through the cell.
 	 * @param x
 	 * @param y
 	 * @param z
 	 */
 	protected void xyzStore(int x, int y, int z) {
-		this.add(xyMatrix[x][y], z);
-		this.add(yzMatrix[y][z], x);
-		this.add(xzMatrix[x][z], y);
+		if (zobrist!=null)
+			zobrist.toggle(x, y, z);
+		xyLines[x*n+y] = add(xyLines[x*n+y], z);
+		yzLines[y*n+z] = add(yzLines[y*n+z], x);
+		xzLines[x*n+z] = add(xzLines[x*n+z], y);
 	}
 	
-	private int add(int[] arr, int elem) {
-		int idx = ArrayUtils.indexOf(arr, minus(elem));//look for the negative element
-		if (idx>=0) { //if -element is found
-			arr[idx] = nullInt;//-elem+elem = 0
-			return idx;
-		} else {
-			idx = this.getEmptySpace(arr);//look for empty space for the new element
-			if (idx==-1) {//if full , fail
-				return -1;
-			} else {//add the new element
-				arr[idx] = elem;
-				return idx;//if successful, returns the index of the new element
-			}
+	protected void xyzRemove(int x, int y, int z) {
+		if (zobrist!=null)
+			zobrist.toggle(x, y, z);
+		xyLines[x*n+y] = remove(xyLines[x*n+y], z);
+		yzLines[y*n+z] = remove(yzLines[y*n+z], x);
+		xzLines[x*n+z] = remove(xzLines[x*n+z], y);
+	}
+	
+	/**
+	 * Adds 1 at coordinate c: a -c in the line cancels, otherwise c goes to the first empty slot.
+	 */
+	private static long add(long line, int c) {
+		long positive = c + 1;
+		int idx = slotOf(line, positive | NEGATIVE);//look for the negative element
+		if (idx<0) {
+			idx = slotOf(line, 0);//look for empty space for the new element
+			if (idx<0)//if full, fail
+				return line;
+			return line | (positive << (SLOT_BITS*idx));
 		}
+		return line & ~(SLOT_MASK << (SLOT_BITS*idx));//-elem+elem = 0
 	}
 	
-	private int remove(int[] arr, int elem) {
-		int idx = ArrayUtils.indexOf(arr, elem);//look for the element to remove
-		if (idx>=0) { // if element is found
-			arr[idx] = nullInt;
-			return idx;			
-		} else {//if elem is not found
-			idx = this.getEmptySpace(arr);
-			if (idx==-1) {//if full, fail
-				return -1;
-			} else {
-				arr[idx] = minus(elem);//add the negative
-				return idx;
+	/**
+	 * Subtracts 1 at coordinate c: a c in the line cancels, otherwise -c goes to the first empty slot.
+	 */
+	private static long remove(long line, int c) {
+		long positive = c + 1;
+		int idx = slotOf(line, positive);//look for the element to remove
+		if (idx<0) {
+			idx = slotOf(line, 0);
+			if (idx<0)//if full, fail
+				return line;
+			return line | ((positive | NEGATIVE) << (SLOT_BITS*idx));//add the negative
+		}
+		return line & ~(SLOT_MASK << (SLOT_BITS*idx));
+	}
+	
+	/**
+	 * The first slot of the line holding the value, or -1.
+	 */
+	private static int slotOf(long line, long value) {
+		if ((line & SLOT_MASK)==value)
+			return 0;
+		if (((line >>> SLOT_BITS) & SLOT_MASK)==value)
+			return 1;
+		if (((line >>> (2*SLOT_BITS)) & SLOT_MASK)==value)
+			return 2;
+		return -1;
+	}
+	
+	/**
+	 * The coordinate of the k-th "1" of the line (k=0 or 1), or -1 if there is none.
+	 */
+	private static int plusOne(long line, int k) {
+		for (int i=0; i<SLOTS; i++) {
+			long value = (line >>> (SLOT_BITS*i)) & SLOT_MASK;
+			if (value!=0 && (value & NEGATIVE)==0) {
+				if (k==0)
+					return (int)value - 1;
+				k--;
 			}
 		}
-		
+		return -1;
 	}
 	
-	protected void xyzRemove(int x, int y, int z) {
-		this.remove(xyMatrix[x][y], z);		
-		this.remove(yzMatrix[y][z], x);//if exists, removes
-		this.remove(xzMatrix[x][z], y);
+	/**
+	 * Puts a 1 at (row, column, value), like the clear implementation; used to build the cube from a LS.
+	 */
+	@Override
+	public void set(int row, int column, int value) {
+		this.invalidateHash();
+		if (this.coordOf(row, column, value)==0)
+			this.xyzStore(row, column, value);
 	}
 	
-	private int minus(int a) {
-		if (a==0)
-			return minus0;
-		else if (a==minus0) 
-				return 0;
-		else return (-a);
+	@Override
+	protected void clearCell(int x, int y, int z) {
+		this.invalidateHash();
+		this.xyzRemove(x, y, z);
 	}
+	
 	@Override
 	public int coordOf(int x , int y, int z) {
-		if (ArrayUtils.contains(xyMatrix[x][y], z)) {
+		long line = xyLines[x*n+y];
+		long positive = z + 1;
+		if (slotOf(line, positive)>=0) {
 			return 1;
-		} else if (ArrayUtils.contains(xyMatrix[x][y], minus(z))) {
+		} else if (slotOf(line, positive | NEGATIVE)>=0) {
 			return -1;
 		} else {
 			return 0;
@@ -170,159 +209,115 @@ public class EfficientIncidenceCube extends IncidenceCube {
 	
 	@Override
 	public int plusOneZCoordOf(int x, int y) {
-		int z = ArrayUtils.indexOfFirstPositiveElem(xyMatrix[x][y]);
-		if (z>=0)
-			return xyMatrix[x][y][z];
-		else
-			return -1;
+		return plusOne(xyLines[x*n+y], 0);
 	}
 	@Override
 	public int secondPlusOneZCoordOf(int x, int y) {
-		int z = ArrayUtils.indexOfSecondPositiveElem(xyMatrix[x][y]);
-		if (z>=0)
-			return xyMatrix[x][y][z];
-		else
-			return -1;
+		return plusOne(xyLines[x*n+y], 1);
 	}
 	
 	@Override
 	public int plusOneXCoordOf(int y, int z) {
-		int x = ArrayUtils.indexOfFirstPositiveElem(yzMatrix[y][z]);
-		if (x>=0)
-			return yzMatrix[y][z][x];
-		else
-			return -1;
+		return plusOne(yzLines[y*n+z], 0);
 	}
 	@Override
 	public int plusOneYCoordOf(int x, int z) {
-		int y = ArrayUtils.indexOfFirstPositiveElem(xzMatrix[x][z]);
-		if (y>=0)
-			return xzMatrix[x][z][y];
-		else
-			return -1;
+		return plusOne(xzLines[x*n+z], 0);
 	}
 	@Override
 	public int minusOneCoordOf(int x, int y) {
-		int z = ArrayUtils.indexOfFirstNegativeElem(xyMatrix[x][y], nullInt);
-		if (z>=0)
-			return xyMatrix[x][y][z];
-		else
-			return -1;
+		long line = xyLines[x*n+y];
+		for (int i=0; i<SLOTS; i++) {
+			long value = (line >>> (SLOT_BITS*i)) & SLOT_MASK;
+			if ((value & NEGATIVE)!=0)
+				return (int)(value & ~NEGATIVE) - 1;
+		}
+		return -1;
 	}
 	@Override
-	public void doPlusMinus1Move(OrderedTriple t, int x1, int y1, int z1) {
+	public void doPlusMinus1Move(int x, int y, int z, int x1, int y1, int z1) {
+		this.invalidateHash();
 		//changes in chosen sub-cube
 		//sum 1 to the selected "0" cell
-		this.xyzStore(t.x, t.y, t.z);
-		this.xyzStore(t.x, y1, z1);
-		this.xyzStore(x1, y1, t.z);
-		this.xyzStore(x1, t.y, z1);
+		this.xyzStore(x, y, z);
+		this.xyzStore(x, y1, z1);
+		this.xyzStore(x1, y1, z);
+		this.xyzStore(x1, y, z1);
 				
 		//subtract 1 to the "1" cell
-		this.xyzRemove(t.x, t.y, z1);
-		this.xyzRemove(t.x, y1, t.z);
-		this.xyzRemove(x1, t.y, t.z);
+		this.xyzRemove(x, y, z1);
+		this.xyzRemove(x, y1, z);
+		this.xyzRemove(x1, y, z);
 		this.xyzRemove(x1, y1, z1);
 	}
 	
 	@Override
 	public void moveFromProper() {
-		OrderedTriple t = this.select0Cell();
+		long t = this.select0Cell();
+		int x = cellX(t), y = cellY(t), z = cellZ(t);
 		
-		int x1 = this.plusOneXCoordOf(t.y, t.z);
-		int z1 = this.plusOneZCoordOf(t.x, t.y);
-		int y1 = this.plusOneYCoordOf(t.x, t.z);
+		int x1 = this.plusOneXCoordOf(y, z);
+		int z1 = this.plusOneZCoordOf(x, y);
+		int y1 = this.plusOneYCoordOf(x, z);
 		
-		this.doPlusMinus1Move(t, x1, y1, z1);
+		this.doPlusMinus1Move(x, y, z, x1, y1, z1);
 				
 		//check if improper
 		//(only one cell can be -1)
 		if (this.coordOf(x1, y1, z1)==-1) {
 			proper = false;
-			improperCell = new OrderedTriple(x1, y1, z1);
+			improperCell = packCell(x1, y1, z1);
 		}
 	}
 	
 	@Override
 	public void moveFromImproper() {
 		//get the improper cell:
-		OrderedTriple t = this.improperCell;
+		int x = cellX(improperCell), y = cellY(improperCell), z = cellZ(improperCell);
 		
-		int x1 = this.choosePlusOneXCoordOf(t.y, t.z);
-		int y1 = this.choosePlusOneYCoordOf(t.x, t.z);
-		int z1 = this.choosePlusOneZCoordOf(t.x, t.y);
+		int x1 = this.choosePlusOneXCoordOf(y, z);
+		int y1 = this.choosePlusOneYCoordOf(x, z);
+		int z1 = this.choosePlusOneZCoordOf(x, y);
 		
-		this.doPlusMinus1Move(t, x1, y1, z1);
+		this.doPlusMinus1Move(x, y, z, x1, y1, z1);
 		
 		//this is the only cell that can result -1
 		if (this.coordOf(x1, y1, z1)==-1) {
 			this.proper = false;
-			this.improperCell = new OrderedTriple(x1, y1, z1);
+			this.improperCell = packCell(x1, y1, z1);
 		} else {
 			proper = true;
-			improperCell = null;
+			improperCell = NO_CELL;
 		}
 		
 	}
 	
 	@Override
 	public int choosePlusOneZCoordOf(int x, int y) {
-		boolean takeFirst = (this.pickAnInt(2)==1);
-		int z = ArrayUtils.indexOfFirstPositiveElem(xyMatrix[x][y]);
-		if (z==-1)
-			return -1;
-		if (takeFirst)
-			return xyMatrix[x][y][z]; 
-		else {
-			z = ArrayUtils.indexOfFirstPositiveElemStartingAt(xyMatrix[x][y], z+1);
-			if (z==-1)
-				return -1;
-			return xyMatrix[x][y][z];
-		}
+		return plusOne(xyLines[x*n+y], this.pickABit() ? 0 : 1);
 	}
 	@Override
 	public int choosePlusOneXCoordOf(int y, int z) {
-		boolean takeFirst = (this.pickAnInt(2)==1);
-		int x = ArrayUtils.indexOfFirstPositiveElem(yzMatrix[y][z]);
-		if (x==-1)
-			return -1;
-		if (takeFirst)
-			return yzMatrix[y][z][x];
-		else {
-			x = ArrayUtils.indexOfFirstPositiveElemStartingAt(yzMatrix[y][z], x+1);
-			if (x==-1)
-				return -1;
-			return yzMatrix[y][z][x];
-		}
+		return plusOne(yzLines[y*n+z], this.pickABit() ? 0 : 1);
 	}
 	@Override
 	public int choosePlusOneYCoordOf(int x, int z) {
-		boolean takeFirst = (this.pickAnInt(2)==1);
-		int y = ArrayUtils.indexOfFirstPositiveElem(xzMatrix[x][z]);
-		if (y==-1)
-			return -1;
-		if (takeFirst)
-			return xzMatrix[x][z][y]; 
-		else {
-			y = ArrayUtils.indexOfFirstPositiveElemStartingAt(xzMatrix[x][z], y+1);
-			if (y==-1)
-				return -1;
-			return xzMatrix[x][z][y];
-		}
+		return plusOne(xzLines[x*n+z], this.pickABit() ? 0 : 1);
 	}
 
 	@Override
-	protected OrderedTriple select0Cell() {
+	protected long select0Cell() {
 		int x = this.pickAnInt(n);
 		int y = this.pickAnInt(n);
 		int z = this.pickAnInt(n);
 		
 		while (this.coordOf(x, y, z)!=0) {
+			metrics.countRejection();
 			x = this.pickAnInt(n);
 			y = this.pickAnInt(n);
 			z = this.pickAnInt(n);
 		}
-		return new OrderedTriple(x,y,z);
+		return packCell(x, y, z);
 	}
 	
 	public DrawingOptions getDrawingOptions() {
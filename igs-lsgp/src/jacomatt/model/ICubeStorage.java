@@ -0,0 +1,46 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package jacomatt.model;
+
+/**
+ *  The cells of an {@link IncidenceCube}: n^3 values in {-1, 0, 1}, with searches along each axis for the cells
+ *  holding a value. The cube does all its reads and writes through these methods, so the layout can be chosen
+ *  per cube (see {@link IntArrayCubeStorage} and {@link BitsetCubeStorage}).
+ *
+ * @author igallego
+ *
+ */
+public interface ICubeStorage {
+
+	/**
+	 * The value of cell (x,y,z).
+	 */
+	public int get(int x, int y, int z);
+
+	/**
+	 * Sets the value (-1, 0 or 1) of cell (x,y,z).
+	 */
+	public void set(int x, int y, int z, int value);
+
+	/**
+	 * Sets all the cells to 0.
+	 */
+	public void clear();
+
+	/**
+	 * The first z&gt;=from such that cell (x,y,z) holds value (1 or -1), or -1 if there is none.
+	 */
+	public int nextZ(int x, int y, int value, int from);
+
+	/**
+	 * The first x&gt;=from such that cell (x,y,z) holds value (1 or -1), or -1 if there is none.
+	 */
+	public int nextX(int y, int z, int value, int from);
+
+	/**
+	 * The first y&gt;=from such that cell (x,y,z) holds value (1 or -1), or -1 if there is none.
+	 */
+	public int nextY(int x, int z, int value, int from);
+}
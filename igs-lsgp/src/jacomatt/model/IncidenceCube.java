@@ -28,9 +28,7 @@ package jacomatt.model;
 import java.awt.Frame;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
+
 import java.util.List;
 
 import javax.media.opengl.awt.GLCanvas;
@@ -41,6 +39,10 @@ import com.jogamp.opengl.util.FPSAnimator;
 import commons.model.OrderedTriple;
 import commons.model.latinsquares.AbstractLatinSquare;
 import commons.model.latinsquares.ILatinSquare;
+import commons.model.latinsquares.OffHeapLatinSquare;
+import commons.model.latinsquares.PackedLatinSquare;
+import commons.utils.RandomSource;
+import commons.utils.SecureRandomSource;
 import jacomatt.opengl.DrawIncidenceCube;
 import jacomatt.utils.DrawingOptions;
 
@@ -50,19 +52,53 @@ import jacomatt.utils.DrawingOptions;
  * @tags Java Latin Square generation
  */
 public class IncidenceCube extends AbstractLatinSquare implements ILatinSquare {
-	protected int[][][] cube = {};//the incidence cube, each cell containing 0, 1, or -1 (for improper cubes)
+	protected ICubeStorage cube;//the incidence cube, each cell containing 0, 1, or -1 (for improper cubes)
 	protected DrawingOptions drawingOptions;
 	protected boolean proper = true; //it all starts from a proper (possibly cyclic) cube
-	protected OrderedTriple improperCell = null;
-	//protected Random random = new Random();
-	protected SecureRandom random = new SecureRandom();
+	protected long improperCell = NO_CELL;//the -1 cell of an improper cube, packed with packCell()
+	protected RandomSource random = new SecureRandomSource();
+	protected ChainMetrics metrics = new ChainMetrics();//counters of the shuffles
 	
+	public static final long NO_CELL = -1L;
+	private static final int CELL_BITS = 21;//enough for any order a cube fits in memory
+	private static final long CELL_MASK = (1L << CELL_BITS) - 1;
 	
-	protected MessageDigest md = null;
+	/**
+	 * Packs the coordinates of a cell into a long, so the moves of the shuffle do not allocate objects.
+	 * @param x
+	 * @param y
+	 * @param z
+	 * @return
+	 */
+	public static long packCell(int x, int y, int z) {
+		return ((long)x << (2*CELL_BITS)) | ((long)y << CELL_BITS) | z;
+	}
+	
+	public static int cellX(long cell) {
+		return (int)(cell >>> (2*CELL_BITS));
+	}
+	
+	public static int cellY(long cell) {
+		return (int)((cell >>> CELL_BITS) & CELL_MASK);
+	}
+	
+	public static int cellZ(long cell) {
+		return (int)(cell & CELL_MASK);
+	}
 	
 		
 	public IncidenceCube(int n) {
+		this(n, null);
+	}
+	
+	/**
+	 * Constructs the cyclic cube of order n with the given layout of cells (an int per cell if it is null).
+	 * @param n
+	 * @param storage
+	 */
+	public IncidenceCube(int n, ICubeStorage storage) {
 		super(n);
+		this.cube = storage;
 		this.init(true);
 	}
 	
@@ -73,9 +109,9 @@ public class IncidenceCube extends AbstractLatinSquare implements ILatinSquare {
 		//initalize with the ls values
 		for (int x=0; x<n; x++) {
 			for (int y=0; y<n; y++) {
-				int z = ls.getValueAt(x, y);
+				int z = ls.get(x, y);
 				
-				this.setValueAt(x, y, z);
+				this.set(x, y, z);
 			}
 		}
 	}
@@ -85,22 +121,14 @@ public class IncidenceCube extends AbstractLatinSquare implements ILatinSquare {
 	}
 	
 	public void init(boolean cyclic) {
-		//initialize the md
-		try {
-			md = MessageDigest.getInstance("MD5");
-		} catch (NoSuchAlgorithmException e) {
-			System.out.println("No such algorithm: md5");
-		}
+		this.invalidateHash();
 		//initialize the ls as cyclic 
-		cube = new int[n][n][n];
 		drawingOptions = new DrawingOptions();
 		//first put all 0s
-		for (int row=0; row<n; row++) {
-			for (int col=0; col<n; col++) {
-				for (int sym=0; sym<n; sym++)
-					cube[row][col][sym] = 0;
-			}
-		}
+		if (cube==null)
+			cube = new IntArrayCubeStorage(n);
+		else
+			cube.clear();
 		
 		if (cyclic) {
 			//initialize the cube with cyclic 1s
@@ -108,104 +136,91 @@ public class IncidenceCube extends AbstractLatinSquare implements ILatinSquare {
 			for (int i=0; i<n; i++) {//for all rows
 				lastSymbol = (lastSymbol + 1) % n;
 				for (int j=0; j<n; j++) {
-					cube[i][j][lastSymbol] = 1;
+					cube.set(i, j, lastSymbol, 1);
 					lastSymbol = (lastSymbol + 1) % n;
 				}
 			}
 		}
+		if (zobrist!=null)
+			this.recomputeZobrist();
 	}
 	
 	public int coordOf(int x , int y, int z) {
-		return cube[x][y][z];
+		return cube.get(x, y, z);
 	}
 	
 	public int plusOneZCoordOf(int x, int y) {
-		int z = 0;
-		while (cube[x][y][z]!=1) {
-			z++;
-			if (z==n) 
-				return -1;
-		}
-		return z;
+		return cube.nextZ(x, y, 1, 0);
 	}
 	
 	
 	public int secondPlusOneZCoordOf(int x, int y) {
-		int z = 0;
-		
-		while (cube[x][y][z]!=1) {
-			z++;
-			if (z==n) 
-				return -1;
-		}
-		z++;
-		while(cube[x][y][z]!=1) {
-			z++;
-			if (z==n) 
-				return -1;
-		}
-		return z;
+		int z = cube.nextZ(x, y, 1, 0);
+		if (z==-1) 
+			return -1;
+		return cube.nextZ(x, y, 1, z+1);
 	}
 	
 	
 	public int plusOneXCoordOf(int y, int z) {
-		int x = 0;
-		while (cube[x][y][z]!=1) {
-			x++;
-			if (x==n) 
-				return -1;
-		}
-		return x;
+		return cube.nextX(y, z, 1, 0);
 	}
 	
 	public int plusOneYCoordOf(int x, int z) {
-		int y = 0;
-		while (cube[x][y][z]!=1) {
-			y++;
-			if (y==n) 
-				return -1;
-		}
-		return y;
+		return cube.nextY(x, z, 1, 0);
 	}
 	
 	public int minusOneCoordOf(int x, int y) {
-		int sym = 0;
-		while (cube[x][y][sym]!=-1) {
-			sym++;
-			if (sym==n) {
-				return -1;
-			}
-		}
-		return sym;
+		return cube.nextZ(x, y, -1, 0);
+	}
+	
+	private void addToCell(int x, int y, int z, int delta) {
+		cube.set(x, y, z, cube.get(x, y, z) + delta);
 	}
 	
-	protected void doPlusMinus1Move(OrderedTriple t, int x1, int y1, int z1) {
-		cube[t.x][t.y][t.z]++; //sum 1 to the selected "0" cell
-		cube[t.x][y1][z1]++;
-		cube[x1][y1][t.z]++;
-		cube[x1][t.y][z1]++;
+	/**
+	 * The +-1 move on the sub-cube with opposite corners (x,y,z) (the selected or improper cell) and (x1,y1,z1).
+	 */
+	protected void doPlusMinus1Move(int x, int y, int z, int x1, int y1, int z1) {
+		this.invalidateHash();
+		this.addToCell(x, y, z, 1); //sum 1 to the selected "0" cell
+		this.addToCell(x, y1, z1, 1);
+		this.addToCell(x1, y1, z, 1);
+		this.addToCell(x1, y, z1, 1);
 		
-		cube[t.x][t.y][z1]--; //subtract 1 to the "1" cell	
-		cube[t.x][y1][t.z]--;
-		cube[x1][t.y][t.z]--;
-		cube[x1][y1][z1]--;
+		this.addToCell(x, y, z1, -1); //subtract 1 to the "1" cell	
+		this.addToCell(x, y1, z, -1);
+		this.addToCell(x1, y, z, -1);
+		this.addToCell(x1, y1, z1, -1);
+		
+		if (zobrist!=null) {//the 8 cells go from 0 to +-1 or back
+			zobrist.toggle(x, y, z);
+			zobrist.toggle(x, y1, z1);
+			zobrist.toggle(x1, y1, z);
+			zobrist.toggle(x1, y, z1);
+			zobrist.toggle(x, y, z1);
+			zobrist.toggle(x, y1, z);
+			zobrist.toggle(x1, y, z);
+			zobrist.toggle(x1, y1, z1);
+		}
 	}
 	
 	public void moveFromProper() {
-		OrderedTriple t = this.select0Cell();
+		long t = this.select0Cell();
+		int x = cellX(t), y = cellY(t), z = cellZ(t);
 		
-		int x1 = this.plusOneXCoordOf(t.y, t.z);
-		int z1 = this.plusOneZCoordOf(t.x, t.y);
-		int y1 = this.plusOneYCoordOf(t.x, t.z);
+		int x1 = this.plusOneXCoordOf(y, z);
+		int z1 = this.plusOneZCoordOf(x, y);
+		int y1 = this.plusOneYCoordOf(x, z);
 		
 		//changes in chosen sub-cube
-		this.doPlusMinus1Move(t, x1, y1, z1);
+		this.doPlusMinus1Move(x, y, z, x1, y1, z1);
 		
 		//check if improper
 		//(only one cell can be -1)
-		if (cube[x1][y1][z1]  ==-1) {
+		if (cube.get(x1, y1, z1)==-1) {
 			proper = false;
-			improperCell = new OrderedTriple(x1, y1, z1);
+			improperCell = packCell(x1, y1, z1);
 		}
 	}
 	
@@ -218,110 +233,117 @@ public class IncidenceCube extends AbstractLatinSquare implements ILatinSquare {
 		return random.nextInt(n); 
 	}
 	
+	/**
+	 * Chooses one of two options (a single bit with a bit-buffered source).
+	 * @return
+	 */
+	public boolean pickABit() {
+		return random.nextBoolean();
+	}
+	
+	/**
+	 * Sets the source of the random moves (a {@link SecureRandomSource} by default).
+	 * @param random
+	 */
+	public void setRandomSource(RandomSource random) {
+		this.random = random;
+	}
+	
+	public RandomSource getRandomSource() {
+		return random;
+	}
+	
+	/**
+	 * The counters of the shuffles of this cube (see {@link ChainMetrics}).
+	 * 
+	 * @return
+	 */
+	public ChainMetrics getMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * Makes the cube count its shuffles in metrics, to add up the walks of many cubes in the same counters.
+	 * 
+	 * @param metrics
+	 */
+	public void setMetrics(ChainMetrics metrics) {
+		this.metrics = metrics;
+	}
+	
 	public void moveFromImproper() {
 		//get the improper cell:
-		OrderedTriple t = this.improperCell;
+		int x = cellX(improperCell), y = cellY(improperCell), z = cellZ(improperCell);
 		
-		int x1 = this.choosePlusOneXCoordOf(t.y, t.z);
-		int y1 = this.choosePlusOneYCoordOf(t.x, t.z);
-		int z1 = this.choosePlusOneZCoordOf(t.x, t.y);
+		int x1 = this.choosePlusOneXCoordOf(y, z);
+		int y1 = this.choosePlusOneYCoordOf(x, z);
+		int z1 = this.choosePlusOneZCoordOf(x, y);
 		
 		//changes in chosen sub-cube
-		this.doPlusMinus1Move(t, x1, y1, z1);
+		this.doPlusMinus1Move(x, y, z, x1, y1, z1);
 
 		//this is the only cell that can result -1
-		if (cube[x1][y1][z1]==-1) {
+		if (cube.get(x1, y1, z1)==-1) {
 			this.proper = false;
-			this.improperCell = new OrderedTriple(x1, y1, z1);
+			this.improperCell = packCell(x1, y1, z1);
 		} else {
 			proper = true;
-			improperCell = null;
+			improperCell = NO_CELL;
 		}
 		
 	}
 	
 	public int choosePlusOneZCoordOf(int x, int y) {
-		int z = 0;
-		boolean takeFirst = (this.pickAnInt(2)==1);
-		
-		while (cube[x][y][z]!=1) {
-			z++;
-			if (z==n) 
-				return -1;
-		}
-		
-		if (takeFirst)
-			return z;
-		else {
-			z++;
-			while(cube[x][y][z]!=1) {
-				z++;
-				if (z==n) 
-					return -1;
-			}
-			return z;
-		}
+		boolean takeFirst = this.pickABit();
+		int c = cube.nextZ(x, y, 1, 0);
+		if (c==-1 || takeFirst)
+			return c;
+		return cube.nextZ(x, y, 1, c+1);
 	}
 	
 	public int choosePlusOneXCoordOf(int y, int z) {
-		int x = 0;
-		boolean takeFirst = (this.pickAnInt(2)==1);
-		
-		while (cube[x][y][z]!=1) {
-			x++;
-			if (x==n) 
-				return -1;
-		}
-		
-		if (takeFirst)
-			return x;
-		else {
-			x++;
-			while(cube[x][y][z]!=1) {
-				x++;
-				if (x==n) 
-					return -1;
-			}
-			return x;
-		}
+		boolean takeFirst = this.pickABit();
+		int c = cube.nextX(y, z, 1, 0);
+		if (c==-1 || takeFirst)
+			return c;
+		return cube.nextX(y, z, 1, c+1);
 	}
 	
 	public int choosePlusOneYCoordOf(int x, int z) {
-		int y = 0;
-		boolean takeFirst = (this.pickAnInt(2)==1);
-		
-		while (cube[x][y][z]!=1) {
-			y++;
-			if (y==n) 
-				return -1;
-		}
-		
-		if (takeFirst)
-			return y;
-		else {
-			y++;
-			while(cube[x][y][z]!=1) {
-				y++;
-				if (y==n) 
-					return -1;
-			}
-			return y;
-		}
-			
+		boolean takeFirst = this.pickABit();
+		int c = cube.nextY(x, z, 1, 0);
+		if (c==-1 || takeFirst)
+			return c;
+		return cube.nextY(x, z, 1, c+1);
 	}
 
 	
-	protected OrderedTriple select0Cell() {
+	/**
+	 * Chooses a "0" cell at random.
+	 * @return the cell, packed with packCell()
+	 */
+	protected long select0Cell() {
 		int x = this.pickAnInt(n);
 		int y = this.pickAnInt(n);
 		int z = this.pickAnInt(n);
 		
-		while (cube[x][y][z]!=0) {
+		while (cube.get(x, y, z)!=0) {
+			metrics.countRejection();
 			x = this.pickAnInt(n);
 			y = this.pickAnInt(n);
 			z = this.pickAnInt(n);
 		}
-		return new OrderedTriple(x,y,z);
+		return packCell(x, y, z);
+	}
+	
+	/**
+	 * The -1 cell of an improper cube (null if the cube is proper).
+	 * @return
+	 */
+	public OrderedTriple getImproperCell() {
+		if (proper)
+			return null;
+		return new OrderedTriple(cellX(improperCell), cellY(improperCell), cellZ(improperCell));
 	}
 	
 	/**
@@ -387,9 +409,9 @@ public class IncidenceCube extends AbstractLatinSquare implements ILatinSquare {
 		for (int x=0; x<n ; x++) {
 			for (int y=0; y<n ; y++) {
 				try {
-					Integer elem = this.getValueAt(x, y);
+					String elem = Integer.toString(this.get(x, y));
 					sb.append(elem); 
-					sb.append("    ".substring(elem.toString().length()));
+					sb.append("    ".substring(elem.length()));
 					
 				} catch (Exception e) {
 					sb.append("--  ");
@@ -406,6 +428,41 @@ public class IncidenceCube extends AbstractLatinSquare implements ILatinSquare {
 		return this.proper;
 	}
 	
+	/**
+	 * Copies the LS represented by this (proper) cube into a compact LS, so the cube can be discarded or moved on.
+	 *  Orders too large for a packed LS are copied off the heap.
+	 * 
+	 * @return ILatinSquare
+	 */
+	public ILatinSquare snapshot() {
+		int n = this.size();
+		ILatinSquare target;
+		if (n>PackedLatinSquare.MAX_ORDER)
+			target = new OffHeapLatinSquare(n);
+		else
+			target = new PackedLatinSquare(n);
+		return this.snapshot(target);
+	}
+	
+	/**
+	 * Copies the LS represented by this (proper) cube into target, which must be of the same order
+	 *  (for example a file-backed OffHeapLatinSquare).
+	 * 
+	 * @param target
+	 * @return the target
+	 */
+	public ILatinSquare snapshot(ILatinSquare target) {
+		if (!this.proper())
+			throw new IllegalStateException("An improper incidence cube does not represent a LS.");
+		int n = this.size();
+		for (int x=0; x<n; x++) {
+			for (int y=0; y<n; y++) {
+				target.set(x, y, this.plusOneZCoordOf(x, y));
+			}
+		}
+		return target;
+	}
+	
 	/**
 	 * Mixes the initial ls into a ic uniformly distributed, doing at least (n^3)/8 iterations,
 	 * so each element has a chance to be moved (see Brown). 
@@ -414,19 +471,73 @@ public class IncidenceCube extends AbstractLatinSquare implements ILatinSquare {
 	 * @return int , the number of iterations that took to get a proper ic
 	 */
 	public int shuffle() {
-		int iterations;
-		for (iterations=0; (iterations<Math.pow((double)this.size(), (double)3))
+		return (int)this.shuffle(MixingSchedule.DEFAULT);
+	}
+	
+	/**
+	 * Mixes the cube with the budget of moves of the schedule, and then up to the first proper cube.
+	 *  If the schedule has a time limit, the budget ends when the time is over (checked every 1024 moves).
+	 * 
+	 * @param schedule
+	 * @return long , the number of iterations that took to get a proper ic
+	 */
+	public long shuffle(MixingSchedule schedule) {
+		long budget = schedule.stepsFor(this.size());
+		long startTime = System.nanoTime();
+		long deadline = startTime + schedule.getTimeLimitMillis()*1000000L;
+		boolean timed = schedule.getTimeLimitMillis()>0;
+		long iterations;
+		for (iterations=0; (iterations<budget)
 							|| !this.proper(); 
 			iterations++) {
-			if (this.proper()) {
-				this.moveFromProper();
-			} else {
-				this.moveFromImproper();
-			}
+			this.move(iterations);
+			if (timed && (iterations & 1023)==0 && iterations<budget && System.nanoTime()-deadline>=0)
+				budget = iterations;//the time is over: stop at the next proper cube
+		}
+		metrics.countShuffle(System.nanoTime()-startTime);
+		return iterations;
+	}
+
+	/**
+	 * Does exactly the budget of moves of the schedule (fewer if its time limit ends first), without going on to a
+	 *  proper cube, so the cube may end improper. Taking the cube only when it is proper at the end of a walk samples
+	 *  the chain at fixed times, which gives uniform LSs; the first proper cube after a budget (as in shuffle) does not.
+	 *  The moves are counted in the metrics, but not as a shuffle.
+	 * 
+	 * @param schedule
+	 * @return long , the number of moves done
+	 */
+	public long walk(MixingSchedule schedule) {
+		long budget = schedule.stepsFor(this.size());
+		long deadline = System.nanoTime() + schedule.getTimeLimitMillis()*1000000L;
+		boolean timed = schedule.getTimeLimitMillis()>0;
+		long iterations;
+		for (iterations=0; iterations<budget; iterations++) {
+			this.move(iterations);
+			if (timed && (iterations & 1023)==0 && System.nanoTime()-deadline>=0)
+				return iterations+1;
 		}
 		return iterations;
 	}
 
+	/**
+	 * One move of the chain (from a proper or an improper cube), counted in the metrics; the iteration decides
+	 *  whether it is timed.
+	 */
+	private void move(long iteration) {
+		boolean wasProper = this.proper();
+		boolean timedMove = (iteration & (ChainMetrics.TIMING_INTERVAL-1))==0;
+		long moveStart = timedMove ? System.nanoTime() : 0;
+		if (wasProper) {
+			this.moveFromProper();
+		} else {
+			this.moveFromImproper();
+		}
+		if (timedMove)
+			metrics.timeMove(wasProper, System.nanoTime()-moveStart);
+		metrics.countMove(wasProper, this.proper());
+	}
+
 	public DrawingOptions getDrawingOptions() {
 		return drawingOptions;
 	}
@@ -483,18 +594,68 @@ public class IncidenceCube extends AbstractLatinSquare implements ILatinSquare {
 	}
 
 	@Override
-	public Integer getValueAt(int row, int column) {
+	public int get(int row, int column) {
 		return this.plusOneZCoordOf(row, column);
 	}
 
 	@Override
-	public void setValueAt(int row, int column, int value) {
-		this.cube[row][column][value] = 1;		
+	public void set(int row, int column, int value) {
+		this.invalidateHash();
+		if (zobrist!=null && this.coordOf(row, column, value)==0)
+			zobrist.toggle(row, column, value);
+		cube.set(row, column, value, 1);		
+	}
+	
+	/**
+	 * The Zobrist hash of a cube is the XOR of the keys of its non-zero cells,
+	 *  so for a proper cube it is the same as the one of the LS it represents.
+	 */
+	@Override
+	protected void recomputeZobrist() {
+		zobrist.clear();
+		for (int x=0; x<n; x++) {
+			for (int y=0; y<n; y++) {
+				for (int z=0; z<n; z++) {
+					if (this.coordOf(x, y, z)!=0)
+						zobrist.toggle(x, y, z);
+				}
+			}
+		}
 	}
 	
 	@Override
 	public void setRow(int i, List<Integer> row) {
-		//not implemented yet
+		int[] symbols = new int[n];
+		for (int j=0; j<n; j++)
+			symbols[j] = row.get(j);
+		this.setRow(i, symbols);
+	}
+	
+	/**
+	 * Replaces the symbols of row i of a proper cube: the 1 cell of each (i,j) is cleared before setting the new one.
+	 */
+	@Override
+	public void setRow(int i, int[] row) {
+		for (int j=0; j<n; j++) {
+			int old = this.plusOneZCoordOf(i, j);
+			if (old!=-1 && old!=row[j])
+				this.clearCell(i, j, old);
+			this.set(i, j, row[j]);
+		}
+	}
+	
+	/**
+	 * Puts a 0 in the cell (x,y,z), which holds a 1.
+	 * 
+	 * @param x
+	 * @param y
+	 * @param z
+	 */
+	protected void clearCell(int x, int y, int z) {
+		this.invalidateHash();
+		if (zobrist!=null)
+			zobrist.toggle(x, y, z);
+		cube.set(x, y, z, 0);
 	}
 }
 
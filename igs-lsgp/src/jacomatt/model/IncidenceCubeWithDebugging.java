@@ -58,10 +58,15 @@ public class IncidenceCubeWithDebugging extends IncidenceCube {
 		super(n);
 	}
 	
+	public IncidenceCubeWithDebugging(int n, ICubeStorage storage) {
+		super(n, storage);
+	}
+	
 	public void moveFromProperStep1() {
 		selectedCells = new ArrayList<OrderedTriple>();
 		
-		t = this.select0Cell();
+		long cell = this.select0Cell();
+		t = new OrderedTriple(cellX(cell), cellY(cell), cellZ(cell));
 		
 		x1 = this.plusOneXCoordOf(t.y, t.z);
 		z1 = this.plusOneZCoordOf(t.x, t.y);
@@ -87,21 +92,13 @@ public class IncidenceCubeWithDebugging extends IncidenceCube {
 	
 	public void moveFromProperStep2() {
 		//changes in chosen sub-cube
-		cube[t.x][t.y][t.z]++; //sum 1 to the selected "0" cell
-		cube[t.x][y1][z1]++;
-		cube[x1][y1][t.z]++;
-		cube[x1][t.y][z1]++;
-		
-		cube[t.x][t.y][z1]--; //subtract 1 to the "1" cell	
-		cube[t.x][y1][t.z]--;
-		cube[x1][t.y][t.z]--;
-		cube[x1][y1][z1]--;
+		this.doPlusMinus1Move(t.x, t.y, t.z, x1, y1, z1);
 		
 		//check if improper
 		//(only one cell can be -1)
-		if (cube[x1][y1][z1] == -1) {
+		if (this.coordOf(x1, y1, z1) == -1) {
 			proper = false;
-			improperCell = new OrderedTriple(x1, y1, z1);
+			improperCell = packCell(x1, y1, z1);
 		}
 		if (proper) 
 			state = 0;//return to initial state
@@ -115,7 +112,7 @@ public class IncidenceCubeWithDebugging extends IncidenceCube {
 	
 	public void moveFromImproperStep3() {
 		//get the improper cell:
-		t = this.improperCell;
+		t = this.getImproperCell();
 		
 		x1 = this.choosePlusOneXCoordOf(t.y, t.z);
 		y1 = this.choosePlusOneYCoordOf(t.x, t.z);
@@ -129,23 +126,15 @@ public class IncidenceCubeWithDebugging extends IncidenceCube {
 		selectedCells = new ArrayList<OrderedTriple>();
 		
 		//changes in chosen sub-cube
-		cube[t.x][t.y][t.z]++; //sum 1 to the selected "0" cell
-		cube[t.x][y1][z1]++;
-		cube[x1][y1][t.z]++;
-		cube[x1][t.y][z1]++;
-		
-		cube[t.x][t.y][z1]--; //subtract 1 to the "1" cell	
-		cube[t.x][y1][t.z]--;
-		cube[x1][t.y][t.z]--;
-		cube[x1][y1][z1]--;
+		this.doPlusMinus1Move(t.x, t.y, t.z, x1, y1, z1);
 
 		//this is the only cell that can result -1
-		if (cube[x1][y1][z1]==-1) {
+		if (this.coordOf(x1, y1, z1)==-1) {
 			this.proper = false;
-			this.improperCell = new OrderedTriple(x1, y1, z1);
+			this.improperCell = packCell(x1, y1, z1);
 		} else {
 			proper = true;
-			improperCell = null;
+			improperCell = NO_CELL;
 		}
 		
 		if (proper) {
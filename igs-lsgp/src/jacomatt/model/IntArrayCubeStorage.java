@@ -0,0 +1,71 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package jacomatt.model;
+
+/**
+ *  The original layout of the clear implementation: one int per cell in an int[n][n][n], with linear searches.
+ *
+ * @author igallego
+ *
+ */
+public class IntArrayCubeStorage implements ICubeStorage {
+
+	private int n;
+	private int[][][] cube;
+
+	public IntArrayCubeStorage(int n) {
+		this.n = n;
+		this.cube = new int[n][n][n];
+	}
+
+	@Override
+	public int get(int x, int y, int z) {
+		return cube[x][y][z];
+	}
+
+	@Override
+	public void set(int x, int y, int z, int value) {
+		cube[x][y][z] = value;
+	}
+
+	@Override
+	public void clear() {
+		for (int x=0; x<n; x++) {
+			for (int y=0; y<n; y++) {
+				for (int z=0; z<n; z++)
+					cube[x][y][z] = 0;
+			}
+		}
+	}
+
+	@Override
+	public int nextZ(int x, int y, int value, int from) {
+		int[] line = cube[x][y];
+		for (int z=from; z<n; z++) {
+			if (line[z]==value)
+				return z;
+		}
+		return -1;
+	}
+
+	@Override
+	public int nextX(int y, int z, int value, int from) {
+		for (int x=from; x<n; x++) {
+			if (cube[x][y][z]==value)
+				return x;
+		}
+		return -1;
+	}
+
+	@Override
+	public int nextY(int x, int z, int value, int from) {
+		int[][] plane = cube[x];
+		for (int y=from; y<n; y++) {
+			if (plane[y][z]==value)
+				return y;
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,130 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package jacomatt.model;
+
+/**
+ *  How long {@link IncidenceCube#shuffle(MixingSchedule)} mixes the cube: a number of moves, given directly or as a
+ *  multiplier of n^3, and optionally a time limit that ends the mixing earlier. An improper cube does not represent
+ *  a LS, so when the budget is spent the shuffle still goes on to the first proper cube.
+ *
+ * @author igallego
+ *
+ */
+public class MixingSchedule {
+
+	//kinds of budget, for the command line
+	public static final String STEPS = "steps";
+	public static final String CUBES = "cubes";
+	public static final String TIME = "time";
+
+	/**
+	 * n^3 moves, as in Jacobson and Matthews' paper (the behaviour of shuffle()).
+	 */
+	public static final MixingSchedule DEFAULT = cubes(1.0);
+
+	private long steps;//-1 when given as a multiplier
+	private double multiplier;
+	private long timeLimitMillis;//0 for no limit
+
+	private MixingSchedule(long steps, double multiplier, long timeLimitMillis) {
+		this.steps = steps;
+		this.multiplier = multiplier;
+		this.timeLimitMillis = timeLimitMillis;
+	}
+
+	/**
+	 * Exactly steps moves (plus the ones needed to reach a proper cube).
+	 *
+	 * @param steps
+	 * @return
+	 */
+	public static MixingSchedule steps(long steps) {
+		if (steps<0)
+			throw new IllegalArgumentException("The number of steps cannot be negative: "+steps);
+		return new MixingSchedule(steps, 0, 0);
+	}
+
+	/**
+	 * multiplier*n^3 moves.
+	 *
+	 * @param multiplier
+	 * @return
+	 */
+	public static MixingSchedule cubes(double multiplier) {
+		if (!(multiplier>=0))
+			throw new IllegalArgumentException("The multiplier of n^3 cannot be negative: "+multiplier);
+		return new MixingSchedule(-1, multiplier, 0);
+	}
+
+	/**
+	 * As many moves as fit in the given time.
+	 *
+	 * @param millis
+	 * @return
+	 */
+	public static MixingSchedule time(long millis) {
+		return steps(Long.MAX_VALUE).withTimeLimit(millis);
+	}
+
+	/**
+	 * The schedule with the given kind (steps, cubes or time) and value, as written in the command line.
+	 *
+	 * @param kind
+	 * @param value
+	 * @return
+	 */
+	public static MixingSchedule of(String kind, String value) {
+		if (kind.equalsIgnoreCase(STEPS))
+			return steps(Long.parseLong(value));
+		if (kind.equalsIgnoreCase(CUBES))
+			return cubes(Double.parseDouble(value));
+		if (kind.equalsIgnoreCase(TIME))
+			return time(Long.parseLong(value));
+		throw new IllegalArgumentException("Unknown mixing budget: "+kind);
+	}
+
+	/**
+	 * The same budget of moves, but stopping (at the next proper cube) after millis milliseconds.
+	 *
+	 * @param millis
+	 * @return
+	 */
+	public MixingSchedule withTimeLimit(long millis) {
+		if (millis<=0)
+			throw new IllegalArgumentException("The time limit must be positive: "+millis);
+		return new MixingSchedule(steps, multiplier, millis);
+	}
+
+	/**
+	 * The budget of moves for a cube of order n.
+	 *
+	 * @param n
+	 * @return
+	 */
+	public long stepsFor(int n) {
+		if (steps>=0)
+			return steps;
+		double moves = Math.ceil(multiplier * n * n * n);
+		return (moves>=Long.MAX_VALUE) ? Long.MAX_VALUE : (long)moves;
+	}
+
+	public long getTimeLimitMillis() {
+		return timeLimitMillis;
+	}
+
+	@Override
+	public String toString() {
+		String budget;
+		if (steps==Long.MAX_VALUE)
+			budget = "unbounded moves";
+		else if (steps>=0)
+			budget = steps+" moves";
+		else
+			budget = multiplier+" x n^3 moves";
+		if (timeLimitMillis>0)
+			budget += ", at most "+timeLimitMillis+" ms";
+		return budget;
+	}
+}
@@ -0,0 +1,103 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package jacomatt.model.generators;
+
+import commons.generators.IRandomLatinSquareGenerator;
+import commons.model.latinsquares.ILatinSquare;
+import commons.utils.RandomSource;
+import commons.utils.SecureRandomSource;
+import jacomatt.model.ChainMetrics;
+import jacomatt.model.EfficientIncidenceCube;
+import jacomatt.model.MixingSchedule;
+
+/**
+ *  A warm-started Jacobson and Matthews' method: a fast (but biased) generator, such as the replacement graph or
+ *  Koscielny's product, gives the starting LS, and a short J&M chain (n^3/8 moves by default, the least that gives
+ *  every cell a chance to move) removes most of the bias of the start. Whether the chain is long enough for a given
+ *  order has to be checked with the uniformity tests (see commons.test.HybridUniformityBenchmark).
+ *  The chain stops at the first proper cube after its moves, as {@link JacobsonMatthewsLSGenerator} does, so it keeps
+ *  the bias of that stopping rule, which is not small at low orders (chi2/df about 52 at order 4).
+ *
+ * @author igallego
+ *
+ */
+public class HybridJacobsonMatthewsGenerator implements IRandomLatinSquareGenerator {
+
+	public static final double DEFAULT_MULTIPLIER = 1.0/8.0;
+
+	private IRandomLatinSquareGenerator start;
+	private RandomSource random = new SecureRandomSource();
+	private MixingSchedule schedule = MixingSchedule.cubes(DEFAULT_MULTIPLIER);
+	private long lastMoves = 0;
+	private ChainMetrics metrics = new ChainMetrics();
+
+	/**
+	 * Constructs the generator that mixes the LSs of start.
+	 *
+	 * @param start
+	 */
+	public HybridJacobsonMatthewsGenerator(IRandomLatinSquareGenerator start) {
+		this.start = start;
+	}
+
+	@Override
+	public String getMethodName() {
+		return "J&M warm-started from: "+start.getMethodName();
+	}
+
+	@Override
+	public ILatinSquare generateLS() {
+		EfficientIncidenceCube cube = new EfficientIncidenceCube(start.generateLS());
+		cube.setRandomSource(random);
+		cube.setMetrics(metrics);
+		lastMoves = cube.shuffle(schedule);
+		return cube;
+	}
+
+	/**
+	 * Sets the moves of the chain after the warm start (n^3/8 by default).
+	 *
+	 * @param schedule
+	 */
+	public void setMixingSchedule(MixingSchedule schedule) {
+		this.schedule = schedule;
+	}
+
+	public MixingSchedule getMixingSchedule() {
+		return schedule;
+	}
+
+	/**
+	 * The number of moves done to generate the last LS.
+	 *
+	 * @return
+	 */
+	public long getLastMoves() {
+		return lastMoves;
+	}
+
+	/**
+	 * The counters of the chains of all the LSs generated (not of the warm starts).
+	 *
+	 * @return
+	 */
+	public ChainMetrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public void setVerbose(boolean show) {
+		start.setVerbose(show);
+	}
+
+	/**
+	 * Both the starting generator and the chain use random.
+	 */
+	@Override
+	public void setRandomSource(RandomSource random) {
+		this.random = random;
+		start.setRandomSource(random);
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package jacomatt.model.generators;
+
+import commons.generators.IRandomLatinSquareGenerator;
+import commons.model.latinsquares.ILatinSquare;
+import commons.utils.RandomSource;
+import commons.utils.SecureRandomSource;
+import jacomatt.model.ChainMetrics;
+import jacomatt.model.EfficientIncidenceCube;
+import jacomatt.model.MixingSchedule;
+
+/**
+ *  Jacobson and Matthews' method as a continuous Markov chain: one cube is kept alive between calls. The first LS
+ *  comes after a burn-in (n^3 moves by default), and each of the next ones after the thinning interval of k moves,
+ *  so bulk sampling costs about k moves per LS instead of n^3.
+ *  Each LS is a packed copy of the cube, so the chain can go on.
+ *  <p>
+ *  The chain is only looked at every k moves (after the burn-in), in exact blocks with no run to a proper cube, and a
+ *  LS is taken when the cube is proper at the end of a block; an improper cube is skipped by walking k more moves.
+ *  Sampling at fixed times is uniform, while the first proper cube after k moves (as in shuffle) is not.
+ *  Consecutive LSs are correlated when k is below the mixing time of the chain.
+ *
+ * @author igallego
+ *
+ */
+public class JacobsonMatthewsChainGenerator implements IRandomLatinSquareGenerator {
+
+	private EfficientIncidenceCube cube = null;//the chain, created by the first generateLS()
+	private int n;
+	private RandomSource random = new SecureRandomSource();
+	private MixingSchedule burnIn = MixingSchedule.DEFAULT;
+	private MixingSchedule thinning;
+	private long lastMoves = 0;
+	private ChainMetrics metrics = new ChainMetrics();
+
+	/**
+	 * Constructs the chain for LSs of order n, with a thinning interval of n^2 moves.
+	 *
+	 * @param n
+	 */
+	public JacobsonMatthewsChainGenerator(int n) {
+		this(n, (long)n*n);
+	}
+
+	/**
+	 * Constructs the chain for LSs of order n, taking one LS every k moves.
+	 *
+	 * @param n
+	 * @param k
+	 */
+	public JacobsonMatthewsChainGenerator(int n, long k) {
+		this.n = n;
+		this.setThinning(k);
+	}
+
+	@Override
+	public String getMethodName() {
+		return "Jacobson & Matthews continuous chain with thinning.";
+	}
+
+	/**
+	 * The first call burns in a new cyclic cube; the next ones continue its chain for the thinning interval. Then the
+	 *  chain goes on in blocks of the thinning interval until the cube is proper at the end of one.
+	 *  Each LS counts as one shuffle in the metrics.
+	 */
+	@Override
+	public ILatinSquare generateLS() {
+		long startTime = System.nanoTime();
+		if (cube==null) {
+			cube = new EfficientIncidenceCube(n);
+			cube.setRandomSource(random);
+			cube.setMetrics(metrics);
+			lastMoves = cube.walk(burnIn);
+		} else {
+			lastMoves = cube.walk(thinning);
+		}
+		while (!cube.proper())
+			lastMoves += cube.walk(thinning);
+		metrics.countShuffle(System.nanoTime()-startTime);
+		return cube.snapshot();
+	}
+
+	/**
+	 * Discards the chain: the next LS comes after a new burn-in.
+	 */
+	public void restart() {
+		cube = null;
+	}
+
+	/**
+	 * Sets the moves before the first LS (n^3 by default).
+	 *
+	 * @param burnIn
+	 */
+	public void setBurnIn(MixingSchedule burnIn) {
+		this.burnIn = burnIn;
+	}
+
+	public MixingSchedule getBurnIn() {
+		return burnIn;
+	}
+
+	/**
+	 * Sets the moves between two consecutive LSs (at least one, or the chain would return the same LS again).
+	 *
+	 * @param k
+	 */
+	public void setThinning(long k) {
+		if (k<1)
+			throw new IllegalArgumentException("The thinning must be at least one move: "+k);
+		this.thinning = MixingSchedule.steps(k);
+	}
+
+	public long getThinning() {
+		return thinning.stepsFor(n);
+	}
+
+	/**
+	 * The number of moves done to generate the last LS (the burn-in for the first one).
+	 *
+	 * @return
+	 */
+	public long getLastMoves() {
+		return lastMoves;
+	}
+
+	/**
+	 * The counters of the chain, including the burn-in (and the chains before a restart()).
+	 *
+	 * @return
+	 */
+	public ChainMetrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public void setVerbose(boolean show) {
+		//nothing to show
+	}
+
+	@Override
+	public void setRandomSource(RandomSource random) {
+		this.random = random;
+		if (cube!=null)
+			cube.setRandomSource(random);
+	}
+}
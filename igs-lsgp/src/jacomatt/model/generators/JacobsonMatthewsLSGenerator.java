@@ -6,7 +6,11 @@ package jacomatt.model.generators;
 
 import commons.generators.IRandomLatinSquareGenerator;
 import commons.model.latinsquares.ILatinSquare;
+import commons.utils.RandomSource;
+import commons.utils.SecureRandomSource;
+import jacomatt.model.ChainMetrics;
 import jacomatt.model.EfficientIncidenceCube;
+import jacomatt.model.MixingSchedule;
 
 /**
  * @author igallego
@@ -16,6 +20,10 @@ public class JacobsonMatthewsLSGenerator implements IRandomLatinSquareGenerator
 
 	private EfficientIncidenceCube cube;
 	private int n;
+	private RandomSource random = new SecureRandomSource();
+	private MixingSchedule schedule = MixingSchedule.DEFAULT;
+	private long lastMoves = 0;
+	private ChainMetrics metrics = new ChainMetrics();
 	
 	
 	public JacobsonMatthewsLSGenerator(int n) {
@@ -31,10 +39,43 @@ public class JacobsonMatthewsLSGenerator implements IRandomLatinSquareGenerator
 	@Override
 	public ILatinSquare generateLS() {
 		cube = new EfficientIncidenceCube(n);
-		cube.shuffle();
+		cube.setRandomSource(random);
+		cube.setMetrics(metrics);
+		lastMoves = cube.shuffle(schedule);
 		
 		return cube;
 	}
+	
+	/**
+	 * Sets how long each cube is mixed (n^3 moves by default).
+	 * 
+	 * @param schedule
+	 */
+	public void setMixingSchedule(MixingSchedule schedule) {
+		this.schedule = schedule;
+	}
+	
+	public MixingSchedule getMixingSchedule() {
+		return schedule;
+	}
+	
+	/**
+	 * The number of moves done to generate the last LS.
+	 * 
+	 * @return
+	 */
+	public long getLastMoves() {
+		return lastMoves;
+	}
+	
+	/**
+	 * The counters of the shuffles of all the LSs generated.
+	 * 
+	 * @return
+	 */
+	public ChainMetrics getMetrics() {
+		return metrics;
+	}
 
 
 	@Override
@@ -42,4 +83,9 @@ public class JacobsonMatthewsLSGenerator implements IRandomLatinSquareGenerator
 		//to be implemented soon...
 	}
 
+	@Override
+	public void setRandomSource(RandomSource random) {
+		this.random = random;
+	}
+
 }
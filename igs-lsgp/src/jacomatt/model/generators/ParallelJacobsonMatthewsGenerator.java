@@ -0,0 +1,292 @@
+/**
+ * Creation date: 18/10/2026
+ *
+ */
+package jacomatt.model.generators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import commons.generators.IRandomLatinSquareGenerator;
+import commons.model.latinsquares.ILatinSquare;
+import commons.utils.RandomSource;
+import commons.utils.RandomStreams;
+import jacomatt.model.ChainMetrics;
+import jacomatt.model.EfficientIncidenceCube;
+import jacomatt.model.MixingSchedule;
+
+/**
+ *  Jacobson and Matthews' method on several threads: each thread runs its own {@link EfficientIncidenceCube} with
+ *  its own stream of a {@link RandomStreams}, and hands the finished LSs (as packed copies) over a bounded queue.
+ *  The threads share nothing else, so the throughput grows with the number of cores.
+ *  <p>
+ *  By default each LS comes from a new cube mixed with the mixing schedule (n^3 moves), as in
+ *  {@link JacobsonMatthewsLSGenerator}. With a thinning interval, each thread keeps one chain instead: the schedule
+ *  is its burn-in and the next LSs come every k moves, as in {@link JacobsonMatthewsChainGenerator}: the chain is
+ *  sampled at the end of exact blocks of k moves, and only when the cube is proper there.
+ *  <p>
+ *  The threads start with the first LS requested and run ahead until the queue is full; call close() to stop them.
+ *  The chains walk in chunks of at most CHUNK moves and check for close() between chunks, so it does not wait for
+ *  a whole mixing. Each start takes new streams, so a restart does not repeat the LSs of the previous run.
+ *  The LSs of each thread only depend on the master seed of the streams, but the order in which the threads
+ *  deliver them is not reproducible.
+ *
+ * @author igallego
+ *
+ */
+public class ParallelJacobsonMatthewsGenerator implements IRandomLatinSquareGenerator {
+
+	public static final long CHUNK = 1 << 16;//moves between two checks for close()
+	private static final MixingSchedule ONE_MOVE = MixingSchedule.steps(1);
+
+	private int n;
+	private int threads;
+	private RandomStreams streams = new RandomStreams();
+	private MixingSchedule schedule = MixingSchedule.DEFAULT;
+	private MixingSchedule thinning = null;//null for a new cube per LS
+	private BlockingQueue<ILatinSquare> queue;
+	private Thread[] workers = null;
+	private Chain[] chains = null;
+	private ChainMetrics metrics = new ChainMetrics();//of the chains stopped by close()
+	private volatile boolean stopped = false;
+	private volatile Throwable failure = null;
+
+	/**
+	 * Constructs the generator of LSs of order n with one chain per available core.
+	 *
+	 * @param n
+	 */
+	public ParallelJacobsonMatthewsGenerator(int n) {
+		this(n, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructs the generator of LSs of order n with the given number of chains (threads).
+	 *
+	 * @param n
+	 * @param threads
+	 */
+	public ParallelJacobsonMatthewsGenerator(int n, int threads) {
+		if (threads<1)
+			throw new IllegalArgumentException("The number of threads must be positive: "+threads);
+		this.n = n;
+		this.threads = threads;
+		this.queue = new ArrayBlockingQueue<ILatinSquare>(2*threads);
+	}
+
+	@Override
+	public String getMethodName() {
+		return "Parallel Jacobson & Matthews generation method ("+threads+" chains).";
+	}
+
+	/**
+	 * Takes the next finished LS from the queue, starting the chains the first time.
+	 */
+	@Override
+	public ILatinSquare generateLS() {
+		this.start();
+		try {
+			ILatinSquare ls = queue.poll(100, TimeUnit.MILLISECONDS);
+			while (ls==null) {
+				if (failure!=null)
+					throw new IllegalStateException("A generation thread failed.", failure);
+				ls = queue.poll(100, TimeUnit.MILLISECONDS);
+			}
+			return ls;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a LS.", e);
+		}
+	}
+
+	/**
+	 * Takes the next count LSs.
+	 *
+	 * @param count
+	 * @return
+	 */
+	public List<ILatinSquare> generate(int count) {
+		List<ILatinSquare> result = new ArrayList<ILatinSquare>(count);
+		for (int i=0; i<count; i++)
+			result.add(this.generateLS());
+		return result;
+	}
+
+	/**
+	 * Starts the chains, if they are not running.
+	 */
+	public synchronized void start() {
+		if (workers!=null)
+			return;
+		stopped = false;
+		workers = new Thread[threads];
+		chains = new Chain[threads];
+		for (int t=0; t<threads; t++) {
+			chains[t] = new Chain(streams.nextStream());//threads*k+t in the k-th start
+			workers[t] = new Thread(chains[t], "jm-chain-"+t);
+			workers[t].setDaemon(true);
+			workers[t].start();
+		}
+	}
+
+	/**
+	 * Stops the chains and discards the LSs in the queue. The next LS starts them again, with the next streams.
+	 */
+	public synchronized void close() {
+		if (workers==null)
+			return;
+		stopped = true;
+		for (Thread worker : workers)
+			worker.interrupt();
+		boolean joined = true;
+		for (Thread worker : workers) {
+			try {
+				worker.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				joined = false;
+				break;
+			}
+		}
+		if (joined)//the counters of a running chain cannot be read
+			for (Chain chain : chains)
+				metrics.add(chain.metrics);
+		workers = null;
+		chains = null;
+		queue.clear();
+	}
+
+	/**
+	 * The chains take their streams from a master seed drawn from random, so a seeded source gives reproducible chains.
+	 */
+	@Override
+	public void setRandomSource(RandomSource random) {
+		this.setRandomStreams(new RandomStreams(random.nextLong()));
+	}
+
+	/**
+	 * Sets the streams of the chains: the chain t uses the stream t in the first start, threads+t in the second, etc.
+	 *
+	 * @param streams
+	 */
+	public synchronized void setRandomStreams(RandomStreams streams) {
+		this.checkNotStarted();
+		this.streams = streams;
+	}
+
+	/**
+	 * Sets the moves of each new cube (or the burn-in of each chain, with thinning).
+	 *
+	 * @param schedule
+	 */
+	public synchronized void setMixingSchedule(MixingSchedule schedule) {
+		this.checkNotStarted();
+		this.schedule = schedule;
+	}
+
+	public MixingSchedule getMixingSchedule() {
+		return schedule;
+	}
+
+	/**
+	 * Makes each thread keep one chain and take a LS every k moves (k&gt;=1).
+	 *
+	 * @param k
+	 */
+	public synchronized void setThinning(long k) {
+		this.checkNotStarted();
+		if (k<1)
+			throw new IllegalArgumentException("The thinning must be at least one move: "+k);
+		this.thinning = MixingSchedule.steps(k);
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * The counters of all the chains, added up when close() stops them. They include the LSs that were still in
+	 *  the queue, since the chains run ahead of the requests.
+	 *
+	 * @return
+	 */
+	public ChainMetrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public void setVerbose(boolean show) {
+		//nothing to show
+	}
+
+	private void checkNotStarted() {
+		if (workers!=null)
+			throw new IllegalStateException("The chains are running. Call close() first.");
+	}
+
+	/**
+	 * One chain, with its own cube and stream.
+	 */
+	private class Chain implements Runnable {
+		private RandomSource random;
+		private ChainMetrics metrics = new ChainMetrics();//only used by the thread of the chain until close()
+
+		public Chain(RandomSource random) {
+			this.random = random;
+		}
+
+		/**
+		 * Without thinning, each LS is a new cube walked with the schedule and then up to the first proper cube (the
+		 *  stopping rule of shuffle). With thinning, the chain walks the burn-in or the interval, and then blocks of
+		 *  the interval until the cube is proper at the end of one. Each LS counts as one shuffle in the metrics.
+		 */
+		@Override
+		public void run() {
+			EfficientIncidenceCube cube = null;
+			try {
+				while (!stopped) {
+					long startTime = System.nanoTime();
+					if (cube==null || thinning==null) {
+						cube = new EfficientIncidenceCube(n);
+						cube.setRandomSource(random);
+						cube.setMetrics(metrics);
+						this.walk(cube, schedule);
+					} else {
+						this.walk(cube, thinning);
+					}
+					MixingSchedule block = (thinning==null) ? ONE_MOVE : thinning;
+					while (!cube.proper())
+						this.walk(cube, block);
+					metrics.countShuffle(System.nanoTime()-startTime);
+					queue.put(cube.snapshot());
+				}
+			} catch (InterruptedException e) {
+				//stopped by close()
+			} catch (Throwable e) {
+				failure = e;
+			}
+		}
+
+		/**
+		 * Walks the cube for the budget of the schedule (or until its time limit), CHUNK moves at a time, and checks
+		 *  for close() before each chunk.
+		 */
+		private void walk(EfficientIncidenceCube cube, MixingSchedule schedule) throws InterruptedException {
+			long budget = schedule.stepsFor(n);
+			long limit = schedule.getTimeLimitMillis();
+			long deadline = System.nanoTime() + limit*1000000L;
+			long moves = 0;
+			while (moves<budget && (limit==0 || System.nanoTime()-deadline<0)) {
+				if (stopped || Thread.interrupted())
+					throw new InterruptedException();
+				MixingSchedule chunk = MixingSchedule.steps(Math.min(CHUNK, budget-moves));
+				if (limit>0)
+					chunk = chunk.withTimeLimit(Math.max(1, (deadline-System.nanoTime())/1000000L));
+				moves += cube.walk(chunk);
+			}
+		}
+	}
+}
@@ -23,12 +23,16 @@
  */
 package koscielny.model.generators;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 import commons.generators.IRandomLatinSquareGenerator;
 import commons.model.OrderedPair;
 import commons.model.latinsquares.ILatinSquare;
-import commons.model.latinsquares.PrimitiveIntArrayLatinSquare;
+import commons.model.latinsquares.OffHeapLatinSquare;
+import commons.model.latinsquares.PackedLatinSquare;
+import commons.utils.RandomSource;
+import commons.utils.SecureRandomSource;
 import seqgen.model.generators.SeqGenWithReplGraph;
 
 /**
@@ -45,6 +49,9 @@ import seqgen.model.generators.SeqGenWithReplGraph;
 public class KoscielnyProductGenerator implements IRandomLatinSquareGenerator {
 
 	private int n = 0;
+	private boolean offHeap = false;
+	private String targetFile = null;
+	private RandomSource random = new SecureRandomSource();
 	
 	/**
 	 * Creates the instance that generates LS of order n
@@ -64,18 +71,77 @@ public class KoscielnyProductGenerator implements IRandomLatinSquareGenerator {
 	 * @throws Exception
 	 */
 	protected ILatinSquare product(ILatinSquare ls1, ILatinSquare ls2) throws Exception {
+		return this.product(ls1, ls2, this.newSquare(ls1.size()*ls2.size()));
+	}
+	
+	/**
+	 * Computes the Koscielny product of two LSs into result, which must be of order n1*n2.
+	 *  The cells are visited block by block, so no division is needed per cell.
+	 * 
+	 * @param ls1
+	 * @param ls2
+	 * @param result
+	 * @return the result
+	 * @throws Exception
+	 */
+	protected ILatinSquare product(ILatinSquare ls1, ILatinSquare ls2, ILatinSquare result) throws Exception {
 		int n1 = ls1.size();
 		int n2 = ls2.size();
 		
-		ILatinSquare result = new PrimitiveIntArrayLatinSquare(n1*n2);
-    
-		for (int x=0; x < n1*n2; x++) {
-			for (int y=0; y < n1*n2; y++) {
-				result.setValueAt(x, y, (n2 * ls1.getValueAt(x/n2,y/n2)) + ls2.getValueAt(x%n2,y%n2));
+		for (int i1=0; i1 < n1; i1++) {
+			for (int i2=0; i2 < n2; i2++) {
+				int x = i1*n2 + i2;
+				for (int j1=0; j1 < n1; j1++) {
+					int base = n2 * ls1.get(i1, j1);
+					int y = j1*n2;
+					for (int j2=0; j2 < n2; j2++) {
+						result.set(x, y+j2, base + ls2.get(i2, j2));
+					}
+				}
 			}
 		}
 		return result;
 	}
+	
+	/**
+	 * Creates the LS that will hold the product: a packed LS, or an off-heap one (mapped from the target file if given)
+	 *  when asked for, or when the order is too large for the heap.
+	 *  The target file is used once, so the next squares do not overwrite the one mapped from it.
+	 * 
+	 * @param order
+	 * @return
+	 * @throws IOException
+	 */
+	protected ILatinSquare newSquare(int order) throws IOException {
+		if (targetFile!=null) {
+			String fileName = targetFile;
+			targetFile = null;
+			return new OffHeapLatinSquare(order, fileName);
+		}
+		if (offHeap || order>PackedLatinSquare.MAX_ORDER)
+			return new OffHeapLatinSquare(order);
+		return new PackedLatinSquare(order);
+	}
+	
+	/**
+	 * If true, the product is built in off-heap memory.
+	 * 
+	 * @param offHeap
+	 */
+	public void setOffHeap(boolean offHeap) {
+		this.offHeap = offHeap;
+	}
+	
+	/**
+	 * If not null, the next product is built directly in this file (mapped in memory), so no copy is needed to persist it.
+	 *  Only that product is mapped from the file (the following ones are built in memory again); it is an
+	 *  {@link OffHeapLatinSquare} that the caller must close(). A prime order is not a product and does not use the file.
+	 * 
+	 * @param targetFile
+	 */
+	public void setTargetFile(String targetFile) {
+		this.targetFile = targetFile;
+	}
 
 	/**
 	 * Computes the factors of n to split the LS of order n in two LSs. Returns the median of the list.
@@ -106,11 +172,11 @@ public class KoscielnyProductGenerator implements IRandomLatinSquareGenerator {
 
 		if (n2==1) {
 			//n is prime: cannot use Product to improve
-			return new SeqGenWithReplGraph(n).generateLS();
+			return this.factorGenerator(n).generateLS();
 		}
 
-		ILatinSquare ls1 = new SeqGenWithReplGraph(n1).generateLS();
-		ILatinSquare ls2 = new SeqGenWithReplGraph(n2).generateLS();
+		ILatinSquare ls1 = this.factorGenerator(n1).generateLS();
+		ILatinSquare ls2 = this.factorGenerator(n2).generateLS();
 
 		ILatinSquare ls = null;
 		try {
@@ -129,8 +195,25 @@ public class KoscielnyProductGenerator implements IRandomLatinSquareGenerator {
 		return "Koscielny product of two Latin Squares.";
 	}
 
+	/**
+	 * The generator of the factors, which shares the random source of this one.
+	 * 
+	 * @param order
+	 * @return
+	 */
+	private SeqGenWithReplGraph factorGenerator(int order) {
+		SeqGenWithReplGraph generator = new SeqGenWithReplGraph(order);
+		generator.setRandomSource(random);
+		return generator;
+	}
+
 	@Override
 	public void setVerbose(boolean show) {
 		//to be implemented soon...
 	}
+
+	@Override
+	public void setRandomSource(RandomSource random) {
+		this.random = random;
+	}
 }
@@ -29,28 +29,30 @@ package mckaywormald.model;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.HashSet;
+
 import java.util.List;
-import java.util.Set;
 
 import commons.model.latinsquares.ILatinRectangle;
 import commons.model.latinsquares.ILatinSquare;
+import commons.model.latinsquares.LatinPropertyValidator;
+import commons.model.latinsquares.PackedCells;
+import commons.model.latinsquares.StructuralHash;
 
 /**
- *  The default implementation of ILatinRectangle interface: an array of int's.
+ *  The default implementation of ILatinRectangle interface: the k*n symbols are stored row by row in a packed array
+ *  (one byte per cell for n&lt;=256, see {@link PackedCells}).
  * 
  * @author igallego
  *
  */
 public class LatinRectangle implements ILatinRectangle {
 
-		protected int[][] lr;
+		protected PackedCells lr;
 		
 		protected int colSize = 0;
 		protected int rowSize = 0;
 		
-		protected MessageDigest md = null;
+		protected StructuralHash cachedHash = null;//null when it must be recomputed
 		
 		/**
 		 * Constructs a Latin Rectangle based on a Ls.
@@ -61,20 +63,14 @@ public class LatinRectangle implements ILatinRectangle {
 			int n = ls.size();
 			this.colSize = n;
 			this.rowSize = n;
-			this.lr = new int[n][n];
+			this.lr = new PackedCells(n*n, n);
 			
 			// initialization
 			for (int i = 0; i < n; i++) {
 				for (int j = 0; j < n; j++) {
-					lr[i][j] = ls.getValueAt(i, j);
+					lr.set(i*n+j, ls.get(i, j));
 				}
 			}
-			// initialize the md
-			try {
-				md = MessageDigest.getInstance("MD5");
-			} catch (NoSuchAlgorithmException e) {
-				System.out.println("No such algorithm: md5");
-			}
 		}
 		
 		/**
@@ -84,16 +80,9 @@ public class LatinRectangle implements ILatinRectangle {
 		 * @param n
 		 */
 		public LatinRectangle(int k, int n) {
-			this.lr = new int[k][n];
+			this.lr = new PackedCells(k*n, n);
 			this.rowSize = k;
 			this.colSize = n;
-
-			// initialize the md
-			try {
-				md = MessageDigest.getInstance("MD5");
-			} catch (NoSuchAlgorithmException e) {
-				System.out.println("No such algorithm: md5");
-			}
 		}
 
 		/**
@@ -118,7 +107,6 @@ public class LatinRectangle implements ILatinRectangle {
 		 * Overrides the default implementation to print the LR into the console
 		 * 
 		 */
-		@SuppressWarnings("unused")
 		@Override
 		public String toString() {
 			StringBuffer sb = new StringBuffer();
@@ -127,14 +115,10 @@ public class LatinRectangle implements ILatinRectangle {
 				//sb.append("Row "+x+":");
 				for (int y=0; y<colSize ; y++) {
 					try {
-						Integer elem = lr[x][y];
+						Integer elem = lr.get(x*colSize+y);
 						
-						if (elem==null) {
-							sb.append(" -- ");
-						} else {
-							sb.append(elem); 
-							sb.append("    ".substring(elem.toString().length()));
-						}
+						sb.append(elem); 
+						sb.append("    ".substring(elem.toString().length()));
 						
 					} catch (Exception e) {
 						sb.append("--  ");
@@ -153,7 +137,7 @@ public class LatinRectangle implements ILatinRectangle {
 		 */
 		@Override
 		public Integer getValueAt(int row, int col) {
-			return lr[row][col];
+			return this.get(row, col);
 		}
 
 		/**
@@ -163,7 +147,29 @@ public class LatinRectangle implements ILatinRectangle {
 		 */
 		@Override
 		public void setValueAt(int row, int col, int value) {
-			lr[row][col] = value;
+			this.set(row, col, value);
+		}
+		
+		/**
+		 * Overrides the method of interface {@link ILatinSquare}
+		 * 
+		 * Gets the element in specified row and column, without boxing.
+		 *  
+		 */
+		@Override
+		public int get(int row, int col) {
+			return lr.get(row*colSize+col);
+		}
+
+		/**
+		 * Overrides the method of interface {@link ILatinSquare}
+		 * Sets the element in specified row and column, without boxing.
+		 * 
+		 */
+		@Override
+		public void set(int row, int col, int value) {
+			this.cachedHash = null;
+			lr.set(row*colSize+col, value);
 		}
 
 		/**
@@ -177,9 +183,9 @@ public class LatinRectangle implements ILatinRectangle {
 				
 				for (int i=0; i<rowSize; i++) {
 					for (int j=0; j<colSize; j++) {
-						Integer elem = this.getValueAt(i, j);
-						bw.write(elem.toString());
-						bw.write("    ".substring(elem.toString().length()));
+						String elem = Integer.toString(this.get(i, j));
+						bw.write(elem);
+						bw.write("    ".substring(elem.length()));
 					}
 					bw.write("\n");
 				}
@@ -201,7 +207,7 @@ public class LatinRectangle implements ILatinRectangle {
 			boolean eq = true;
 			for (int i=0; i<k2 && eq; i++) {
 				for (int j=0; j<n2 && eq; j++) {
-					if (this.getValueAt(i, j)!=lr2.getValueAt(i, j)) {
+					if (this.get(i, j)!=lr2.get(i, j)) {
 						eq = false;
 					}
 					
@@ -216,8 +222,49 @@ public class LatinRectangle implements ILatinRectangle {
 		 */
 		@Override
 		public byte[] hashCodeOfStructure() {
-			String str1 = this.serializeStructure();
-			return md.digest(str1.getBytes());
+			return this.structuralHash().toBytes();
+		}
+		
+		/**
+		 * Returns the 128-bit hash of the symbols, computed once until the next modification.
+		 * 
+		 */
+		@Override
+		public StructuralHash structuralHash() {
+			StructuralHash h = this.cachedHash;
+			if (h==null) {
+				h = StructuralHash.of(this, this.rowSize, this.colSize);
+				this.cachedHash = h;
+			}
+			return h;
+		}
+		
+		/**
+		 * Uses the structural hash, so LRs can be keys in hash maps and sets.
+		 * 
+		 */
+		@Override
+		public int hashCode() {
+			return this.structuralHash().hashCode();
+		}
+		
+		/**
+		 * Two LRs are equal if they have the same dimensions and the same symbols.
+		 * 
+		 */
+		@Override
+		public boolean equals(Object o) {
+			if (this==o)
+				return true;
+			if (o instanceof ILatinRectangle) {
+				ILatinRectangle lr2 = (ILatinRectangle)o;
+				return this.structuralHash().equals(lr2.structuralHash()) && this.equals(lr2);
+			}
+			if (o instanceof ILatinSquare) {
+				ILatinSquare ls = (ILatinSquare)o;
+				return this.isASquare() && this.structuralHash().equals(ls.structuralHash()) && this.equals(ls);
+			}
+			return false;
 		}
 		
 		/**
@@ -229,8 +276,9 @@ public class LatinRectangle implements ILatinRectangle {
 			StringBuffer sb = new StringBuffer();
 			for (int x=0; x<rowSize ; x++) {
 				for (int y=0; y<colSize ; y++) {
-					Integer elem = lr[x][y];
-					sb.append(elem); 
+					if (x>0 || y>0)
+						sb.append(',');
+					sb.append(lr.get(x*colSize+y)); 
 				}
 			}
 			return sb.toString();
@@ -284,8 +332,22 @@ public class LatinRectangle implements ILatinRectangle {
 		 */
 		@Override
 		public void setRow(int i, List<Integer> row) {
+			this.cachedHash = null;
+			int base = i*this.colSize;
 			for (int j=0; j<this.colSize; j++)
-				lr[i][j] = row.get(j);
+				lr.set(base+j, row.get(j));
+		}
+		
+		/**
+		 * Sets an entire row from a primitive array.
+		 * 
+		 */
+		@Override
+		public void setRow(int i, int[] row) {
+			this.cachedHash = null;
+			int base = i*this.colSize;
+			for (int j=0; j<this.colSize; j++)
+				lr.set(base+j, row[j]);
 		}
 		
 		/**
@@ -294,29 +356,6 @@ public class LatinRectangle implements ILatinRectangle {
 		 */
 		@Override
 		public boolean preservesLatinProperty() {
-			boolean result = true;
-			
-			Set<Integer> symbols = new HashSet<Integer>();
-			
-			//row verification
-			for(int i=0; i<this.rowSize; i++) {
-				symbols = new HashSet<Integer>();
-				for(int j=0; j<this.colSize; j++) {
-					symbols.add(this.getValueAt(i, j));	
-				}
-				if (symbols.size()!=this.colSize)
-					return false;
-			}
-			
-			//column verification
-			for(int j=0; j<this.colSize; j++) {
-				symbols = new HashSet<Integer>();
-				for(int i=0; i<this.rowSize; i++) {
-					symbols.add(this.getValueAt(i, j));	
-				}
-				if (symbols.size()!=this.rowSize)
-					return false;
-			}
-			return result;
+			return LatinPropertyValidator.isLatin(this, this.rowSize, this.colSize);
 		}
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -5,16 +5,17 @@
 package mckaywormald.model.generators;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import commons.generators.IRandomLatinRectangleGenerator;
 import commons.generators.IRandomLatinSquareGenerator;
 import commons.model.OrderedTriple;
 import commons.model.latinsquares.ILatinRectangle;
 import commons.model.latinsquares.ILatinSquare;
+import commons.utils.IntIndexedSet;
+import commons.utils.RandomSource;
 import commons.utils.RandomUtils;
+import commons.utils.SecureRandomSource;
 import mckaywormald.model.LatinRectangle;
 
 /**
@@ -27,7 +28,8 @@ import mckaywormald.model.LatinRectangle;
 public class McKayLRGenerationMethod implements IRandomLatinRectangleGenerator, IRandomLatinSquareGenerator {
 	
 	//auxiliary variables for the algorithm
-	private Set<Integer> initiallyAvInRow = null;
+	private IntIndexedSet initiallyAvInRow = null;
+	private IntIndexedSet columns = null;//all the columns, to choose j2 and j3
 
 	//from mckay paper
 	private int conflictsCount = 0;
@@ -36,9 +38,10 @@ public class McKayLRGenerationMethod implements IRandomLatinRectangleGenerator,
 	private List<OrderedTriple> conflictList = null; 
 	private int k;
 	private int n;
+	private RandomSource random = new SecureRandomSource();
 	
 	/**
-	 * Initializes the instance with the dimensions of the LR, available symbols and the random number generator.
+	 * Initializes the instance with the dimensions of the LR and available symbols. Each instance has its own random source.
 	 * 
 	 * @param k
 	 * @param n
@@ -46,8 +49,8 @@ public class McKayLRGenerationMethod implements IRandomLatinRectangleGenerator,
 	public McKayLRGenerationMethod(int k, int n) {
 		this.k = k;
 		this.n = n;
-		this.initiallyAvInRow = RandomUtils.oneToN(n);
-		RandomUtils.initRand();
+		this.initiallyAvInRow = IntIndexedSet.full(n);
+		this.columns = IntIndexedSet.full(n);
 	}
 	
 	/**
@@ -99,28 +102,31 @@ public class McKayLRGenerationMethod implements IRandomLatinRectangleGenerator,
 //		    	}
 //		    	
 		    	//take a conflict at random in constant time
-		    	OrderedTriple conflict = RandomUtils.randomTriple(this.conflictList);
+		    	OrderedTriple conflict = RandomUtils.randomTriple(this.conflictList, random);
 		    	
 		    	int i1 = conflict.x;
 		    	int i2 = conflict.y;
 		    	int j1 = conflict.z;
 		    	
-		    	Set<Integer> nMinusj1 = new HashSet<Integer>(this.initiallyAvInRow);//can this be avoided? is O(n)??
-		    	nMinusj1.remove(j1);
+		    	//two other distinct columns, in O(1): they are taken out of the set and put back
+		    	columns.remove(j1);
 		    	
-		    	int j2 = RandomUtils.randomChoice(nMinusj1);
+		    	int j2 = columns.randomPick(random);
 		    	
-		    	nMinusj1.remove(j2);
+		    	columns.remove(j2);
 		    	
-		    	int j3 = RandomUtils.randomChoice(nMinusj1);
+		    	int j3 = columns.randomPick(random);
+		    	
+		    	columns.add(j1);
+		    	columns.add(j2);
 		    	
 		    	//test if (i1,i2,j1,j2,j3) \in sw(a)
-		    	int y = a.getValueAt(i1, j1);
-		    	int u = a.getValueAt(i1, j2);
-		    	int v = a.getValueAt(i1, j3);
+		    	int y = a.get(i1, j1);
+		    	int u = a.get(i1, j2);
+		    	int v = a.get(i1, j3);
 		    	
 		    	//x1
-		    	boolean x1 = (y == a.getValueAt(i2, j1));
+		    	boolean x1 = (y == a.get(i2, j1));
 		    	//x2 : u \notIn A[C_{j2} - {i1,j2}]
 		    	boolean x2 = (this.timesSymbolOccursInColumn[u][j2]==1);
 		    	//x3 : v \notIn A[C_{j3} - {i1,j3}]
@@ -133,9 +139,9 @@ public class McKayLRGenerationMethod implements IRandomLatinRectangleGenerator,
 		    	boolean x6 = (this.timesSymbolOccursInColumn[v][j1]==0);
 		    	
 		    	if (x1 && x2 && x3 && x4 && x5 && x6) {// (i1,i2,j1,j2,j3) \in sw(a), apply the switching
-		    	  	a.setValueAt(i1, j1, v);
-		    	  	a.setValueAt(i1, j2, y);
-		    	  	a.setValueAt(i1, j3, u);
+		    	  	a.set(i1, j1, v);
+		    	  	a.set(i1, j2, y);
+		    	  	a.set(i1, j3, u);
 		    	  	rejected = false;//don't do "rejected=true with Probability(...)" allways accept A if sw(A) is possible
 		    	} else {
 		    		rejected = true;
@@ -163,7 +169,7 @@ public class McKayLRGenerationMethod implements IRandomLatinRectangleGenerator,
 		LatinRectangle lr = new LatinRectangle(k, n);
 	    
 	    for (int i=0; i<k; i++) {
-	    	ArrayList<Integer> row = this.generateRow(i, lr);
+	    	int[] row = this.generateRow(i, lr);
 	    	
 	    	lr.setRow(i, row);
 	    }
@@ -177,14 +183,14 @@ public class McKayLRGenerationMethod implements IRandomLatinRectangleGenerator,
 	 * @param lr
 	 * @return
 	 */
-	private ArrayList<Integer> generateRow(int rowIndex, LatinRectangle lr) {
-	    List<Integer> availableInRow = new ArrayList<Integer>(this.initiallyAvInRow);
+	private int[] generateRow(int rowIndex, LatinRectangle lr) {
+	    IntIndexedSet availableInRow = new IntIndexedSet(this.initiallyAvInRow);
 	    
-	    ArrayList<Integer> row = new ArrayList<Integer>();
+	    int[] row = new int[n];
 	    int colIndex = 0;
 	    while (colIndex < n) {
 	    	//select symbol
-	    	Integer symbol = RandomUtils.randomChoice(availableInRow);
+	    	int symbol = availableInRow.randomPick(random);
 
 	    	this.timesSymbolOccursInColumn[symbol][colIndex]++;
 	    	
@@ -202,7 +208,7 @@ public class McKayLRGenerationMethod implements IRandomLatinRectangleGenerator,
             availableInRow.remove(symbol);
 
             //put symbol in result
-            row.add(symbol);
+            row[colIndex] = symbol;
 
             colIndex++;
 	    }
@@ -216,7 +222,7 @@ public class McKayLRGenerationMethod implements IRandomLatinRectangleGenerator,
 		boolean found = false;
 		int i = row-1;//search from last row until row 0
 		while (!found && i>=0) {
-			found = (lr.getValueAt(i,col)==symbol);
+			found = (lr.get(i,col)==symbol);
 			if (found)
 				result = i;
 			i--;
@@ -238,5 +244,10 @@ public class McKayLRGenerationMethod implements IRandomLatinRectangleGenerator,
 		//to be implemented soon...
 	}
 
+	@Override
+	public void setRandomSource(RandomSource random) {
+		this.random = random;
+	}
+
 }
-		        
\ No newline at end of file
+		        
\ No newline at end of file
@@ -7,13 +7,12 @@ package selvi_et_al.model.generators;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 
 import commons.generators.IRandomLatinSquareGenerator;
 import commons.model.latinsquares.ILatinSquare;
+import commons.utils.IntIndexedSet;
 import commons.utils.RandomUtils;
 import seqgen.model.generators.AbstractSequentialGenerator;
 import sun.audio.AudioPlayer;
@@ -28,14 +27,14 @@ import sun.audio.AudioStream;
 public class OCarrollLSGenerator extends AbstractSequentialGenerator implements IRandomLatinSquareGenerator {
 	
 	protected boolean verbose = false;
-	protected ArrayList<Integer> row;//the current row that is being generated in the method "generateRow"
+	protected int[] row;//the current row that is being generated in the method "generateRow" (-1 in the free columns)
     
 	protected List<Integer> a;//from 0 to n-1 is Avail Symbol Count at Column i (SFC: "Symbols for Column" Count)
 							  //from n to (2*n)-1 is Possibilities Count for Symbol i (CFS: "Columns for Symbol" Count)
     
-	protected Set<Integer>[] availSymbolsInColumn;//SFC: "Symbols For Column"
-	protected Set<Integer>[] availColumnsForSymbol;//CFS: "Columns For Symbol"
-	protected Set<Integer>[] initiallyAvailInColumn;
+	protected IntIndexedSet[] availSymbolsInColumn;//SFC: "Symbols For Column"
+	protected IntIndexedSet[] availColumnsForSymbol;//CFS: "Columns For Symbol"
+	protected IntIndexedSet[] initiallyAvailInColumn;
 	
 	protected int rowLength = 0;
 	
@@ -71,7 +70,7 @@ public class OCarrollLSGenerator extends AbstractSequentialGenerator implements
 	}
 
 	@Override
-	protected List<Integer> generateRow(int i_row) {
+	protected int[] generateRow(int i_row) {
 		
 		this.restoreInitiallyAvailable();
 
@@ -106,10 +105,10 @@ public class OCarrollLSGenerator extends AbstractSequentialGenerator implements
 		    // 2) If S >  N, insert the (S - N)th letter of the alphabet in the Bth position among those still open to it in the Rth row
 		    if (s<=(n-1)) {
 		    	position = s;
-		    	element = RandomUtils.randomChoice(availSymbolsInColumn[position]);
+		    	element = availSymbolsInColumn[position].randomPick(random);
 		    } else {
 		    	element = s-n;
-		    	position = RandomUtils.randomChoice(availColumnsForSymbol[element]);
+		    	position = availColumnsForSymbol[element].randomPick(random);
 		    }
 		    //count the choice: update array "a" and availSymbolInCol
 	    	this.countTheChosenMove(element, position);
@@ -142,40 +141,36 @@ public class OCarrollLSGenerator extends AbstractSequentialGenerator implements
 				}
 			}
 			
-			return RandomUtils.randomChoice(posibleColumns);
+			return RandomUtils.randomChoice(posibleColumns, random);
 		} else
 			return -1;
 	}
 	
-	@SuppressWarnings("unchecked")
 	protected void initializeAuxiliaryStructures(int i_row) {
-		row = new ArrayList<Integer>(this.n);
+		row = new int[this.n];
+		Arrays.fill(row, -1);//the final length of the array (n), with no symbol yet
 	    
 	    a = new ArrayList<Integer>(2*n);//from 0 to n-1 is Avail Symbol Count at Column i
 	    								//from n to (2*n)-1 is Possibilities Count for Symbol i
-		availSymbolsInColumn = new HashSet[n];
-		availColumnsForSymbol = new HashSet[n];
+		availSymbolsInColumn = new IntIndexedSet[n];
+		availColumnsForSymbol = new IntIndexedSet[n];
 	    
 	    //initialize the array of posibilities (available columns) for each symbol (CFS: "Columns For Symbol")
 	    for (int i=0; i<=n-1; i++) {
-	    	availColumnsForSymbol[i] = new HashSet<Integer>();
+	    	availColumnsForSymbol[i] = new IntIndexedSet(n);
 	    	
 	    	//initialize the working set
-	    	availableInCol[i] = new HashSet<Integer>();
-	    	availableInCol[i].addAll(initiallyAvailInColumn[i]);
+	    	availableInCol[i] = new IntIndexedSet(initiallyAvailInColumn[i]);
 	    }
 	    
 	    //initialize a (SFC: "Symbols For Colum")
 	    for (int i=0; i<=n-1; i++) {//iterate columns
-	    	row.add(new Integer(-1));//this is to achieve the final length of the array (n)
 	    	a.add(this.availableInCol[i].size());
-	    	availSymbolsInColumn[i] = new HashSet<Integer>();
-	    	availSymbolsInColumn[i].addAll(this.availableInCol[i]);
+	    	availSymbolsInColumn[i] = new IntIndexedSet(this.availableInCol[i]);
 	    	
-	    	Iterator<Integer> availInColumn = availSymbolsInColumn[i].iterator(); 
-	    	while (availInColumn.hasNext()) {
-				Integer symbol = availInColumn.next();
-				availColumnsForSymbol[symbol.intValue()].add(new Integer(i));
+	    	for (int k=0; k<availSymbolsInColumn[i].size(); k++) {
+				int symbol = availSymbolsInColumn[i].get(k);
+				availColumnsForSymbol[symbol].add(i);
 			}
 	    	
 //	    	for (int j=0; j<this.availableInCol[i].size(); j++) {//iterate through available in column i
@@ -192,19 +187,19 @@ public class OCarrollLSGenerator extends AbstractSequentialGenerator implements
 	
 	protected void countTheChosenMove(int symbol, int column) {
 		//iterate through available symbols in the column before erasing the collection
-		Iterator<Integer> iter = availSymbolsInColumn[column].iterator();
-		while (iter.hasNext()) {
-			Integer availSymbol = iter.next();
+		IntIndexedSet symbolsInColumn = availSymbolsInColumn[column];
+		for (int k=0; k<symbolsInColumn.size(); k++) {
+			int availSymbol = symbolsInColumn.get(k);
 			a.set(availSymbol+n, a.get(availSymbol+n)-1);
-	    	availColumnsForSymbol[availSymbol].remove(new Integer(column));//the column "position" is no longer available for the symbol "symbol"
+	    	availColumnsForSymbol[availSymbol].remove(column);//the column "position" is no longer available for the symbol "symbol"
 		}   	
 	    //remove element "element" from available of all columns, as it is now used in the row
-	    iter = availColumnsForSymbol[symbol].iterator();
-	    while (iter.hasNext()) {
-			Integer availColumn = iter.next();
+		IntIndexedSet columnsForSymbol = availColumnsForSymbol[symbol];
+		for (int k=0; k<columnsForSymbol.size(); k++) {
+			int availColumn = columnsForSymbol.get(k);
 			//if (availSymbolsInColumn[column].remove(new Integer(element))) {//if the element existed in the collection, decrement count
 			
-			availSymbolsInColumn[availColumn].remove(new Integer(symbol));
+			availSymbolsInColumn[availColumn].remove(symbol);
 	    	a.set(availColumn, a.get(availColumn)-1);//decrement count
 		}
 	    
@@ -217,18 +212,16 @@ public class OCarrollLSGenerator extends AbstractSequentialGenerator implements
 	    a.set(column, 0);
 	    
 	    //finally, place the element in the row
-	    row.set(column, symbol);
-	    this.availableInCol[column].remove(new Integer(symbol));
+	    row[column] = symbol;
+	    this.availableInCol[column].remove(symbol);
 	}
 	
-	@SuppressWarnings("unchecked")
 	protected void restoreInitiallyAvailable() {
 		//restore this collection
-		initiallyAvailInColumn = new HashSet[n];
+		initiallyAvailInColumn = new IntIndexedSet[n];
 		
 		for (int i=0; i<n; i++) {
-			initiallyAvailInColumn[i] = new HashSet<Integer>();
-			initiallyAvailInColumn[i].addAll(this.availableInCol[i]);
+			initiallyAvailInColumn[i] = new IntIndexedSet(this.availableInCol[i]);
 		}
 	}
 	
@@ -238,7 +231,7 @@ public class OCarrollLSGenerator extends AbstractSequentialGenerator implements
     	System.out.println("-----------Iteration "+iteration+" of "+i_row+"th row.");
 //    	System.out.println("The symbol "+element+" is selected for column "+position);
 	    System.out.println("A:"+a);
-	    System.out.println("ROW:"+row);
+	    System.out.println("ROW:"+Arrays.toString(row));
 	    for (int i=0; i<n; i++)
 	    	System.out.print("SFC "+i+":"+availSymbolsInColumn[i]);
 	    System.out.println("");
@@ -5,11 +5,9 @@
 package selvi_et_al.model.generators;
 
 import java.io.IOException;
-import java.util.List;
 
 import commons.generators.IRandomLatinSquareGenerator;
 import commons.model.latinsquares.ILatinSquare;
-import commons.utils.RandomUtils;
 
 /**
  * This method, is the O'Carroll method with a variation: when the method fails, it erases the row and begins again.
@@ -48,7 +46,7 @@ public class OCarrollWithRestartLSGenerator extends OCarrollLSGenerator implemen
 	}
 
 	@Override
-	protected List<Integer> generateRow(int i_row) {
+	protected int[] generateRow(int i_row) {
 		this.restoreInitiallyAvailable();
 
 		int position=0;
@@ -88,10 +86,10 @@ public class OCarrollWithRestartLSGenerator extends OCarrollLSGenerator implemen
 		    //  2) If S >  N, insert the (S - N)th letter of the alphabet in the Bth position among those still open to it in the Rth row (B RANDOM) 
 		    if (s<=(n-1)) {
 		    	position = s;
-		    	element = RandomUtils.randomChoice(availSymbolsInColumn[position]);
+		    	element = availSymbolsInColumn[position].randomPick(random);
 		    } else {
 		    	element = s-n;
-		    	position = RandomUtils.randomChoice(availColumnsForSymbol[element]);
+		    	position = availColumnsForSymbol[element].randomPick(random);
 		    }
 		    //count the choice: update array "a" and auxiliary structures
 	    	this.countTheChosenMove(element, position);
@@ -5,15 +5,13 @@
 package selvi_et_al.model.generators;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 
 import commons.generators.IRandomLatinSquareGenerator;
 import commons.model.OrderedPair;
 import commons.model.latinsquares.ILatinSquare;
-import commons.utils.RandomUtils;
+import commons.utils.IntIndexedSet;
 
 /**
  * This is Selvi (et.al.) methos. It's the O'Carroll's modification to do backtracking when the method fails.
@@ -58,7 +56,7 @@ public class SelviEtAlLSGenerator extends OCarrollLSGenerator implements IRandom
 	}
 
 	@Override
-	protected List<Integer> generateRow(int i_row) {
+	protected int[] generateRow(int i_row) {
 		this.path = new ArrayList<OrderedPair>();
 		this.restoreInitiallyAvailable();
 	    
@@ -136,18 +134,18 @@ public class SelviEtAlLSGenerator extends OCarrollLSGenerator implements IRandom
 		int column = p.y;
 		
 		//inverse order of count move: first, erase element in the row
-		row.set(column, new Integer(-1));
+		row[column] = -1;
 		this.availableInCol[column].add(symbol);//the element symbol is available again in that column
 		
 		
 		//iterate all symbols available in the column now free
-		Iterator<Integer> availAtColumn = this.availableInCol[column].iterator();
-		while(availAtColumn.hasNext()) {
+		IntIndexedSet availAtColumn = this.availableInCol[column];
+		for (int k=0; k<availAtColumn.size(); k++) {
 			//return "symbolNowAvail" to available in all columns
-			Integer symbolNowAvail = availAtColumn.next();
+			int symbolNowAvail = availAtColumn.get(k);
 			for (int j=0; j<n; j++) {									//iterate all columns
-				if ((row.get(j).intValue()==-1) &&						//if the place is NOT used 
-					(!row.contains(symbolNowAvail)) &&  				//if not used in the row
+				if ((row[j]==-1) &&										//if the place is NOT used 
+					(!this.inRow(symbolNowAvail)) &&  					//if not used in the row
 					this.availableInCol[j].contains(symbolNowAvail) 	//if symbol was initially available, return it
 //					(availSymbolsInColumn[j].contains(symbolNowAvail))  //the symbol is not already in the collection
 					) {                    
@@ -168,11 +166,24 @@ public class SelviEtAlLSGenerator extends OCarrollLSGenerator implements IRandom
 		rowLength--;
 	}
 	
+	/**
+	 * If symbol is in one of the columns of the current row.
+	 * 
+	 * @param symbol
+	 * @return
+	 */
+	private boolean inRow(int symbol) {
+		for (int j=0; j<n; j++)
+			if (row[j]==symbol)
+				return true;
+		return false;
+	}
+	
 	protected OrderedPair takeASymbolAndPosition() {
 		int index = -1;
 		int minor = Integer.MAX_VALUE;
 		
-		Set<Integer> possibleColumns = new HashSet<Integer>();
+		IntIndexedSet possibleColumns = new IntIndexedSet(2*n);
 		//first: search for the lowest non-zero value
 		for (int i=0; i<=(2*n)-1; i++) {
 			if (a.get(i).intValue()==0)
@@ -191,7 +202,7 @@ public class SelviEtAlLSGenerator extends OCarrollLSGenerator implements IRandom
 		//if an index is found, take all the columns with the same value
 		for (int i=0; i<=(2*n)-1; i++) {
 			if (a.get(i).intValue() == minor) {
-				possibleColumns.add(new Integer(i));
+				possibleColumns.add(i);
 			}
 		}
 //		if (possibleColumns.size()>=(2*n) && minor==1) {
@@ -204,7 +215,7 @@ public class SelviEtAlLSGenerator extends OCarrollLSGenerator implements IRandom
 		int position;
 		int element;
 		while(!found) {
-			s = RandomUtils.randomChoice(possibleColumns);
+			s = possibleColumns.randomPick(random);
 			
 			//TAKE AN ELEMENT (SYMBOL) AND POSITION (COLUMN)
 		    //CHECK (From Selvi's PAPER):
@@ -216,10 +227,10 @@ public class SelviEtAlLSGenerator extends OCarrollLSGenerator implements IRandom
 //				System.out.println("index:"+index);
 		    if (s<=(n-1)) {
 		    	position = s;
-		    	element = RandomUtils.randomChoice(availSymbolsInColumn[position]);
+		    	element = availSymbolsInColumn[position].randomPick(random);
 		    } else {
 		    	element = s-n;
-		    	position = RandomUtils.randomChoice(availColumnsForSymbol[element]);
+		    	position = availColumnsForSymbol[element].randomPick(random);
 		    }
 			
 		    p = new OrderedPair(element, position);
@@ -235,7 +246,7 @@ public class SelviEtAlLSGenerator extends OCarrollLSGenerator implements IRandom
 				
 				if (this.pathsExactlyEqual(newPath, badPath)) {
 					//it is a bad path
-					possibleColumns.remove(new Integer(s));
+					possibleColumns.remove(s);
 					if (possibleColumns.isEmpty()) {//if there are no more chances, must backtrack
 						if (this.verbose)
 							System.out.println("There are no more possible columns... backtracking.");
@@ -4,15 +4,13 @@
  */
 package seqgen.model.generators;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-
 import commons.generators.IRandomLatinSquareGenerator;
-import commons.model.latinsquares.ArrayListLatinSquare;
 import commons.model.latinsquares.ILatinSquare;
-import commons.utils.RandomUtils;
+import commons.model.latinsquares.PackedLatinSquare;
+import commons.model.latinsquares.ZobristHash;
+import commons.utils.IntIndexedSet;
+import commons.utils.RandomSource;
+import commons.utils.SecureRandomSource;
 
 /**
  * This class abstracts the common behaviour of all generators that operate sequentially, generating one random symbol at the time,
@@ -27,13 +25,19 @@ public abstract class AbstractSequentialGenerator implements IRandomLatinSquareG
 	protected int n = 0;//the size of the LSs to be generated
 	
 	//auxiliary structures
-	protected Set<Integer>[] availableInCol;
+	protected IntIndexedSet[] availableInCol;
 	protected ILatinSquare ls;
 	protected int[] failedAttemptsPerRow;
 	protected int[][] collisions;
 	
 	//the set of all possible symbols
-	protected Set<Integer> symbols = null;
+	protected IntIndexedSet symbols = null;
+	
+	//Zobrist hashes of the LS and of the row being generated (only when fingerprinting)
+	protected boolean fingerprinting = false;
+	protected ZobristHash rowHash = null;
+	
+	protected RandomSource random = new SecureRandomSource();
 
 	/**
 	 * Constructs the instance that generates LS of order n, with the auxiliary variables initialized to count conflicts and so.
@@ -43,26 +47,64 @@ public abstract class AbstractSequentialGenerator implements IRandomLatinSquareG
 	public AbstractSequentialGenerator(int n) {
 		this.n = n;
 		
-		RandomUtils.initRand();
-		this.symbols = RandomUtils.oneToN(n);
+		this.symbols = IntIndexedSet.full(n);
 	}
 	
 	/**
 	 * It prepares the generator for a new generation
 	 */
-	@SuppressWarnings("unchecked")
 	public void initialize() {
 		
-		availableInCol = new HashSet[n];
+		availableInCol = new IntIndexedSet[n];
 		failedAttemptsPerRow = new int[n];
 		collisions = new int[n][n];
 		
 		//initially available in each column
 	    for (int i=0; i<n; i++) {
-	    	availableInCol[i] = new HashSet<Integer>(this.symbols);
+	    	availableInCol[i] = new IntIndexedSet(this.symbols);
 	    }
 	    
-	    ls = new ArrayListLatinSquare(n);//default implementation
+	    PackedLatinSquare packed = new PackedLatinSquare(n);//default implementation
+	    if (fingerprinting) {
+	    	packed.enableZobrist();
+	    	rowHash = new ZobristHash();
+	    } else {
+	    	rowHash = null;
+	    }
+	    ls = packed;
+	}
+	
+	/**
+	 * The source of the random choices.
+	 * 
+	 * @param random
+	 */
+	@Override
+	public void setRandomSource(RandomSource random) {
+		this.random = random;
+	}
+	
+	/**
+	 * If true, the generated LSs maintain a Zobrist hash while they are built (see {@link #currentFingerprint()}).
+	 * 
+	 * @param fingerprinting
+	 */
+	public void setFingerprinting(boolean fingerprinting) {
+		this.fingerprinting = fingerprinting;
+	}
+	
+	/**
+	 * The Zobrist fingerprint of the generation in course, in O(1): the rows already in the LS
+	 *  (cells not generated yet count as symbol 0) plus the symbols chosen so far for the current row.
+	 *  After generateLS() it is the fingerprint of the generated LS.
+	 * 
+	 * @return
+	 */
+	public long currentFingerprint() {
+		long h = ((PackedLatinSquare)ls).fingerprint();
+		if (rowHash!=null)
+			h ^= rowHash.value();
+		return h;
 	}
 	
 	/**
@@ -73,8 +115,10 @@ public abstract class AbstractSequentialGenerator implements IRandomLatinSquareG
 		this.initialize();
 		
 	    for (int i=0; i<n; i++) {
-	    	List<Integer> row = this.generateRow(i);
+	    	int[] row = this.generateRow(i);
 	    	ls.setRow(i, row);
+	    	if (rowHash!=null)
+	    		rowHash.clear();//the row is now part of the LS hash
 	    }
 
 	    return ls;
@@ -84,22 +128,23 @@ public abstract class AbstractSequentialGenerator implements IRandomLatinSquareG
 	 * Generates row i_row of LS. 
 	 * 
 	 * This default implementation does not take into account the conflicts in the generated row with previous columns.
+	 *  The row is a new array of n symbols, which the LS copies.
 	 *  
 	 * @param i_row
 	 * @return
 	 */
-	protected List<Integer> generateRow(int i_row) {
-	    HashSet<Integer> availableInRow = new HashSet<Integer>(this.symbols);//all symbols initially available in the row 
+	protected int[] generateRow(int i_row) {
+	    IntIndexedSet availableInRow = new IntIndexedSet(this.symbols);//all symbols initially available in the row 
 	    
-	    ArrayList<Integer> row = new ArrayList<Integer>();
+	    int[] row = new int[n];
 	    int i_col = 0;
 	    
 	    while (i_col < n) {
-            Integer symbol = RandomUtils.randomChoice(availableInRow);
+            int symbol = availableInRow.randomPick(random);
 
-            i_col = i_col + 1;
             availableInRow.remove(symbol);//to avoid repetition in the generated row
-            row.add(symbol);
+            row[i_col] = symbol;
+            i_col = i_col + 1;
 	    }
 
 	    return row;
@@ -119,4 +164,4 @@ public abstract class AbstractSequentialGenerator implements IRandomLatinSquareG
 	}
 
 }
-	        
\ No newline at end of file
+	        
\ No newline at end of file
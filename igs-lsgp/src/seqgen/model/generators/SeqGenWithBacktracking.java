@@ -23,12 +23,7 @@
  */
 package seqgen.model.generators;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-
-import commons.utils.RandomUtils;
+import commons.utils.IntIndexedSet;
 
 /**
  *  This class implements a sequential algorithm that does backtracking to fix conflicts.
@@ -56,35 +51,29 @@ public class SeqGenWithBacktracking extends AbstractSequentialGenerator {
 	 *  
 	 */
 	@Override
-	@SuppressWarnings("unchecked")
-	protected List<Integer> generateRow(int i_row) {
-	    HashSet<Integer> availableInRow = new HashSet<Integer>(this.symbols);//initially all possible symbols
+	protected int[] generateRow(int i_row) {
+	    IntIndexedSet availableInRow = new IntIndexedSet(this.symbols);//initially all possible symbols
 	    
-	    //result of the algorithm
-	    List<Integer> row = new ArrayList<Integer>();
+	    //result of the algorithm (the first i_col symbols are chosen)
+	    int[] row = new int[n];
 	    int i_col = 0;
 	    
 	    //failed attempts for every column in current row.
-	    HashSet<Integer>[] failedAttemptsInCol = new HashSet[n];// = [[] for i in range(1,n+1)]
+	    IntIndexedSet[] failedAttemptsInCol = new IntIndexedSet[n];// = [[] for i in range(1,n+1)]
 	    for (int i=0; i<n; i++) {
-	    	failedAttemptsInCol[i] = new HashSet<Integer>();
+	    	failedAttemptsInCol[i] = new IntIndexedSet(n);
 	    }
 	    int failedInRowCount = 0;
 	    while (i_col < n) {//when i_col==n, row is complete
-	        //available is:
-	        Set<Integer> available = new HashSet<Integer>(availableInCol[i_col]);
-	    	available.retainAll(availableInRow);
-	    	available.removeAll(failedAttemptsInCol[i_col]);
+	        //choose a random symbol available in the column and in the row, that has not failed yet
+	        int symbol = IntIndexedSet.randomPickFromIntersection(availableInCol[i_col], availableInRow, failedAttemptsInCol[i_col], random);
 	    	
-	        if (!available.isEmpty()) { //si me quedan disponibles
-	            //choose random symbol
-	            Integer symbol = RandomUtils.randomChoice(available);
-	            
+	        if (symbol!=-1) { //si me quedan disponibles
 	            //count chosen symbol
 	            availableInCol[i_col].remove(symbol);
+	            row[i_col] = symbol;
 	            i_col = i_col + 1;
 	            availableInRow.remove(symbol);
-	            row.add(symbol);
 	        } else {
 	            failedInRowCount = failedInRowCount + 1;
 
@@ -95,21 +84,20 @@ public class SeqGenWithBacktracking extends AbstractSequentialGenerator {
 	            
 	            //clean failed attempts from rightest columns
 	            for (int i=i_col; i<n; i++) {
-	            	failedAttemptsInCol[i] = new HashSet<Integer>();
+	            	failedAttemptsInCol[i].clear();
 	            }
 
 	            //backtracking
 	            i_col = i_col - 1;
 	            //extract last symbol
-	            Integer symbol = row.get(row.size()-1);
-	            row.remove(row.size()-1);
+	            int last = row[i_col];
 
 	            //save failed attempt
-	            failedAttemptsInCol[i_col].add(symbol);
+	            failedAttemptsInCol[i_col].add(last);
 
 	            //put again in available in row and column
-	            availableInRow.add(symbol);
-	            availableInCol[i_col].add(symbol);            
+	            availableInRow.add(last);
+	            availableInCol[i_col].add(last);            
 	        }
 	    }
 	    failedAttemptsPerRow[i_row] = failedInRowCount;
@@ -126,4 +114,4 @@ public class SeqGenWithBacktracking extends AbstractSequentialGenerator {
 	}
 
 }
-	        
\ No newline at end of file
+	        
\ No newline at end of file
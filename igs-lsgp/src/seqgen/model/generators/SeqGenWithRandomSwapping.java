@@ -23,12 +23,7 @@
  */
 package seqgen.model.generators;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-
-import commons.utils.RandomUtils;
+import commons.utils.IntIndexedSet;
 
 /**
  *  This class implements an efficient method for the generation of Random Latin Squares.
@@ -42,6 +37,9 @@ import commons.utils.RandomUtils;
 
 public class SeqGenWithRandomSwapping extends AbstractSequentialGenerator {
 
+	private int currentRow = 0;//the row being generated, to keep its hash in swap()
+	private IntIndexedSet bag = null;//columns to swap with, reused by fixRow()
+	
 	/**
 	 * Constructs the generator of LSs of order n.
 	 * 
@@ -56,36 +54,36 @@ public class SeqGenWithRandomSwapping extends AbstractSequentialGenerator {
 	 * 
 	 */
 	@Override
-	protected ArrayList<Integer> generateRow(int i_row) {
-	    Set<Integer> availableInRow = new HashSet<Integer>(this.symbols);
+	protected int[] generateRow(int i_row) {
+		this.currentRow = i_row;
+	    IntIndexedSet availableInRow = new IntIndexedSet(this.symbols);
 	    
-	    ArrayList<Integer> row = new ArrayList<Integer>();
+	    int[] row = new int[n];
 	    int i_col = 0;
 	    
-	    Set<Integer> columnsWithRepetitions = new HashSet<Integer>();
+	    IntIndexedSet columnsWithRepetitions = new IntIndexedSet(n);
 	    
 	    while (i_col < n) {//when i_col==n, there are n chosen numbers
-	        //available set is:
-	        Set<Integer> available = new HashSet<Integer>(availableInCol[i_col]);
-	    	available.retainAll(availableInRow);
+	        //choose at random a symbol available in the column and in the row
+	        int symbol = IntIndexedSet.randomPickFromIntersection(availableInCol[i_col], availableInRow, random);
 	    	
-	        if (!available.isEmpty()) { //if there are available
-	            //choose a symbol at random
-	            Integer symbol = RandomUtils.randomChoice(available);
-	            
+	        if (symbol!=-1) { //if there are available
 	            //count the chosen symbol
 	            availableInCol[i_col].remove(symbol);
 	            availableInRow.remove(symbol);
-	            row.add(symbol);
+	            row[i_col] = symbol;
+	            if (rowHash!=null)
+	            	rowHash.toggle(i_row, i_col, symbol);
 	            i_col++;
 	        } else {
 	            //collision
-	        	Integer symbol = RandomUtils.randomChoice(availableInRow);
+	        	symbol = availableInRow.randomPick(random);
 
 	            availableInCol[i_col].remove(symbol);
 	            availableInRow.remove(symbol);
-	            row.add(symbol);
-
+	            row[i_col] = symbol;
+	            if (rowHash!=null)
+	            	rowHash.toggle(i_row, i_col, symbol);
 	            columnsWithRepetitions.add(i_col);
 	            
 	            i_col++;
@@ -106,25 +104,34 @@ public class SeqGenWithRandomSwapping extends AbstractSequentialGenerator {
 	 * @param row
 	 * @param columnsWithRepetitions
 	 */
-	protected void fixRow(int i_row, List<Integer> row, Set<Integer> columnsWithRepetitions) {
+	protected void fixRow(int i_row, int[] row, IntIndexedSet columnsWithRepetitions) {
 		int columnCountBeforeSwap, columnCountAfterSwap;
-		Integer lastCol1 = null, lastCol2 = null;
+		int lastCol1 = -1, lastCol2 = -1;
+		if (bag==null || bag.capacity()!=n)
+			bag = IntIndexedSet.full(n);
 		do {
 			//swap an element with repetitions in its column
-			Integer columnWRep = RandomUtils.randomChoice(columnsWithRepetitions);
-			Integer anotherCol = 0;
+			int columnWRep = columnsWithRepetitions.randomPick(random);
+			int anotherCol = 0;
 			
-			//create a bag with all symbols, except the column with repetitions
-			Set<Integer> bag = new HashSet<Integer>(this.symbols);
+			//the bag has all the columns, except the column with repetitions
 			bag.remove(columnWRep);
 			
 			//if the last column was columnWRep, avoid trying the same path again
+			int avoided = -1;
 			if (lastCol1==columnWRep) 
-				bag.remove(lastCol2);
+				avoided = lastCol2;
 			if (lastCol2==columnWRep) 
-				bag.remove(lastCol1);
+				avoided = lastCol1;
+			if (avoided!=-1 && bag.size()>1)
+				bag.remove(avoided);
+			else
+				avoided = -1;
 			
-			anotherCol = RandomUtils.randomChoice(bag);//take another column for swap, but not the same
+			anotherCol = bag.randomPick(random);//take another column for swap, but not the same
+			bag.add(columnWRep);
+			if (avoided!=-1)
+				bag.add(avoided);
 	
 			columnCountBeforeSwap = columnsWithRepetitions.size();
 			
@@ -153,12 +160,16 @@ public class SeqGenWithRandomSwapping extends AbstractSequentialGenerator {
 	 * @param row
 	 * @param columnsWithRepetitions
 	 */
-	protected void swap(Integer columnWRep, Integer anotherCol, List<Integer> row, Set<Integer> columnsWithRepetitions) {
-		Integer elem1 = row.get(columnWRep);
-		Integer elem2 = row.get(anotherCol);
+	protected void swap(int columnWRep, int anotherCol, int[] row, IntIndexedSet columnsWithRepetitions) {
+		int elem1 = row[columnWRep];
+		int elem2 = row[anotherCol];
 		
-		row.set(columnWRep, elem2);
-		row.set(anotherCol, elem1);
+		row[columnWRep] = elem2;
+		row[anotherCol] = elem1;
+		if (rowHash!=null) {
+			rowHash.replace(currentRow, columnWRep, elem1, elem2);
+			rowHash.replace(currentRow, anotherCol, elem2, elem1);
+		}
 		
 		boolean deleted2 = availableInCol[columnWRep].remove(elem2);
     	//availableInCol[columnWRep].add(elem1); element is repeated so it is not available
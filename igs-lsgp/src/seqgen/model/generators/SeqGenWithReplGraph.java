@@ -23,13 +23,9 @@
  */
 package seqgen.model.generators;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Set;
+import java.util.Arrays;
 
-import commons.utils.RandomUtils;
+import commons.utils.IntIndexedSet;
 
 /**
  *  This class implements the method with the replacement graph.
@@ -56,90 +52,92 @@ public class SeqGenWithReplGraph extends AbstractSequentialGenerator {
 	 *  This allows for the continuation of the generation (it saves the conflict).
 	 *    
 	 */
-	@SuppressWarnings("unchecked")
 	@Override
-	public ArrayList<Integer> generateRow(int i_row) {
-		Set<Integer> availableInRow = new HashSet<Integer>(this.symbols);
+	public int[] generateRow(int i_row) {
+		IntIndexedSet availableInRow = new IntIndexedSet(this.symbols);
 	    
-	    Set<Integer>[] initialAvailableInCol = new HashSet[n];
+	    IntIndexedSet[] initialAvailableInCol = new IntIndexedSet[n];
 	    
 	    for (int j=0; j<n; j++) {
-	    	initialAvailableInCol[j] = new HashSet<Integer>(availableInCol[j]);
+	    	initialAvailableInCol[j] = new IntIndexedSet(availableInCol[j]);
 	    }
 	    
-	    //result of this method
-	    ArrayList<Integer> row = new ArrayList<Integer>();
+	    //result of this method (the first i_col symbols are chosen)
+	    int[] row = new int[n];
+	    int[] position = new int[n];//the column of each symbol in the row, -1 if it is not in the row
+	    Arrays.fill(position, -1);
 	    int i_col = 0;
 	    
 	    while (i_col < n) {//when i_col is n, there are n chosen numbers
-	        //available is:
-	        HashSet<Integer> available = new HashSet<Integer>(availableInCol[i_col]);
-	    	available.retainAll(availableInRow);
+	        //choose at random a symbol available in the column and in the row
+	        int symbol = IntIndexedSet.randomPickFromIntersection(availableInCol[i_col], availableInRow, random);
 	    	
-	        if (!available.isEmpty()) { //if there are available
-	            //choose a symbol at random
-	            Integer symbol = RandomUtils.randomChoice(available);
+	        if (symbol!=-1) { //if there are available
 	            //count the chosen symbol
 	            availableInCol[i_col].remove(symbol);
 	            availableInRow.remove(symbol);
-	            row.add(symbol);
+	            row[i_col] = symbol;
+	            position[symbol] = i_col;
 	            i_col++;
 	        } else {//collision
-	        	HashMap<Integer, HashSet<Integer>> map = this.constructReplGraph(row, i_col, initialAvailableInCol);
-	        	int elem = RandomUtils.randomChoice(availableInCol[i_col]);
-	        	this.makeElemAvailable(elem, map, row, i_col, availableInRow);
+	        	IntIndexedSet[] map = this.constructReplGraph(row, i_col, initialAvailableInCol);
+	        	int elem = availableInCol[i_col].randomPick(random);
+	        	this.makeElemAvailable(elem, map, row, position, i_col, availableInRow);
 	        }
 	    }
 	    return row;
 	}
 
 	/**
-	 *  It constructs the replacement graph.
+	 *  It constructs the replacement graph: for each position up to col, the symbols that could replace the one in it
+	 *  (null if there are none).
 	 *  
 	 * @param row
 	 * @param col
 	 * @param initialAvailInCol
 	 * @return
 	 */
-	protected HashMap<Integer, HashSet<Integer>> constructReplGraph(ArrayList<Integer> row, 
-																 Integer col, 
-																 Set<Integer>[] initialAvailInCol) {
+	protected IntIndexedSet[] constructReplGraph(int[] row, 
+											   int col, 
+											   IntIndexedSet[] initialAvailInCol) {
 		
-		HashMap<Integer, HashSet<Integer>> map = new HashMap<Integer, HashSet<Integer>>();
+		IntIndexedSet[] map = new IntIndexedSet[n];
 		
 		for(int j=col; j>=0; j--) {
-			HashSet<Integer> set = new HashSet<Integer>(initialAvailInCol[j]);
-
-			if (set.size()>0)
-				map.put(j, set);//the element in position j could potentially be changed for one in the set
+			if (initialAvailInCol[j].size()>0)
+				map[j] = new IntIndexedSet(initialAvailInCol[j]);//the element in position j could potentially be changed for one in the set
 		}
 
 		return map;
 	}
 	
 	/**
-	 * It makes room to free the element "old".
+	 * It makes room to free the element "old". The first col symbols of row are chosen, and position has the column of
+	 *  each symbol in the row (-1 if it is not in it), so each replacement is done in O(1).
+	 *  While the path goes on, one symbol is in the row twice: its position is the one that stays, since the other one
+	 *  is replaced next.
 	 * 
 	 * @param old
 	 * @param map
 	 * @param row
+	 * @param position
 	 * @param col
 	 * @param availableInRow
 	 */
-	protected void makeElemAvailable(Integer old, HashMap<Integer, HashSet<Integer>> map, 
-								  ArrayList<Integer> row, Integer col, Set<Integer> availableInRow) {
+	protected void makeElemAvailable(int old, IntIndexedSet[] map, 
+								  int[] row, int[] position, int col, IntIndexedSet availableInRow) {
 		boolean finished = false;
 		
-		int firstElem = new Integer(old);
+		int firstElem = old;
 		
 		this.eraseFirstElemFromGraph(map, firstElem);
 	
-		int idx_old = row.indexOf(old);
+		int idx_old = position[old];
 		int idx_new;
 
 		int i=0;
 		
-		HashSet<Integer> path = new HashSet<Integer>();
+		IntIndexedSet path = new IntIndexedSet(n);
 
 		while (!finished) {
 //			if (idx_old==-1) {//there are no repetitions, but the element is still in the row
@@ -147,26 +145,27 @@ public class SeqGenWithReplGraph extends AbstractSequentialGenerator {
 //				old = firstElem;
 //			}
 			
-			Set<Integer> avail = new HashSet<Integer>(map.get(idx_old));
-			avail.removeAll(path);
+			int newElem = IntIndexedSet.randomPickExcluding(map[idx_old], path, random);
 			
-			if (avail.isEmpty()) {
+			if (newElem==-1) {
 				//Path no good, begin again
-				path = new HashSet<Integer>();
-				avail.addAll(map.get(idx_old));//cannot avoid addAll. "Magic", do not touch.
+				path.clear();
+				newElem = map[idx_old].randomPick(random);
 			}
 			
-			Integer newElem = RandomUtils.randomChoice(avail);
-			idx_new = row.indexOf(newElem);//index of this elem before replacement because it will be repeated
+			idx_new = position[newElem];//index of this elem before replacement because it will be repeated
 						
 			//replace 
-			row.set(idx_old, newElem);
+			row[idx_old] = newElem;
 		
 			//store in path 
 			path.add(newElem);
 			
-			if (row.indexOf(old)==-1) //if the old element is not in the row
+			if (position[old]==idx_old) {//if the old element is not in the row (it was not repeated)
+				position[old] = -1;
 				availableInRow.add(old);
+			}
+			position[newElem] = idx_old;//if newElem is repeated, this copy stays and the one in idx_new is replaced next
 			availableInRow.remove(newElem);
 
 			//if (availInCol[idx_old].indexOf(old)==-1)//check to avoid repetition
@@ -185,8 +184,8 @@ public class SeqGenWithReplGraph extends AbstractSequentialGenerator {
 					System.out.println("Is this an infinite loop?");
 					System.out.println(firstElem);
 					System.out.println(idx_old);
-					System.out.println(map);
-					System.out.println(row);
+					System.out.println(Arrays.toString(map));
+					System.out.println(Arrays.toString(Arrays.copyOf(row, col)));
 				}
 			}
 		}
@@ -201,20 +200,17 @@ public class SeqGenWithReplGraph extends AbstractSequentialGenerator {
 	}
 	
 
+
 	/**
 	 * Auxiliary method.
 	 * 
 	 * @param map
 	 * @param firstElem
 	 */
-	private void eraseFirstElemFromGraph(HashMap<Integer, HashSet<Integer>> map, Integer firstElem) {
-		Iterator<Integer> iter = map.keySet().iterator();
-		
-		while (iter.hasNext()) {
-			Integer elem = iter.next();
-			HashSet<Integer> set = map.get(elem);
-			set.remove(firstElem);
-			map.put(elem, set);
+	private void eraseFirstElemFromGraph(IntIndexedSet[] map, int firstElem) {
+		for (int j=0; j<map.length; j++) {
+			if (map[j]!=null)
+				map[j].remove(firstElem);
 		}
 	}
 }
@@ -22,11 +22,7 @@
  */
 package seqgen.model.generators;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Set;
-
-import commons.utils.RandomUtils;
+import commons.utils.IntIndexedSet;
 
 /**
  * This method does not deal with conflicts: when one occurs, it simply erases the whole row and begin generating it again.
@@ -52,28 +48,24 @@ public class SeqGenWithRestartRow extends AbstractSequentialGenerator {
 	 * Generates the row i. When a conflict is found, restart generating the row again.
 	 */
 	@Override
-	public ArrayList<Integer> generateRow(int i_row) {
-		HashSet<Integer> availableInRow = new HashSet<Integer>(this.symbols);//initially all symbols
+	public int[] generateRow(int i_row) {
+		IntIndexedSet availableInRow = new IntIndexedSet(this.symbols);//initially all symbols
 	    
 	    int colcount = 0;
 	    
-	    //result of this method
-	    ArrayList<Integer> row = new ArrayList<Integer>();
+	    //result of this method (the first i_col symbols are chosen)
+	    int[] row = new int[n];
 	    int i_col = 0;
 	    
 	    while (i_col < n) {//when i_col is n, there are n chosen numbers
-	        //available is:
-	        Set<Integer> available = new HashSet<Integer>(availableInCol[i_col]);
-	    	available.retainAll(availableInRow);
+	        //choose at random a symbol available in the column and in the row
+	        int symbol = IntIndexedSet.randomPickFromIntersection(availableInCol[i_col], availableInRow, random);
 	    	
-	        if (!available.isEmpty()) { //if there are available
-	            //choose a symbol at random
-	            Integer symbol = RandomUtils.randomChoice(available);
-	            
+	        if (symbol!=-1) { //if there are available
 	            //count the chosen symbol
 	            availableInCol[i_col].remove(symbol);
 	            availableInRow.remove(symbol);
-	            row.add(symbol);
+	            row[i_col] = symbol;
 	            i_col++;
 	        } else {//collision
 	        	colcount++;
@@ -81,10 +73,9 @@ public class SeqGenWithRestartRow extends AbstractSequentialGenerator {
 	        	//remove all symbols in row and return to available
 	        	while (i_col>0) {
 	        		i_col--;
-	        		Integer symbol = row.get(i_col);
-	        		availableInCol[i_col].add(symbol);
-	        		availableInRow.add(symbol);
-	        		row.remove(i_col);
+	        		int last = row[i_col];
+	        		availableInCol[i_col].add(last);
+	        		availableInRow.add(last);
 	        	}
 
 	            if (colcount%10000==0) {